@@ -0,0 +1,152 @@
+import bagel.Keys;
+import shadowtaxi.benchmarks.GameFixtures;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sets up the game classes for the benchmarks. The game files are read relative to the working directory, so the
+ * benchmarks have to run from the project root. Scores are saved to temporary files so the real leaderboard is
+ * left untouched.
+ */
+public class BenchmarkFixtures implements GameFixtures {
+    private static final long SEED = 20003;
+    // the largest extra gap between two NPCs in the same lane
+    private static final int MAX_NPC_GAP = 200;
+
+    private final GameConfig CONFIG;
+    private final Properties MESSAGE_PROPS;
+    // saves the scores of the finished games in the background, as the game does
+    private final ScoreWriter SCORES;
+
+    public BenchmarkFixtures() {
+        Properties gameProps = IOUtils.readPropertiesFile("res/app.properties");
+        MESSAGE_PROPS = IOUtils.readPropertiesFile("res/message_en.properties");
+        try {
+            File scoresFile = File.createTempFile("scores", ".bin");
+            scoresFile.deleteOnExit();
+            gameProps.setProperty("gameEnd.scoresFile", scoresFile.getPath());
+            File topScoresFile = File.createTempFile("scores", ".top");
+            topScoresFile.deleteOnExit();
+            gameProps.setProperty("gameEnd.topScoresFile", topScoresFile.getPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CONFIG = new GameConfig(gameProps);
+        SCORES = new ScoreWriter(
+                new Leaderboard(CONFIG.SCORES_FILE, CONFIG.TOP_SCORES_FILE, CONFIG.TOP_SCORES_COUNT),
+                CONFIG.SYNC_SCORES);
+    }
+
+    @Override
+    public Runnable newCollisionPass(int npcCount) {
+        GamePlayScreen gamePlayScreen = new GamePlayScreen(CONFIG, MESSAGE_PROPS, "BENCHMARK", SEED, SCORES);
+        GameWorld world = gamePlayScreen.getWorld();
+        Random random = new Random(SEED);
+
+        // The NPCs are lined up in random lanes with random gaps, upwards from the bottom of the screen. They do not
+        // touch each other, otherwise they would keep colliding because nothing moves them apart between passes.
+        int[] laneY = new int[CONFIG.getLaneCount()];
+        Arrays.fill(laneY, CONFIG.WINDOW_HEIGHT);
+        int carLength = (int) Math.ceil(2 * CONFIG.OTHER_CAR.RADIUS) + 1;
+        for (int i = 0; i < npcCount; i++) {
+            // other cars spawn twice as often as enemy cars in a normal game
+            NPC car = (i % 3 == 2) ? new EnemyCar(world) : new OtherCar(world);
+            int lane = random.nextInt(laneY.length);
+            laneY[lane] -= carLength + random.nextInt(MAX_NPC_GAP);
+            car.setX(CONFIG.getLaneCenter(lane));
+            car.setY(laneY[lane]);
+            if (car instanceof EnemyCar) {
+                gamePlayScreen.addEnemyCar((EnemyCar) car);
+            } else {
+                gamePlayScreen.addOtherCar((OtherCar) car);
+            }
+        }
+        return gamePlayScreen::handleCollisions;
+    }
+
+    @Override
+    public BooleanSupplier newGameTick() {
+        return new GameTick();
+    }
+
+    @Override
+    public List<String[]> readCommaSeparatedFile(String filename) {
+        return IOUtils.readCommaSeperatedFile(filename);
+    }
+
+    @Override
+    public void compileLevel(String objectsFile, String weatherFile, String levelFile) {
+        if (!LevelCompiler.compile(new CsvLevel(objectsFile, weatherFile), Paths.get(levelFile))) {
+            throw new IllegalStateException("Cannot compile " + objectsFile);
+        }
+    }
+
+    @Override
+    public long loadCsvLevel(String objectsFile, String weatherFile) {
+        return sumEntryY(new CsvLevel(objectsFile, weatherFile));
+    }
+
+    @Override
+    public long loadLevelFile(String levelFile) {
+        try {
+            return sumEntryY(new LevelFile(Paths.get(levelFile)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sumEntryY(Level level) {
+        long sum = 0;
+        for (int i = 0; i < level.getEntryCount(); i++) {
+            sum += level.getEntry(i).Y;
+        }
+        return sum;
+    }
+
+    @Override
+    public void importCsvScores(String csvFile, String scoreLog) {
+        new ScoreLog(scoreLog).importCsv(csvFile);
+    }
+
+    @Override
+    public Object[] selectTopScores(String scoreLog, int count) {
+        return Leaderboard.selectTopScores(new ScoreLog(scoreLog), count);
+    }
+
+    @Override
+    public Object[] getTopScores(String scoreLog, String topScoresFile, int count) {
+        return new Leaderboard(scoreLog, topScoresFile, count).getTopScores();
+    }
+
+    /**
+     * Plays games back to back, one frame per call. The games are seeded in turn from SEED, so every run of the
+     * benchmark plays the same games.
+     */
+    private class GameTick implements BooleanSupplier {
+        private final HeadlessInput INPUT = new HeadlessInput();
+        private int games;
+        private GamePlayScreen gamePlayScreen = new GamePlayScreen(CONFIG, MESSAGE_PROPS, "BENCHMARK", SEED, SCORES);
+
+        private GameTick() {
+            INPUT.setDown(Keys.UP, true);
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            boolean isFinished = gamePlayScreen.update(INPUT);
+            INPUT.nextFrame();
+            if (isFinished) {
+                gamePlayScreen = new GamePlayScreen(CONFIG, MESSAGE_PROPS, "BENCHMARK", SEED + ++games, SCORES);
+            }
+            return isFinished;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package shadowtaxi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one collision pass of the game play with a road full of NPCs.
+ * The game play is set up again for every iteration, because the collisions damage and push the cars.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    private int npcCount;
+
+    private Runnable collisionPass;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        collisionPass = GameFixtures.load().newCollisionPass(npcCount);
+    }
+
+    @Benchmark
+    public void handleCollisions() {
+        collisionPass.run();
+    }
+}
@@ -0,0 +1,52 @@
+package shadowtaxi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times reading a game objects file with IOUtils.readCommaSeperatedFile. The file is generated with lines shaped
+ * like the passenger lines of res/gameObjects.csv.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvBenchmark {
+    @Param({"1000", "100000"})
+    private int lineCount;
+
+    private GameFixtures fixtures;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = GameFixtures.load();
+        file = Files.createTempFile("gameObjects", ".csv");
+        Random random = new Random(lineCount);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            for (int i = 0; i < lineCount; i++) {
+                writer.printf("PASSENGER,%d,%d,%d,%d,%d,%d%n", 360 + 120 * random.nextInt(3), -100 * i,
+                        1 + random.nextInt(3), 360 + 120 * random.nextInt(3), -100 * i - 500, random.nextInt(2));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<String[]> readCommaSeperatedFile() {
+        return fixtures.readCommaSeparatedFile(file.toString());
+    }
+}
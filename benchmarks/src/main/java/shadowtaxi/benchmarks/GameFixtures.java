@@ -0,0 +1,92 @@
+package shadowtaxi.benchmarks;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The game code the benchmarks call into. The game classes live in the default package, which classes in a named
+ * package cannot import, and JMH does not allow benchmarks in the default package. The default package class
+ * BenchmarkFixtures implements this interface and is looked up by name.
+ */
+public interface GameFixtures {
+
+    /**
+     * Load the fixtures of the game on the class path.
+     * @return the game fixtures
+     */
+    static GameFixtures load() {
+        try {
+            return (GameFixtures) Class.forName("BenchmarkFixtures").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load the game fixtures", e);
+        }
+    }
+
+    /**
+     * Start a game play with extra NPCs spread over the road.
+     * @param npcCount the number of other cars and enemy cars to add
+     * @return an action that runs one collision pass of the game play
+     */
+    Runnable newCollisionPass(int npcCount);
+
+    /**
+     * Start a game play that holds the UP key, as the headless runner does.
+     * @return an action that plays one frame and returns true if the game finished. A new game is started when the
+     *         previous one has finished.
+     */
+    BooleanSupplier newGameTick();
+
+    /**
+     * Read a comma separated file the way the game does.
+     * @param filename the file to read
+     * @return the lines of the file, split at the commas
+     */
+    List<String[]> readCommaSeparatedFile(String filename);
+
+    /**
+     * Compile the CSV files of a level into a level file.
+     * @param objectsFile the game objects file
+     * @param weatherFile the weather file
+     * @param levelFile the level file to write
+     */
+    void compileLevel(String objectsFile, String weatherFile, String levelFile);
+
+    /**
+     * Read a level from its CSV files and create every streamed entry.
+     * @param objectsFile the game objects file
+     * @param weatherFile the weather file
+     * @return the sum of the y coordinates of the entries
+     */
+    long loadCsvLevel(String objectsFile, String weatherFile);
+
+    /**
+     * Map a compiled level file and create every streamed entry.
+     * @param levelFile the level file
+     * @return the sum of the y coordinates of the entries
+     */
+    long loadLevelFile(String levelFile);
+
+    /**
+     * Create a score log from a CSV scores file.
+     * @param csvFile the CSV file to import
+     * @param scoreLog the score log to create
+     */
+    void importCsvScores(String csvFile, String scoreLog);
+
+    /**
+     * Select the top scores by streaming over a whole score log.
+     * @param scoreLog the score log to read
+     * @param count the number of scores to select
+     * @return the top scores, best first
+     */
+    Object[] selectTopScores(String scoreLog, int count);
+
+    /**
+     * Get the top scores the way the game end screen does, from the sidecar file of the score log.
+     * @param scoreLog the score log
+     * @param topScoresFile the sidecar file, created from the score log if it does not match it
+     * @param count the number of scores to get
+     * @return the top scores, best first
+     */
+    Object[] getTopScores(String scoreLog, String topScoresFile, int count);
+}
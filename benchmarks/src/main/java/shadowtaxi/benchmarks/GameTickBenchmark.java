@@ -0,0 +1,30 @@
+package shadowtaxi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Times one frame of the game play, the work done by GamePlayScreen.update. Games are played back to back with the
+ * UP key held down, so the time includes spawning, moving, collisions and starting new games.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameTickBenchmark {
+    private BooleanSupplier gameTick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gameTick = GameFixtures.load().newGameTick();
+    }
+
+    @Benchmark
+    public boolean update() {
+        return gameTick.getAsBoolean();
+    }
+}
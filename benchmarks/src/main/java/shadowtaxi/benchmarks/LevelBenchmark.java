@@ -0,0 +1,62 @@
+package shadowtaxi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times loading a level and walking its entries the way the level stream does, from the CSV files and from the
+ * compiled level file. The game objects file is generated with lines shaped like the passenger lines of
+ * res/gameObjects.csv, after the taxi and the driver.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmark {
+    @Param({"1000", "100000"})
+    private int lineCount;
+
+    private GameFixtures fixtures;
+    private Path objectsFile;
+    private Path levelFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = GameFixtures.load();
+        objectsFile = Files.createTempFile("gameObjects", ".csv");
+        levelFile = Files.createTempFile("gameObjects", ".level");
+        Random random = new Random(lineCount);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(objectsFile))) {
+            writer.printf("TAXI,500,600%nDRIVER,500,600%n");
+            for (int i = 0; i < lineCount; i++) {
+                writer.printf("PASSENGER,%d,%d,%d,%d,%d,%d%n", 360 + 120 * random.nextInt(3), -100 * i,
+                        1 + random.nextInt(3), 360 + 120 * random.nextInt(3), -100 * i - 500, random.nextInt(2));
+            }
+        }
+        fixtures.compileLevel(objectsFile.toString(), "res/gameWeather.csv", levelFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(objectsFile);
+        Files.deleteIfExists(levelFile);
+    }
+
+    @Benchmark
+    public long loadCsvLevel() {
+        return fixtures.loadCsvLevel(objectsFile.toString(), "res/gameWeather.csv");
+    }
+
+    @Benchmark
+    public long loadLevelFile() {
+        return fixtures.loadLevelFile(levelFile.toString());
+    }
+}
@@ -0,0 +1,68 @@
+package shadowtaxi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times finding the top scores of a large score log: selecting them by streaming over the whole log, which is done
+ * when the sidecar file is missing or out of date, and reading them from the sidecar file, which is what
+ * GameEndScreen does when it is created.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoresBenchmark {
+    private static final int TOP_SCORES_COUNT = 5;
+
+    @Param({"1000", "100000", "1000000"})
+    private int scoreCount;
+
+    private GameFixtures fixtures;
+    private Path file;
+    private Path csvFile;
+    private Path topScoresFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = GameFixtures.load();
+        csvFile = Files.createTempFile("scores", ".csv");
+        Random random = new Random(scoreCount);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csvFile))) {
+            for (int i = 0; i < scoreCount; i++) {
+                writer.println("PLAYER" + i + "," + random.nextFloat() * 1000);
+            }
+        }
+        file = Files.createTempFile("scores", ".bin");
+        fixtures.importCsvScores(csvFile.toString(), file.toString());
+        topScoresFile = Files.createTempFile("scores", ".top");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(csvFile);
+        Files.deleteIfExists(topScoresFile);
+    }
+
+    @Benchmark
+    public Object[] selectTopScores() {
+        return fixtures.selectTopScores(file.toString(), TOP_SCORES_COUNT);
+    }
+
+    /**
+     * Get the top scores from the sidecar file. The file is created by the first call.
+     */
+    @Benchmark
+    public Object[] getTopScores() {
+        return fixtures.getTopScores(file.toString(), topScoresFile.toString(), TOP_SCORES_COUNT);
+    }
+}
@@ -0,0 +1,109 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests that a score log survives a crash while it was being created or imported.
+ */
+class ScoreLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendRewritesATornHeader() throws Exception {
+        Path file = dir.resolve("scores.bin");
+        // a crash while the header of a new log was written leaves part of it
+        Files.write(file, new byte[] {0x53, 0x54, 0x53, 0x4C, 0, 0, 0});
+        ScoreLog log = new ScoreLog(file.toString());
+
+        log.append("PLAYER", 123.5);
+
+        assertEquals(ScoreLog.HEADER_BYTES + ScoreLog.RECORD_BYTES, Files.size(file));
+        Score[] scores = log.readAll();
+        assertEquals(1, scores.length);
+        assertEquals("PLAYER", scores[0].getPlayerName());
+        assertEquals(123.5, scores[0].getScore());
+    }
+
+    @Test
+    void tornHeaderHoldsNoScores() throws Exception {
+        Path file = dir.resolve("scores.bin");
+        Files.write(file, new byte[] {0x53, 0x54});
+        ScoreLog log = new ScoreLog(file.toString());
+
+        assertEquals(0, log.size());
+        assertEquals(0, log.readAll().length);
+    }
+
+    @Test
+    void importRunsAgainAfterACrashLeftOnlyTheHeader() throws Exception {
+        Path file = dir.resolve("scores.bin");
+        Path csv = writeCsv();
+        // an import that crashed before any score reached the log leaves its header
+        ByteBuffer header = ByteBuffer.allocate(ScoreLog.HEADER_BYTES);
+        header.putInt(0x5354534C).putInt(1).putInt(ScoreLog.RECORD_BYTES).putInt(0);
+        Files.write(file, header.array());
+        ScoreLog log = new ScoreLog(file.toString());
+
+        assertEquals(3, log.importCsvIfNew(csv.toString()));
+
+        assertCsvScores(log.readAll());
+    }
+
+    @Test
+    void importReplacesAPartlyWrittenImport() throws Exception {
+        Path file = dir.resolve("scores.bin");
+        Path csv = writeCsv();
+        // an import that crashed before it was moved into place leaves part of the new log next to it
+        ScoreLog partLog = new ScoreLog(dir.resolve("scores.bin.tmp").toString());
+        partLog.append("ALICE", 10.0);
+        Files.write(dir.resolve("scores.bin.tmp"), new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+        ScoreLog log = new ScoreLog(file.toString());
+
+        assertEquals(3, log.importCsvIfNew(csv.toString()));
+
+        assertCsvScores(log.readAll());
+        assertFalse(Files.exists(dir.resolve("scores.bin.tmp")));
+        // the scores are imported only once
+        assertEquals(0, log.importCsvIfNew(csv.toString()));
+        assertEquals(3, log.size());
+    }
+
+    @Test
+    void importSkipsLinesWithoutAScore() throws Exception {
+        Path file = dir.resolve("scores.bin");
+        Path csv = dir.resolve("scores.csv");
+        Files.write(csv, Arrays.asList("ALICE,10.0", "", "DAVE", "ERIN,lots", "BOB,20.5", "CAROL,30.25"),
+                StandardCharsets.UTF_8);
+        ScoreLog log = new ScoreLog(file.toString());
+
+        assertEquals(3, log.importCsvIfNew(csv.toString()));
+
+        assertCsvScores(log.readAll());
+    }
+
+    private Path writeCsv() throws Exception {
+        Path csv = dir.resolve("scores.csv");
+        Files.write(csv, Arrays.asList("ALICE,10.0", "BOB,20.5", "CAROL,30.25"), StandardCharsets.UTF_8);
+        return csv;
+    }
+
+    private static void assertCsvScores(Score[] scores) {
+        assertEquals(3, scores.length);
+        assertEquals("ALICE", scores[0].getPlayerName());
+        assertEquals(10.0, scores[0].getScore());
+        assertEquals("BOB", scores[1].getPlayerName());
+        assertEquals(20.5, scores[1].getScore());
+        assertEquals("CAROL", scores[2].getPlayerName());
+        assertEquals(30.25, scores[2].getScore());
+    }
+}
@@ -0,0 +1,100 @@
+import bagel.Font;
+import bagel.Image;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache of the images used by the game, keyed by the path of the image file. Each file is decoded and uploaded
+ * once, and every caller asking for the same path shares the same Image. Images are kept for the whole game, as bagel
+ * cannot free a texture; dropping an Image would leak its texture and decode the file again the next time.
+ * Fonts are registered the same way, keyed by the font file and the font size.
+ */
+public class AssetCache {
+    private static final int BYTES_PER_PIXEL = 4;
+    private final Map<String, Image> images = new HashMap<>();
+    private final Map<String, Map<Integer, Font>> fonts = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long imageBytes;
+
+    /**
+     * Get the image stored in a file, loading it if it is not in the cache yet.
+     * @param imageFile the path to the image file
+     * @return the shared Image for the file
+     */
+    public Image getImage(String imageFile) {
+        Image image = images.get(imageFile);
+        if (image != null) {
+            hits++;
+            return image;
+        }
+
+        misses++;
+        image = new Image(imageFile);
+        images.put(imageFile, image);
+        imageBytes += getImageBytes(image);
+        return image;
+    }
+
+    /**
+     * Get a font of a given size, loading it the first time it is asked for. Fonts are small and are kept for the
+     * whole game.
+     * @param fontFile the path to the font file
+     * @param fontSize the size of the font
+     * @return the shared Font for the file and size
+     */
+    public Font getFont(String fontFile, int fontSize) {
+        Map<Integer, Font> sizes = fonts.computeIfAbsent(fontFile, file -> new HashMap<>());
+        Font font = sizes.get(fontSize);
+        if (font == null) {
+            font = new Font(fontFile, fontSize);
+            sizes.put(fontSize, font);
+        }
+        return font;
+    }
+
+    /**
+     * Load a group of images ahead of time, so they are not loaded in the middle of the game play.
+     * Images that are already cached are left as they are, and do not count as hits.
+     * @param imageFiles the paths to the image files
+     */
+    public void preload(Collection<String> imageFiles) {
+        for (String imageFile : imageFiles) {
+            if (!images.containsKey(imageFile)) {
+                getImage(imageFile);
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int getImageCount() {
+        return images.size();
+    }
+
+    /**
+     * Estimate the texture memory used by the cached images, assuming 4 bytes per pixel.
+     * @return the estimated number of bytes
+     */
+    public long getImageBytes() {
+        return imageBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("images=%d hits=%d misses=%d memory=%dKB",
+                getImageCount(), hits, misses, imageBytes / 1024);
+    }
+
+    private static long getImageBytes(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+    }
+}
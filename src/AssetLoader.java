@@ -0,0 +1,208 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Loads what the game play needs while the home and player info screens are shown, so starting a game play does not
+ * freeze the window.
+ * Worker threads pack the sprite atlas, which decodes the sprite images, and load the level, which compiles it if
+ * the level file is out of date. bagel decodes and uploads an image in one call that has to run on the thread of the
+ * window, and cannot take pixels decoded elsewhere, so the images are uploaded by update, one per frame, on the main
+ * thread.
+ * <pre>
+ *     loader.update();        // once per frame while the player is on the home and player info screens
+ *     loader.finish();        // when the game play starts, waits for what is left
+ *     loader.getLevel();
+ * </pre>
+ * Every task is recorded as an AssetLoad flight recorder event, and toString sums up the startup timings.
+ */
+public class AssetLoader implements AutoCloseable {
+    private static final double NANOS_PER_MILLI = 1e6;
+    // one for the atlas and one for the level
+    private static final int MAX_WORKERS = 2;
+
+    private final GameConfig CONFIG;
+    private final AssetCache ASSETS;
+    private final ExecutorService WORKERS;
+    private final long START_TIME = System.nanoTime();
+    private final CompletableFuture<SpriteAtlas> ATLAS;
+    private final CompletableFuture<Level> LEVEL;
+    private final AtomicInteger finishedTaskCount = new AtomicInteger();
+    private int taskCount;
+
+    // the image files to upload, known once the atlas is loaded
+    private List<String> imageFiles;
+    private int uploadedCount;
+
+    private volatile long atlasNanos;
+    private volatile long levelNanos;
+    private long uploadNanos;
+    private long waitNanos;
+    private long readyTime;
+
+    /**
+     * Start loading on the worker threads.
+     * @param config the game configuration the files are read from
+     * @param assets the cache the images are uploaded to
+     */
+    public AssetLoader(GameConfig config, AssetCache assets) {
+        this.CONFIG = config;
+        this.ASSETS = assets;
+        int workerCount = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.WORKERS = Executors.newFixedThreadPool(workerCount, task -> {
+            Thread thread = new Thread(task, "asset-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ATLAS = submit("atlas", config.ATLAS_INDEX, () -> {
+            long start = System.nanoTime();
+            SpriteAtlas atlas = SpriteAtlas.load(config);
+            atlasNanos = System.nanoTime() - start;
+            return atlas;
+        }).exceptionally(e -> {
+            // draw the sprites from their own images
+            e.printStackTrace();
+            return null;
+        });
+        LEVEL = submit("level", config.LEVEL_FILE, () -> {
+            long start = System.nanoTime();
+            Level level = Level.load(config);
+            levelNanos = System.nanoTime() - start;
+            return level;
+        });
+    }
+
+    /**
+     * Upload the next image that is ready. Call this once per frame on the main thread, it uploads at most one image
+     * so no frame takes much longer than the others.
+     */
+    public void update() {
+        if (imageFiles == null && ATLAS.isDone()) {
+            imageFiles = getTextureFiles(ATLAS.join());
+        }
+        if (imageFiles != null && uploadedCount < imageFiles.size()) {
+            uploadNext();
+        }
+        if (readyTime == 0 && isDone()) {
+            readyTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Wait for the worker threads and upload the images that are left. Call this on the main thread when the game
+     * play starts.
+     */
+    public void finish() {
+        long start = System.nanoTime();
+        SpriteAtlas atlas = ATLAS.join();
+        LEVEL.join();
+        waitNanos += System.nanoTime() - start;
+        if (imageFiles == null) {
+            imageFiles = getTextureFiles(atlas);
+        }
+        while (uploadedCount < imageFiles.size()) {
+            uploadNext();
+        }
+        if (readyTime == 0) {
+            readyTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Check how far the loading is.
+     * @return the share of the loading tasks and image uploads that are done, from 0 to 1
+     */
+    public double getProgress() {
+        int uploadCount = imageFiles != null ? imageFiles.size() : GamePlayScreen.getImageFiles(CONFIG).size();
+        return (double) (finishedTaskCount.get() + uploadedCount) / (taskCount + uploadCount);
+    }
+
+    /**
+     * @return true once the level is loaded and every image is uploaded
+     */
+    public boolean isDone() {
+        return LEVEL.isDone() && imageFiles != null && uploadedCount == imageFiles.size();
+    }
+
+    /**
+     * @return true once the atlas has been loaded, or failed to load
+     */
+    public boolean isAtlasLoaded() {
+        return ATLAS.isDone();
+    }
+
+    /**
+     * Get the sprite atlas. Only call this once isAtlasLoaded returns true or finish has been called.
+     * @return the atlas, or null if there is none and the sprites are drawn from their own images
+     */
+    public SpriteAtlas getAtlas() {
+        return ATLAS.join();
+    }
+
+    /**
+     * Get the level. Only call this once finish has been called.
+     * @return the level of the game play
+     */
+    public Level getLevel() {
+        return LEVEL.join();
+    }
+
+    /**
+     * Stop the worker threads. Tasks still running are finished first.
+     */
+    @Override
+    public void close() {
+        WORKERS.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(String task, String file, Supplier<T> work) {
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+            GameEvents.AssetLoad event = new GameEvents.AssetLoad();
+            event.begin();
+            try {
+                return work.get();
+            } finally {
+                finishedTaskCount.incrementAndGet();
+                if (event.shouldCommit()) {
+                    event.task = task;
+                    event.file = file;
+                    event.commit();
+                }
+            }
+        }, WORKERS);
+        taskCount++;
+        return future;
+    }
+
+    private List<String> getTextureFiles(SpriteAtlas atlas) {
+        List<String> gamePlayImages = GamePlayScreen.getImageFiles(CONFIG);
+        return atlas != null ? atlas.getTextureFiles(gamePlayImages) : gamePlayImages;
+    }
+
+    private void uploadNext() {
+        String imageFile = imageFiles.get(uploadedCount++);
+        GameEvents.AssetLoad event = new GameEvents.AssetLoad();
+        event.begin();
+        long start = System.nanoTime();
+        ASSETS.preload(List.of(imageFile));
+        uploadNanos += System.nanoTime() - start;
+        if (event.shouldCommit()) {
+            event.task = "upload";
+            event.file = imageFile;
+            event.commit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("assets: atlas=%.1fms level=%.1fms uploads=%d (%.1fms) waited=%.1fms ready=%s",
+                atlasNanos / NANOS_PER_MILLI, levelNanos / NANOS_PER_MILLI, uploadedCount,
+                uploadNanos / NANOS_PER_MILLI, waitNanos / NANOS_PER_MILLI,
+                readyTime == 0 ? "no" : String.format("%.1fms", (readyTime - START_TIME) / NANOS_PER_MILLI));
+    }
+}
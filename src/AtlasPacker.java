@@ -0,0 +1,185 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Packs the sprites of the game play into one atlas image, so they can all be drawn from a single texture.
+ * The atlas comes with an index file, a text file whose first line is the path to the atlas image, followed by one
+ * line per sprite:
+ * <pre>
+ *     imageFile,x,y,width,height
+ * </pre>
+ * The sprites are packed in rows, tallest first, with PADDING transparent pixels around each one so neighbouring
+ * sprites never bleed into each other. The game packs the atlas when it starts if the index is missing, older than a
+ * sprite or lists other sprites, so the sprite images stay the files that are edited.
+ */
+public class AtlasPacker {
+    private static final int PADDING = 2;
+    private static final int MIN_WIDTH = 128;
+    private static final int MAX_WIDTH = 4096;
+
+    /**
+     * Check if an atlas can be used instead of the sprite images it was packed from.
+     * @param indexFile the index file of the atlas
+     * @param imageFiles the paths to the sprite images
+     * @return true if the index and its atlas image exist, the index lists exactly the sprite images and is not older
+     *         than any of them
+     */
+    public static boolean isUpToDate(Path indexFile, List<String> imageFiles) {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try {
+            List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+            if (lines.size() != imageFiles.size() + 1 || !Files.exists(Paths.get(lines.get(0)))) {
+                return false;
+            }
+            HashSet<String> packed = new HashSet<>();
+            for (String line : lines.subList(1, lines.size())) {
+                packed.add(line.split(",")[0]);
+            }
+            FileTime written = Files.getLastModifiedTime(indexFile);
+            for (String imageFile : imageFiles) {
+                if (!packed.contains(imageFile)
+                        || written.compareTo(Files.getLastModifiedTime(Paths.get(imageFile))) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Pack sprite images into an atlas image and write its index. Both files are written next to their destination
+     * first and then moved, the index last, so an index is never read before its atlas image is complete.
+     * @param imageFiles the paths to the sprite images
+     * @param atlasImage the atlas image to write. An existing file is replaced.
+     * @param indexFile the index file to write. An existing file is replaced.
+     * @return true if both files were written
+     */
+    public static boolean pack(List<String> imageFiles, Path atlasImage, Path indexFile) {
+        try {
+            List<Sprite> sprites = new ArrayList<>();
+            for (String imageFile : imageFiles) {
+                BufferedImage image = ImageIO.read(Paths.get(imageFile).toFile());
+                if (image == null) {
+                    throw new IOException("Not an image: " + imageFile);
+                }
+                sprites.add(new Sprite(imageFile, image));
+            }
+            sprites.sort(Comparator.comparingInt((Sprite sprite) -> sprite.IMAGE.getHeight()).reversed());
+
+            int width = MIN_WIDTH;
+            int height = place(sprites, width);
+            // grow the atlas until it is about square, so it stays within the texture size limits of the GPU
+            while ((height < 0 || height > width) && width < MAX_WIDTH) {
+                width *= 2;
+                height = place(sprites, width);
+            }
+            if (height < 0) {
+                throw new IOException("Sprites do not fit in an atlas " + MAX_WIDTH + " pixels wide");
+            }
+
+            // copy the pixels as they are, drawing the sprites would blend their translucent edges
+            BufferedImage atlas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            for (Sprite sprite : sprites) {
+                int spriteWidth = sprite.IMAGE.getWidth();
+                int spriteHeight = sprite.IMAGE.getHeight();
+                atlas.setRGB(sprite.x, sprite.y, spriteWidth, spriteHeight,
+                        sprite.IMAGE.getRGB(0, 0, spriteWidth, spriteHeight, null, 0, spriteWidth), 0, spriteWidth);
+            }
+
+            Path tempImage = atlasImage.resolveSibling(atlasImage.getFileName() + ".tmp");
+            if (!ImageIO.write(atlas, "png", tempImage.toFile())) {
+                throw new IOException("No PNG writer available");
+            }
+            Files.move(tempImage, atlasImage, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Path tempIndex = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tempIndex, StandardCharsets.UTF_8)) {
+                writer.write(atlasImage.toString());
+                writer.newLine();
+                for (Sprite sprite : sprites) {
+                    writer.write(String.format("%s,%d,%d,%d,%d", sprite.FILE, sprite.x, sprite.y,
+                            sprite.IMAGE.getWidth(), sprite.IMAGE.getHeight()));
+                    writer.newLine();
+                }
+            }
+            Files.move(tempIndex, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Place the sprites in rows of a given width, from the top left corner.
+     * @param sprites the sprites, tallest first
+     * @param width the width of the atlas
+     * @return the height of the atlas, or -1 if a sprite is wider than the atlas
+     */
+    private static int place(List<Sprite> sprites, int width) {
+        int x = PADDING;
+        int y = PADDING;
+        int rowHeight = 0;
+        for (Sprite sprite : sprites) {
+            int spriteWidth = sprite.IMAGE.getWidth();
+            if (spriteWidth + 2 * PADDING > width) {
+                return -1;
+            }
+            if (x + spriteWidth + PADDING > width) {
+                x = PADDING;
+                y += rowHeight + PADDING;
+                rowHeight = 0;
+            }
+            sprite.x = x;
+            sprite.y = y;
+            x += spriteWidth + PADDING;
+            rowHeight = Math.max(rowHeight, sprite.IMAGE.getHeight());
+        }
+        return y + rowHeight + PADDING;
+    }
+
+    private static class Sprite {
+        private final String FILE;
+        private final BufferedImage IMAGE;
+        private int x;
+        private int y;
+
+        private Sprite(String file, BufferedImage image) {
+            this.FILE = file;
+            this.IMAGE = image;
+        }
+    }
+
+    /**
+     * Pack an atlas.
+     * @param args the atlas image and the index file to write, followed by the sprite images to pack.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: AtlasPacker <atlas image> <index file> <sprite image>...");
+            System.exit(-1);
+        }
+        List<String> imageFiles = Arrays.asList(args).subList(2, args.length);
+        if (!pack(imageFiles, Paths.get(args[0]), Paths.get(args[1]))) {
+            System.exit(-1);
+        }
+        System.out.println("Packed " + imageFiles.size() + " sprites into " + args[0]);
+    }
+}
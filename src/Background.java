@@ -4,88 +4,47 @@
  * Modifications have been made to implement rain functionality.
  */
 
-import bagel.Image;
-import bagel.Input;
-import bagel.Keys;
-import java.util.Properties;
-
 /**
  * A class representing the background of the game play.
+ * Two backgrounds stacked in y-axis tile the road. Each one is drawn at its start position moved down by the scroll
+ * distance of the camera, wrapped to the height of the window, so the pair always covers the screen.
  */
-public class Background implements Scrollable {
+public class Background {
     private final int WINDOW_HEIGHT;
-    private final Image IMAGE;
-    private final Image RAIN_IMAGE;
-    private final int SPEED_Y;
+    private final String IMAGE;
+    private final String RAIN_IMAGE;
+    private final Camera CAMERA;
     private final int X;
-    private int y;
-    private int moveY;
-    private Image currentImage;
+    private final int START_Y;
+    private String currentImage;
 
-    public Background(int x, int y, Properties props) {
+    public Background(int x, int y, GameConfig config, Camera camera) {
         this.X = x;
-        this.y = y;
-        this.moveY = 0;
-        this.SPEED_Y = Integer.parseInt(props.getProperty("gameObjects.taxi.speedY"));
-        this.IMAGE = new Image(props.getProperty("backgroundImage.sunny"));
-        this.RAIN_IMAGE = new Image(props.getProperty("backgroundImage.raining"));
-        this.WINDOW_HEIGHT = Integer.parseInt(props.getProperty("window.height"));
+        this.START_Y = y;
+        this.CAMERA = camera;
+        this.IMAGE = config.SUNNY_BACKGROUND;
+        this.RAIN_IMAGE = config.RAIN_BACKGROUND;
+        this.WINDOW_HEIGHT = config.WINDOW_HEIGHT;
         this.currentImage = IMAGE; // The weather is sunny by default
     }
 
     /**
-     * Move the background in y direction according to the keyboard input. And render the background image.
-     * @param input The current mouse/keyboard input.
+     * Set the image of the background based on the weather.
+     * @param currentWeather The current weather condition.
      */
-    public void update(Input input, Background background, String currentWeather) {
-        if(input != null) {
-            adjustToInputMovement(input);
-        }
-
-        // Set the image based on the current weather
+    public void update(String currentWeather) {
         if (currentWeather.equals("SUNNY")) {
             currentImage = IMAGE;
         } else if (currentWeather.equals("RAINING")) {
             currentImage = RAIN_IMAGE;
         }
-
-        move();
-        draw();
-
-        if (y >= WINDOW_HEIGHT * 1.5) {
-            y = background.getY() - WINDOW_HEIGHT;
-        }
-    }
-
-    public int getY() {
-        return y;
     }
 
     /**
-     * Move the GameObject object in the y-direction based on the speedY attribute.
+     * Draw the background image into the screen, between its position before the last tick and its current position.
+     * @param renderer the Renderer to draw with
      */
-    @Override
-    public void move() {
-        this.y += SPEED_Y * moveY;
-    }
-
-    /**
-     * Draw the GameObject object into the screen.
-     */
-    public void draw() {
-        currentImage.draw(X, y);
-    }
-
-    /**
-     * Adjust the movement direction in y-axis of the GameObject based on the keyboard input.
-     * @param input The current mouse/keyboard input.
-     */
-    @Override
-    public void adjustToInputMovement(Input input) {
-        if (input.wasPressed(Keys.UP)) {
-            moveY = 1;
-        }  else if(input.wasReleased(Keys.UP)) {
-            moveY = 0;
-        }
+    public void render(Renderer renderer) {
+        renderer.drawImage(currentImage, X, START_Y + CAMERA.getRenderScrollY() % WINDOW_HEIGHT);
     }
 }
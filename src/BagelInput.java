@@ -0,0 +1,34 @@
+import bagel.Input;
+import bagel.Keys;
+
+/**
+ * An InputState backed by the bagel window input of the current frame.
+ */
+public class BagelInput implements InputState {
+    private Input input;
+
+    /**
+     * Point this InputState at the bagel input of the current frame.
+     * @param input The current mouse/keyboard input.
+     * @return this InputState
+     */
+    public BagelInput wrap(Input input) {
+        this.input = input;
+        return this;
+    }
+
+    @Override
+    public boolean isDown(Keys key) {
+        return input.isDown(key);
+    }
+
+    @Override
+    public boolean wasPressed(Keys key) {
+        return input.wasPressed(key);
+    }
+
+    @Override
+    public boolean wasReleased(Keys key) {
+        return input.wasReleased(key);
+    }
+}
@@ -0,0 +1,65 @@
+import bagel.Font;
+import bagel.Image;
+
+/**
+ * A Renderer that draws to the bagel window as soon as it is asked to, in the order of the calls. Images and fonts
+ * come from the shared AssetCache. Layers are not tracked, so the draws have to be made from the bottom layer up.
+ */
+public class BagelRenderer implements Renderer {
+    private final AssetCache ASSETS;
+    // the last texture drawn from, to count the texture switches
+    private Object lastTexture;
+    private int drawCount;
+    private int textureSwitchCount;
+    private int lastDrawCount;
+    private int lastTextureSwitchCount;
+
+    public BagelRenderer(AssetCache assets) {
+        this.ASSETS = assets;
+    }
+
+    @Override
+    public void setLayer(Layer layer) {
+    }
+
+    @Override
+    public void drawImage(String imageFile, double x, double y) {
+        Image image = ASSETS.getImage(imageFile);
+        countDraw(image);
+        image.draw(x, y);
+    }
+
+    @Override
+    public void drawString(String fontFile, int fontSize, String text, double x, double y) {
+        Font font = ASSETS.getFont(fontFile, fontSize);
+        countDraw(font);
+        font.drawString(text, x, y);
+    }
+
+    @Override
+    public void flush() {
+        lastDrawCount = drawCount;
+        lastTextureSwitchCount = textureSwitchCount;
+        drawCount = 0;
+        textureSwitchCount = 0;
+        lastTexture = null;
+    }
+
+    @Override
+    public int getDrawCount() {
+        return lastDrawCount;
+    }
+
+    @Override
+    public int getTextureSwitchCount() {
+        return lastTextureSwitchCount;
+    }
+
+    private void countDraw(Object texture) {
+        drawCount++;
+        if (texture != lastTexture) {
+            textureSwitchCount++;
+            lastTexture = texture;
+        }
+    }
+}
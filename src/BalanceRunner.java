@@ -0,0 +1,178 @@
+import bagel.Keys;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Plays a batch of headless games for each of a number of parameter sets and prints how the games ended, to balance
+ * the level without playing it by hand. A parameter set overrides properties of app.properties, such as
+ * gamePlay.target, the spawn rates of the cars or the fireball damage.
+ * Every game has its own world and only shares the configuration and the level, which are read-only, so the games
+ * run in parallel on every core. The games of every parameter set use the same seeds, so the sets are compared on
+ * the same traffic. Scores are not saved.
+ */
+public class BalanceRunner {
+    // the random script changes the keys it holds this often
+    private static final int SCRIPT_CHANGE_FRAMES = 30;
+    private static final Keys[] ARROW_KEYS = {Keys.UP, Keys.DOWN, Keys.LEFT, Keys.RIGHT};
+
+    /**
+     * How the taxi is driven in the games.
+     */
+    public enum Script {
+        // hold UP for the whole game, as the HeadlessRunner does
+        UP,
+        // hold a random set of arrow keys, changed every SCRIPT_CHANGE_FRAMES frames, mostly with UP held
+        RANDOM
+    }
+
+    private final GameConfig CONFIG;
+    private final Properties MESSAGE_PROPS;
+    private final Level LEVEL;
+    private final Script SCRIPT;
+
+    public BalanceRunner(GameConfig config, Properties messageProps, Script script) {
+        this.CONFIG = config;
+        this.MESSAGE_PROPS = messageProps;
+        this.LEVEL = Level.load(config);
+        this.SCRIPT = script;
+    }
+
+    /**
+     * Play games in parallel, seeded one after another from a first seed.
+     * @param games the number of games to play
+     * @param seed the seed of the first game
+     * @return the results of the games, in seed order
+     */
+    public Result[] playGames(int games, long seed) {
+        return IntStream.range(0, games).parallel()
+                .mapToObj(i -> playGame(seed + i))
+                .toArray(Result[]::new);
+    }
+
+    /**
+     * Play one game until it is finished.
+     * @param seed the seed of the game and of the random script
+     * @return the result of the game
+     */
+    public Result playGame(long seed) {
+        GamePlayScreen gamePlayScreen = new GamePlayScreen(CONFIG, MESSAGE_PROPS, "BALANCE", seed, LEVEL, null);
+        HeadlessInput input = new HeadlessInput();
+        // the script draws from its own stream, so it does not change the random events of the game
+        SplittableRandom scriptRandom = new SplittableRandom(~seed);
+        input.setDown(Keys.UP, true);
+
+        int frames = 0;
+        boolean isFinished = false;
+        while (!isFinished) {
+            if (SCRIPT == Script.RANDOM && frames % SCRIPT_CHANGE_FRAMES == 0) {
+                setRandomKeys(input, scriptRandom);
+            }
+            isFinished = gamePlayScreen.update(input);
+            input.nextFrame();
+            frames++;
+        }
+        return new Result(gamePlayScreen.getOutcome(), gamePlayScreen.getEarnings(), frames);
+    }
+
+    private static void setRandomKeys(HeadlessInput input, SplittableRandom random) {
+        input.setDown(Keys.UP, random.nextInt(4) != 0);
+        input.setDown(Keys.DOWN, random.nextInt(8) == 0);
+        int sideways = random.nextInt(4);
+        input.setDown(Keys.LEFT, sideways == 0);
+        input.setDown(Keys.RIGHT, sideways == 1);
+    }
+
+    /**
+     * How one game ended.
+     */
+    public static class Result {
+        public final GameOutcome OUTCOME;
+        public final float EARNINGS;
+        public final int FRAMES;
+
+        public Result(GameOutcome outcome, float earnings, int frames) {
+            this.OUTCOME = outcome;
+            this.EARNINGS = earnings;
+            this.FRAMES = frames;
+        }
+    }
+
+    /**
+     * Print the win rate, the share of each outcome, and the distribution of the earnings and frames of a batch.
+     * @param results the results of the batch
+     * @param seconds the time the batch took
+     */
+    private static void printSummary(Result[] results, double seconds) {
+        int[] outcomes = new int[GameOutcome.values().length];
+        float[] earnings = new float[results.length];
+        long totalFrames = 0;
+        double totalEarnings = 0;
+        for (int i = 0; i < results.length; i++) {
+            outcomes[results[i].OUTCOME.ordinal()]++;
+            earnings[i] = results[i].EARNINGS;
+            totalEarnings += results[i].EARNINGS;
+            totalFrames += results[i].FRAMES;
+        }
+        Arrays.sort(earnings);
+
+        System.out.printf("  %d games in %.2f s (%.0f games/s, %.0f frames/s)%n",
+                results.length, seconds, results.length / seconds, totalFrames / seconds);
+        StringBuilder outcomeLine = new StringBuilder(" ");
+        for (GameOutcome outcome : GameOutcome.values()) {
+            outcomeLine.append(String.format(" %s %.1f%%", outcome.name().toLowerCase(),
+                    100.0 * outcomes[outcome.ordinal()] / results.length));
+        }
+        System.out.println(outcomeLine);
+        System.out.printf("  earnings: mean %.2f min %.2f p10 %.2f p50 %.2f p90 %.2f max %.2f%n",
+                totalEarnings / results.length, earnings[0], percentile(earnings, 10), percentile(earnings, 50),
+                percentile(earnings, 90), earnings[earnings.length - 1]);
+        System.out.printf("  frames: mean %.0f%n", (double) totalFrames / results.length);
+    }
+
+    private static float percentile(float[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    /**
+     * Play a batch of games for each parameter set and print a summary of each batch.
+     * @param args the number of games per parameter set, 1000 by default, the script, up or random, up by default,
+     *             the seed of the first game, random by default, and the parameter sets. A parameter set is a comma
+     *             separated list of property=value overrides, with no parameter set app.properties is used as it is.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Script script = args.length > 1 ? Script.valueOf(args[1].toUpperCase()) : Script.UP;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : GameRandom.newSeed();
+        String[] parameterSets = args.length > 3 ? Arrays.copyOfRange(args, 3, args.length) : new String[] {""};
+
+        Properties gameProps = IOUtils.readPropertiesFile("res/app.properties");
+        Properties messageProps = IOUtils.readPropertiesFile("res/message_en.properties");
+        System.out.printf("%d games per parameter set with the %s script from seed %d on %d cores%n",
+                games, script.name().toLowerCase(), seed, Runtime.getRuntime().availableProcessors());
+
+        for (String parameterSet : parameterSets) {
+            Properties setProps = new Properties();
+            setProps.putAll(gameProps);
+            for (String override : parameterSet.split(",")) {
+                if (override.isBlank()) {
+                    continue;
+                }
+                String[] keyValue = override.split("=", 2);
+                if (keyValue.length != 2) {
+                    System.err.println("Parameter overrides are written as property=value: " + override);
+                    System.exit(-1);
+                }
+                setProps.setProperty(keyValue[0].trim(), keyValue[1].trim());
+            }
+
+            BalanceRunner runner = new BalanceRunner(new GameConfig(setProps), messageProps, script);
+            System.out.println(parameterSet.isBlank() ? "app.properties" : parameterSet);
+            long start = System.nanoTime();
+            Result[] results = runner.playGames(games, seed);
+            printSummary(results, (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+import bagel.DrawOptions;
+import bagel.Font;
+import bagel.Image;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A Renderer that queues the draws of a frame and submits them in flush, sorted by layer and then by texture, so each
+ * texture is bound once per layer rather than once per game object.
+ * The game play sprites are drawn from the sections of a SpriteAtlas, so all of them share one texture and a frame
+ * switches textures about the same number of times however many game objects are on the screen. Images that are not
+ * in the atlas, such as the backgrounds, and fonts are textures of their own.
+ * Within a layer, draws of the same texture stay in the order they were made, and the textures are drawn in the
+ * order they were first seen, the atlas first. The queue is kept in arrays that are reused every frame, so queueing
+ * a draw does not allocate once the arrays have grown to the size of a frame.
+ */
+public class BatchRenderer implements Renderer {
+    private static final int TEXTURE_SHIFT = 32;
+    private static final int LAYER_SHIFT = 48;
+    private static final int MAX_TEXTURES = 1 << (LAYER_SHIFT - TEXTURE_SHIFT);
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final AssetCache ASSETS;
+    private final SpriteAtlas ATLAS;
+    private final Map<String, Integer> IMAGE_TEXTURES = new HashMap<>();
+    private final Map<Font, Integer> FONT_TEXTURES = new IdentityHashMap<>();
+
+    private Layer layer = Layer.BACKGROUND;
+
+    // the queued draws, sort key i belongs to the draw at the index in its low 32 bits
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private String[] imageFiles = new String[INITIAL_CAPACITY];
+    private DrawOptions[] sections = new DrawOptions[INITIAL_CAPACITY];
+    private Font[] fonts = new Font[INITIAL_CAPACITY];
+    private String[] texts = new String[INITIAL_CAPACITY];
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private int count;
+
+    private int lastDrawCount;
+    private int lastTextureSwitchCount;
+
+    /**
+     * @param assets the cache the atlas, the other images and the fonts are loaded from
+     * @param atlas the atlas the sprites are drawn from
+     */
+    public BatchRenderer(AssetCache assets, SpriteAtlas atlas) {
+        this.ASSETS = assets;
+        this.ATLAS = atlas;
+        getImageTexture(atlas.getImage());
+    }
+
+    @Override
+    public void setLayer(Layer layer) {
+        this.layer = layer;
+    }
+
+    @Override
+    public void drawImage(String imageFile, double x, double y) {
+        DrawOptions section = ATLAS.getSection(imageFile);
+        String textureFile = section != null ? ATLAS.getImage() : imageFile;
+        int index = queue(getImageTexture(textureFile), x, y);
+        imageFiles[index] = textureFile;
+        sections[index] = section;
+        fonts[index] = null;
+        texts[index] = null;
+    }
+
+    @Override
+    public void drawString(String fontFile, int fontSize, String text, double x, double y) {
+        Font font = ASSETS.getFont(fontFile, fontSize);
+        Integer texture = FONT_TEXTURES.get(font);
+        if (texture == null) {
+            texture = newTexture();
+            FONT_TEXTURES.put(font, texture);
+        }
+        int index = queue(texture, x, y);
+        imageFiles[index] = null;
+        sections[index] = null;
+        fonts[index] = font;
+        texts[index] = text;
+    }
+
+    /**
+     * Sort the queued draws by layer and texture and draw them.
+     */
+    @Override
+    public void flush() {
+        Arrays.sort(keys, 0, count);
+        int texture = -1;
+        Image image = null;
+        int textureSwitchCount = 0;
+        for (int i = 0; i < count; i++) {
+            int index = (int) (keys[i] & INDEX_MASK);
+            int drawTexture = (int) (keys[i] >>> TEXTURE_SHIFT) & (MAX_TEXTURES - 1);
+            if (drawTexture != texture) {
+                texture = drawTexture;
+                textureSwitchCount++;
+                image = imageFiles[index] != null ? ASSETS.getImage(imageFiles[index]) : null;
+            }
+            if (fonts[index] != null) {
+                fonts[index].drawString(texts[index], xs[index], ys[index]);
+            } else if (sections[index] != null) {
+                image.draw(xs[index], ys[index], sections[index]);
+            } else {
+                image.draw(xs[index], ys[index]);
+            }
+        }
+        // let go of the text of the frame, the other references are to long lived assets
+        Arrays.fill(texts, 0, count, null);
+        lastDrawCount = count;
+        lastTextureSwitchCount = textureSwitchCount;
+        count = 0;
+        layer = Layer.BACKGROUND;
+    }
+
+    @Override
+    public int getDrawCount() {
+        return lastDrawCount;
+    }
+
+    @Override
+    public int getTextureSwitchCount() {
+        return lastTextureSwitchCount;
+    }
+
+    /**
+     * Add a draw to the queue.
+     * @param texture the texture of the draw
+     * @param x the x coordinate of the draw
+     * @param y the y coordinate of the draw
+     * @return the index the rest of the draw is stored at
+     */
+    private int queue(int texture, double x, double y) {
+        if (count == keys.length) {
+            int capacity = count * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            imageFiles = Arrays.copyOf(imageFiles, capacity);
+            sections = Arrays.copyOf(sections, capacity);
+            fonts = Arrays.copyOf(fonts, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        int index = count++;
+        keys[index] = (long) layer.ordinal() << LAYER_SHIFT | (long) texture << TEXTURE_SHIFT | index;
+        xs[index] = x;
+        ys[index] = y;
+        return index;
+    }
+
+    private int getImageTexture(String imageFile) {
+        Integer texture = IMAGE_TEXTURES.get(imageFile);
+        if (texture == null) {
+            texture = newTexture();
+            IMAGE_TEXTURES.put(imageFile, texture);
+        }
+        return texture;
+    }
+
+    private int newTexture() {
+        int texture = IMAGE_TEXTURES.size() + FONT_TEXTURES.size();
+        if (texture == MAX_TEXTURES) {
+            throw new IllegalStateException("Too many textures to batch: " + texture);
+        }
+        return texture;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("batch: draws=%d textureSwitches=%d textures=%d",
+                lastDrawCount, lastTextureSwitchCount, IMAGE_TEXTURES.size() + FONT_TEXTURES.size());
+    }
+}
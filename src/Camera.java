@@ -0,0 +1,103 @@
+import bagel.Keys;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The view of the road. Game objects keep their position on the road in world coordinates, and the camera scrolls up
+ * the road while UP is held. A world y coordinate is drawn at y + scrollY on the screen. The world coordinates are the
+ * screen coordinates at the start of the game play, so the level files are already in world coordinates.
+ * Scrolling only moves the camera, so it costs the same however many game objects are on the road.
+ */
+public class Camera {
+    private final int SPEED_Y;
+    private int scrollY;
+    // the scroll at the start of the current tick, the render pass interpolates from there
+    private int previousScrollY;
+    private double renderAlpha = 1;
+
+    /**
+     * @param speedY the distance the road scrolls in a tick while UP is held
+     */
+    public Camera(int speedY) {
+        this.SPEED_Y = speedY;
+    }
+
+    /**
+     * Scroll the road according to the input. This is called once at the start of every tick, before any game object
+     * is updated.
+     * @param input The current mouse/keyboard input.
+     */
+    public void update(InputState input) {
+        previousScrollY = scrollY;
+        if (input != null && input.isDown(Keys.UP)) {
+            scrollY += SPEED_Y;
+        }
+    }
+
+    /**
+     * Get the distance the road has scrolled since the start of the game play.
+     * @return the scroll distance in pixels
+     */
+    public int getScrollY() {
+        return scrollY;
+    }
+
+    /**
+     * Get the distance the road scrolled in the current tick. Objects that stay in place on the screen, such as the
+     * taxi the driver is in, move up the road by this much.
+     * @return the scroll distance of the tick in pixels
+     */
+    public int getScrollStep() {
+        return scrollY - previousScrollY;
+    }
+
+    /**
+     * @param worldY a y coordinate on the road
+     * @return the y coordinate on the screen
+     */
+    public int toScreenY(int worldY) {
+        return worldY + scrollY;
+    }
+
+    /**
+     * @param screenY a y coordinate on the screen
+     * @return the y coordinate on the road
+     */
+    public int toWorldY(int screenY) {
+        return screenY - scrollY;
+    }
+
+    /**
+     * Write the scroll of the camera, before and after the last tick, to a save state.
+     * @param out the buffer to write to
+     */
+    public void saveState(ByteBuffer out) {
+        out.putInt(scrollY).putInt(previousScrollY);
+    }
+
+    public void restoreState(ByteBuffer in) {
+        scrollY = in.getInt();
+        previousScrollY = in.getInt();
+    }
+
+    /**
+     * Set how far the render pass is between the last tick and the next one.
+     * @param alpha the fraction of a tick, from 0 to 1
+     */
+    public void setRenderAlpha(double alpha) {
+        this.renderAlpha = alpha;
+    }
+
+    /**
+     * Get the scroll distance to draw with, between the scroll before and after the last tick.
+     * @return the interpolated scroll distance in pixels
+     */
+    public double getRenderScrollY() {
+        return previousScrollY + (scrollY - previousScrollY) * renderAlpha;
+    }
+
+    @Override
+    public String toString() {
+        return "camera: scrollY=" + scrollY;
+    }
+}
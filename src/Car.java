@@ -1,38 +1,40 @@
-import bagel.Image;
-import bagel.Input;
-import bagel.Keys;
-import java.util.Properties;
+import java.nio.ByteBuffer;
 
 /**
  * Class representing Cars in the game. Cars can collide with each other and can become damaged.
  */
-public abstract class Car extends GameObject implements Damageable, Collidable, Scrollable {
+public abstract class Car extends GameObject implements Damageable, Collidable {
     private final double EPSILON = 1e-6;
     private final double INFLICTED_DAMAGE;
     protected final static int COLLISION_TIMEOUT_FRAMES = 200;
     private final static int COLLISION_IMPACT_FRAMES = 10;
-    private double health;
-    private boolean damaged;
-    private boolean isInCollisionTimeOut;
-    private boolean isHitByFireball;
-    private int collisionTimeoutCounter;
-    private boolean isInvincible;
-    private boolean shouldChangeSpeedY;
-    private int moveY;
 
     private Fire fire;
     private Smoke smoke;
 
-    public Car(int x, int y, Image image, double radius, double inflictedDamage, double health, Properties props) {
-        super(props, x, y, image, radius);
+    public Car(int x, int y, String image, double radius, double inflictedDamage, double health, GameWorld world) {
+        super(world, x, y, image, radius);
         this.INFLICTED_DAMAGE = inflictedDamage;
-        this.health = health;
-        this.damaged = false;
-        this.isInCollisionTimeOut = false;
-        this.isHitByFireball = false;
-        this.collisionTimeoutCounter = -1;
-        this.shouldChangeSpeedY = false;
-        this.isInvincible = false;
+        // the store starts every entity with no flags set and a collision timeout counter of -1
+        ENTITIES.setHealth(ID, health);
+    }
+
+    /**
+     * Write the state of the Car to a save state, followed by its smoke and fire effects.
+     * @param out the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        Effect.saveEffect(smoke, out);
+        Effect.saveEffect(fire, out);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        super.restoreState(in);
+        smoke = Effect.restoreEffect(smoke, WORLD.SMOKE_POOL, in);
+        fire = Effect.restoreEffect(fire, WORLD.FIRE_POOL, in);
     }
 
     /**
@@ -42,8 +44,8 @@ public abstract class Car extends GameObject implements Damageable, Collidable,
      */
     @Override
     public boolean checkCollision(GameObject other) {
-        double distance = Math.sqrt(Math.pow(this.getX() - other.getX(), 2) + Math.pow(this.getY() - other.getY(), 2));
-        return distance < (this.RADIUS + other.RADIUS);
+        double distance = distanceTo(other);
+        return distance < (this.getRADIUS() + other.getRADIUS());
     }
 
     /**
@@ -52,38 +54,74 @@ public abstract class Car extends GameObject implements Damageable, Collidable,
      */
     @Override
     public void takeDamage(double damagePoints) {
-        this.health -= damagePoints + EPSILON;
+        ENTITIES.setHealth(ID, getHealth() - (damagePoints + EPSILON));
         // Render a smoke effect
-        smoke = new Smoke(GAME_PROPS, this.getX(), this.getY());
+        if (smoke == null) {
+            smoke = WORLD.SMOKE_POOL.acquire();
+        }
+        smoke.reset(this.getX(), this.getY());
 
         // Check if the Car is damaged
-        if (this.health <= 0 && !damaged) {
-            this.damaged = true;
-            fire = new Fire(GAME_PROPS, this.getX(), this.getY());
+        if (getHealth() <= 0 && !isDamaged()) {
+            ENTITIES.setFlag(ID, EntityStore.DAMAGED, true);
+            restartFire();
+        }
+    }
+
+    /**
+     * Start the fire effect at the current position of the Car.
+     */
+    protected void restartFire() {
+        if (fire == null) {
+            fire = WORLD.FIRE_POOL.acquire();
+        }
+        fire.reset(this.getX(), this.getY());
+    }
+
+    /**
+     * Give the smoke and fire effects of this Car back to their pools.
+     */
+    protected void releaseEffects() {
+        if (smoke != null) {
+            WORLD.SMOKE_POOL.release(smoke);
+            smoke = null;
+        }
+        if (fire != null) {
+            WORLD.FIRE_POOL.release(fire);
+            fire = null;
         }
     }
 
+    /**
+     * Remove this Car from the game, giving its effects back to their pools.
+     */
+    @Override
+    public void destroy() {
+        releaseEffects();
+        super.destroy();
+    }
+
     /**
      * Handle collision logic with other cars.
      * @param other the other Car involved in the collision
      */
     public void handleCollision(Car other) {
         if (this.checkCollision(other)) {
-            if(!isInCollisionTimeOut && !this.isInvincible){
+            if(!getIsInCollisionTimeOut() && !this.getIsInvincible()){
                 this.takeDamage(other.INFLICTED_DAMAGE);
             }
-            if(!other.isInCollisionTimeOut && !other.isInvincible){
+            if(!other.getIsInCollisionTimeOut() && !other.getIsInvincible()){
                 other.takeDamage(this.INFLICTED_DAMAGE);
             }
 
             // Start collision timeout
-            isInCollisionTimeOut = true;
+            setInCollisionTimeOut(true);
             other.setInCollisionTimeOut(true);
-            collisionTimeoutCounter = COLLISION_TIMEOUT_FRAMES;
-            other.setCollisionTimeoutCounter(collisionTimeoutCounter);
+            setCollisionTimeoutCounter(COLLISION_TIMEOUT_FRAMES);
+            other.setCollisionTimeoutCounter(COLLISION_TIMEOUT_FRAMES);
 
             // Change speed of the Cars
-            shouldChangeSpeedY = true;
+            setShouldChangeSpeedY(true);
             other.setShouldChangeSpeedY(true);
         }
         handleCollisionImpact(other);
@@ -100,12 +138,12 @@ public abstract class Car extends GameObject implements Damageable, Collidable,
             }
 
             // Start collision timeout
-            isInCollisionTimeOut = true;
+            setInCollisionTimeOut(true);
             otherPerson.setInCollisionTimeOut(true);
-            collisionTimeoutCounter = COLLISION_TIMEOUT_FRAMES;
-            otherPerson.setCollisionTimeoutCounter(collisionTimeoutCounter);
+            setCollisionTimeoutCounter(COLLISION_TIMEOUT_FRAMES);
+            otherPerson.setCollisionTimeoutCounter(COLLISION_TIMEOUT_FRAMES);
 
-            shouldChangeSpeedY = true;
+            setShouldChangeSpeedY(true);
         }
         handleCollisionImpact(otherPerson);
     }
@@ -116,7 +154,7 @@ public abstract class Car extends GameObject implements Damageable, Collidable,
      */
     private void handleCollisionImpact(Car other){
         // Separate collided entities for the first 10 frames
-        if (collisionTimeoutCounter > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)
+        if (getCollisionTimeoutCounter() > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)
                 && other.getCollisionTimeoutCounter() > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)) {
             if (this.getY() < other.getY()) {
                 this.setY(this.getY() - 1);
@@ -134,7 +172,7 @@ public abstract class Car extends GameObject implements Damageable, Collidable,
      */
     private void handleCollisionImpact(Person other){
         // Separate collided entities for the first 10 frames
-        if (collisionTimeoutCounter > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)
+        if (getCollisionTimeoutCounter() > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)
                 && other.getCollisionTimeoutCounter() > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)) {
             if (this.getY() < other.getY()) {
                 this.setY(this.getY() - 1);
@@ -151,84 +189,86 @@ public abstract class Car extends GameObject implements Damageable, Collidable,
      */
     public void handleFireballImpact(){
         // Separate collided entities for the first 10 frames
-        if (collisionTimeoutCounter > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES) && isHitByFireball) {
+        if (getCollisionTimeoutCounter() > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)
+                && ENTITIES.hasFlag(ID, EntityStore.HIT_BY_FIREBALL)) {
             this.setY(this.getY() - 1);
         }else {
-            this.isHitByFireball = false;
+            setHitByFireball(false);
         }
     }
 
+    /**
+     * Check if this Car can still be moved by an earlier collision or fireball hit, even when nothing touches it.
+     * @return true if this Car is within the impact frames of a collision or has been hit by a fireball
+     */
+    public boolean isInCollisionImpact() {
+        return getCollisionTimeoutCounter() > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)
+                || ENTITIES.hasFlag(ID, EntityStore.HIT_BY_FIREBALL);
+    }
+
     /**
      Handle collision timeout logic for this Car instance.
      */
     public void handleCollisionTimeOut() {
         // Countdown for collision timeout
-        if (collisionTimeoutCounter > 0) {
-            collisionTimeoutCounter--;
+        int counter = getCollisionTimeoutCounter();
+        if (counter > 0) {
+            setCollisionTimeoutCounter(counter - 1);
         } else {
-            isInCollisionTimeOut = false;
+            setInCollisionTimeOut(false);
         }
     }
 
     /**
-     * Adjust the movement according to the input
-     * @param input the Input object that captures user keyboard actions
+     * Render the smoke and fire effects of this Car while they are active.
+     * @param renderer the Renderer to draw with
      */
-    @Override
-    public void adjustToInputMovement(Input input) {
-        if (input.isDown(Keys.UP)) {
-            moveY = 1;
-        } else if (input.wasReleased(Keys.UP)) {
-            moveY = 0;
+    protected void renderEffects(Renderer renderer) {
+        if (smoke != null) {
+            smoke.render(renderer);
+        }
+        if (fire != null) {
+            fire.render(renderer);
         }
     }
 
-    public int getMoveY() {
-        return moveY;
-    }
-    public void setMoveY(int moveY) {
-        this.moveY = moveY;
-    }
     public double getHealth() {
-        return health;
+        return ENTITIES.getHealth(ID);
     }
     public Fire getFire() {
         return fire;
     }
-    public void setFire(Fire fire) {
-        this.fire = fire;
-    }
     public Smoke getSmoke() {
         return smoke;
     }
     public boolean isDamaged() {
-        return damaged;
+        return ENTITIES.hasFlag(ID, EntityStore.DAMAGED);
     }
     public void setInCollisionTimeOut(boolean inCollisionTimeOut) {
-        isInCollisionTimeOut = inCollisionTimeOut;
+        ENTITIES.setFlag(ID, EntityStore.IN_COLLISION_TIMEOUT, inCollisionTimeOut);
     }
     public boolean getIsInCollisionTimeOut() {
-        return isInCollisionTimeOut;
+        return ENTITIES.hasFlag(ID, EntityStore.IN_COLLISION_TIMEOUT);
     }
     public void setShouldChangeSpeedY(boolean shouldChangeSpeedY) {
-        this.shouldChangeSpeedY = shouldChangeSpeedY;
+        ENTITIES.setFlag(ID, EntityStore.SHOULD_CHANGE_SPEED_Y, shouldChangeSpeedY);
     }
     public boolean getShouldChangeSpeedY() {
-        return shouldChangeSpeedY;
+        return ENTITIES.hasFlag(ID, EntityStore.SHOULD_CHANGE_SPEED_Y);
     }
     public int getCollisionTimeoutCounter() {
-        return collisionTimeoutCounter;
+        return ENTITIES.getCollisionTimeoutCounter(ID);
     }
     public void setCollisionTimeoutCounter(int collisionTimeoutCounter) {
-        this.collisionTimeoutCounter = collisionTimeoutCounter;
+        ENTITIES.setCollisionTimeoutCounter(ID, collisionTimeoutCounter);
     }
     public void setInvincible(boolean invincible) {
-        isInvincible = invincible;
+        ENTITIES.setFlag(ID, EntityStore.INVINCIBLE, invincible);
     }
     public boolean getIsInvincible() {
-        return isInvincible;
+        return ENTITIES.hasFlag(ID, EntityStore.INVINCIBLE);
     }
     public void setHitByFireball(boolean hitByFireball) {
-        isHitByFireball = hitByFireball;
+        ENTITIES.setFlag(ID, EntityStore.HIT_BY_FIREBALL, hitByFireball);
     }
-}
\ No newline at end of file
+}
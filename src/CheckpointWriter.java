@@ -0,0 +1,190 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Saves checkpoints of the game play to a file on a background thread, so a game play can be resumed after a crash
+ * or a power cut. Every checkpoint interval the state of the game play is captured on the game play thread, which
+ * only copies it into a buffer, and the writer thread compresses it and replaces the checkpoint file with it.
+ * If the writer falls behind, only the newest checkpoint waiting is written. The checkpoint file is deleted once the
+ * game play has finished or the game is quit, so a checkpoint file is only left behind by a crash or a power cut.
+ * Every checkpoint is recorded as a Checkpoint flight recorder event with the time it took to capture.
+ */
+public class CheckpointWriter implements AutoCloseable {
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final int INITIAL_CAPACITY = 1 << 14;
+    // handed to the writer thread to delete the checkpoint file, or to make it stop
+    private static final Request DELETE = new Request(null, 0);
+    private static final Request END = new Request(null, 0);
+
+    private final Path FILE;
+    private final int INTERVAL;
+    private final BlockingQueue<Request> PENDING = new LinkedBlockingQueue<>();
+    private final Thread WRITER;
+    private int nextFrame;
+    // the size of the last state, the next one is captured into a buffer this large
+    private int capacity = INITIAL_CAPACITY;
+    private boolean closed;
+
+    private int capturedCount;
+    private long maxCaptureNanos;
+    private volatile int writtenCount;
+    private volatile int lastSize;
+    private volatile long lastFileSize;
+
+    /**
+     * Start the writer thread.
+     * @param file the checkpoint file
+     * @param interval the number of ticks between two checkpoints, 0 to only save a checkpoint when asked to
+     */
+    public CheckpointWriter(Path file, int interval) {
+        this.FILE = file;
+        this.INTERVAL = interval;
+        WRITER = new Thread(this::writeCheckpoints, "checkpoint-writer");
+        WRITER.setDaemon(true);
+        WRITER.start();
+    }
+
+    /**
+     * Start counting the checkpoint interval from the current tick of a game play that has started or been resumed.
+     * @param gamePlay the game play
+     */
+    public void start(GamePlayScreen gamePlay) {
+        nextFrame = gamePlay.getFrame() + INTERVAL;
+    }
+
+    /**
+     * Save a checkpoint if the checkpoint interval has passed. Call this on the game play thread between ticks.
+     * Once the writer is closed this does nothing.
+     * @param gamePlay the game play
+     */
+    public void update(GamePlayScreen gamePlay) {
+        if (!closed && INTERVAL > 0 && gamePlay.getFrame() >= nextFrame) {
+            save(gamePlay);
+            nextFrame = gamePlay.getFrame() + INTERVAL;
+        }
+    }
+
+    /**
+     * Capture the state of a game play now and queue it to be written. Call this on the game play thread between
+     * ticks. Once the writer is closed this does nothing.
+     * @param gamePlay the game play
+     */
+    public void save(GamePlayScreen gamePlay) {
+        if (closed) {
+            return;
+        }
+        long start = System.nanoTime();
+        SaveState state = SaveState.capture(gamePlay, capacity);
+        long captureNanos = System.nanoTime() - start;
+        capacity = Math.max(capacity, state.getSize());
+        capturedCount++;
+        maxCaptureNanos = Math.max(maxCaptureNanos, captureNanos);
+        PENDING.add(new Request(state, captureNanos));
+    }
+
+    /**
+     * Delete the checkpoint file once the checkpoints queued before are done, as the game play has finished. Once the
+     * writer is closed there is nothing left to wait for, so the file is deleted right away.
+     */
+    public void discard() {
+        if (closed) {
+            delete();
+            return;
+        }
+        PENDING.add(DELETE);
+    }
+
+    /**
+     * Write the checkpoint still waiting and stop the writer thread. Closing the writer again does nothing.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        PENDING.add(END);
+        try {
+            WRITER.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeCheckpoints() {
+        List<Request> requests = new ArrayList<>();
+        try {
+            while (true) {
+                requests.add(PENDING.take());
+                PENDING.drainTo(requests);
+                for (int i = 0; i < requests.size(); i++) {
+                    Request request = requests.get(i);
+                    if (request == END) {
+                        return;
+                    } else if (request == DELETE) {
+                        delete();
+                    } else if (i + 1 == requests.size() || requests.get(i + 1).STATE == null) {
+                        // a newer checkpoint waiting replaces this one
+                        write(request);
+                    }
+                }
+                requests.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Request request) {
+        GameEvents.Checkpoint event = new GameEvents.Checkpoint();
+        event.begin();
+        try {
+            lastFileSize = request.STATE.write(FILE);
+            lastSize = request.STATE.getSize();
+            writtenCount++;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (event.shouldCommit()) {
+            event.file = FILE.toString();
+            event.frame = request.STATE.FRAME;
+            event.captureTime = request.CAPTURE_NANOS;
+            event.bytes = request.STATE.getSize();
+            event.compressedBytes = lastFileSize;
+            event.commit();
+        }
+    }
+
+    private void delete() {
+        try {
+            Files.deleteIfExists(FILE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("checkpoints: captured=%d written=%d maxCapture=%.3fms lastBytes=%d lastFileBytes=%d",
+                capturedCount, writtenCount, maxCaptureNanos / NANOS_PER_MILLI, lastSize, lastFileSize);
+    }
+
+    /**
+     * A checkpoint to write, or a request to delete the checkpoint file.
+     */
+    private static class Request {
+        private final SaveState STATE;
+        private final long CAPTURE_NANOS;
+
+        private Request(SaveState state, long captureNanos) {
+            this.STATE = state;
+            this.CAPTURE_NANOS = captureNanos;
+        }
+    }
+}
@@ -1,12 +1,10 @@
-import java.util.Properties;
-
 /**
  * Class representing coins in the game. Coins can be collected by either the player or the taxi.
  * It will set one level higher priority for the passengers that are waiting to get-in or already in the taxi.
  */
 public class Coin extends PowerUp {
-    public Coin(int x, int y, Properties props) {
-        super(x, y, props, "gameObjects.coin.image", "gameObjects.coin.radius", "gameObjects.coin.maxFrames");
+    public Coin(int x, int y, GameWorld world) {
+        super(x, y, world, world.CONFIG.COIN);
     }
 
     /**
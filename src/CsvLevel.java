@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A level read from the game objects and weather CSV files. This is what the level compiler reads, and what the game
+ * falls back to when the compiled level file cannot be written.
+ */
+public class CsvLevel implements Level {
+    private final LevelEntry TAXI;
+    private final LevelEntry DRIVER;
+    private final LevelEntry[] ENTRIES;
+    private final int PASSENGER_COUNT;
+    private final List<WeatherCondition> WEATHER_CONDITIONS = new ArrayList<>();
+
+    /**
+     * @param objectsFile the game objects file, one game object per line
+     * @param weatherFile the weather file, one weather condition with its first and last frame per line
+     * @throws IllegalArgumentException if the level does not have a taxi and a driver
+     */
+    public CsvLevel(String objectsFile, String weatherFile) {
+        ArrayList<String[]> lines = IOUtils.readCommaSeperatedFile(objectsFile);
+        List<LevelEntry> entries = new ArrayList<>(lines.size());
+        LevelEntry taxi = null;
+        LevelEntry driver = null;
+        int passengerCount = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            LevelEntry entry = LevelEntry.fromCsv(lines.get(i), i);
+            if (entry.TYPE == GameObjectType.TAXI) {
+                taxi = entry;
+            } else if (entry.TYPE == GameObjectType.DRIVER) {
+                driver = entry;
+            } else {
+                if (entry.TYPE == GameObjectType.PASSENGER) {
+                    passengerCount++;
+                }
+                entries.add(entry);
+            }
+        }
+        if (taxi == null || driver == null) {
+            throw new IllegalArgumentException(objectsFile + " needs a TAXI and a DRIVER");
+        }
+        this.TAXI = taxi;
+        this.DRIVER = driver;
+        this.PASSENGER_COUNT = passengerCount;
+        this.ENTRIES = entries.toArray(new LevelEntry[0]);
+        Arrays.sort(ENTRIES, LevelEntry.SPAWN_ORDER);
+
+        for (String[] line : IOUtils.readCommaSeperatedFile(weatherFile)) {
+            WEATHER_CONDITIONS.add(new WeatherCondition(line[0], Integer.parseInt(line[1]),
+                    Integer.parseInt(line[2])));
+        }
+    }
+
+    @Override
+    public LevelEntry getTaxi() {
+        return TAXI;
+    }
+
+    @Override
+    public LevelEntry getDriver() {
+        return DRIVER;
+    }
+
+    @Override
+    public int getPassengerCount() {
+        return PASSENGER_COUNT;
+    }
+
+    @Override
+    public int getEntryCount() {
+        return ENTRIES.length;
+    }
+
+    @Override
+    public int getEntryY(int index) {
+        return ENTRIES[index].Y;
+    }
+
+    @Override
+    public LevelEntry getEntry(int index) {
+        return ENTRIES[index];
+    }
+
+    @Override
+    public List<WeatherCondition> getWeatherConditions() {
+        return Collections.unmodifiableList(WEATHER_CONDITIONS);
+    }
+}
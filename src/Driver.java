@@ -1,8 +1,6 @@
-import bagel.Font;
-import bagel.Image;
-import bagel.Input;
 import bagel.Keys;
-import java.util.Properties;
+
+import java.nio.ByteBuffer;
 
 /**
  * Class representing the driver in the game. Drivers can drive taxis, and can change to a new taxi if the previous
@@ -10,7 +8,6 @@ import java.util.Properties;
  */
 public class Driver extends Person{
     private static final int EJECTION_OFFSET = 50; // Offset applied when the driver is ejected
-    private static final int HEALTH_DISPLAY_FACTOR = 100;
     private final int SPEED_Y;
     private final int SPEED_X;
     private final int TAXI_GET_IN_RADIUS;
@@ -18,6 +15,7 @@ public class Driver extends Person{
     private final Trip[] TRIPS;
     private int tripCount;
     private Trip trip;
+    private boolean showTripEndFlag;
 
     private boolean inTaxi;
     private Taxi taxi;
@@ -26,16 +24,13 @@ public class Driver extends Person{
     private Coin coinPower;
     private Star starPower;
 
-    public Driver(int startX, int startY, Taxi taxi, int maxTripCount, Properties props) {
-        super(startX,startY, new Image(props.getProperty("gameObjects.driver.image")),
-                Double.parseDouble(props.getProperty("gameObjects.driver.radius")),
-                Double.parseDouble(props.getProperty("gameObjects.driver.health")),
-                props);
+    public Driver(int startX, int startY, Taxi taxi, int maxTripCount, GameWorld world) {
+        super(startX,startY, world.CONFIG.DRIVER.IMAGE, world.CONFIG.DRIVER.RADIUS, world.CONFIG.DRIVER.HEALTH, world);
         this.inTaxi = true; // Driver initially starts in the taxi
         this.taxi = taxi;
-        this.SPEED_X = Integer.parseInt(props.getProperty("gameObjects.driver.walkSpeedX"));
-        this.SPEED_Y = Integer.parseInt(props.getProperty("gameObjects.driver.walkSpeedY"));
-        this.TAXI_GET_IN_RADIUS = Integer.parseInt(props.getProperty("gameObjects.driver.taxiGetInRadius"));
+        this.SPEED_X = world.CONFIG.DRIVER.WALK_SPEED_X;
+        this.SPEED_Y = world.CONFIG.DRIVER.WALK_SPEED_Y;
+        this.TAXI_GET_IN_RADIUS = world.CONFIG.DRIVER.TAXI_GET_IN_RADIUS;
         TRIPS = new Trip[maxTripCount];
     }
 
@@ -54,6 +49,23 @@ public class Driver extends Person{
         return this.trip;
     }
 
+    /**
+     * Get the number of trips the driver has started.
+     * @return the number of trips
+     */
+    public int getTripCount() {
+        return tripCount;
+    }
+
+    /**
+     * Get a trip the driver has started.
+     * @param index the position of the trip, from 0 for the first trip
+     * @return Trip object
+     */
+    public Trip getTripAt(int index) {
+        return TRIPS[index];
+    }
+
     /**
      * Get the last trip from the list of trips.
      * @return Trip object
@@ -65,12 +77,30 @@ public class Driver extends Person{
         return TRIPS[tripCount - 1];
     }
 
+    /**
+     * Write the state of the driver to a save state. The taxi, passenger, power-ups and trips it refers to are left
+     * to the game play.
+     * @param out the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.put((byte) (inTaxi ? 1 : 0)).put((byte) (showTripEndFlag ? 1 : 0));
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        super.restoreState(in);
+        inTaxi = in.get() != 0;
+        showTripEndFlag = in.get() != 0;
+    }
+
     /**
      * Update the driver's movement and interaction with the taxi.
      * @param input the Input object that captures user keyboard actions for movement
      */
     @Override
-    public void update(Input input) {
+    public void update(InputState input) {
         // If the driver is in the taxi, move with the taxi
         if (inTaxi) {
             this.setX(taxi.getX());
@@ -85,7 +115,6 @@ public class Driver extends Person{
             if (canEnterTaxi()) {
                 enterTaxi();
             }
-            draw();
         }
 
         // Apply invincible power if collected
@@ -93,7 +122,7 @@ public class Driver extends Person{
             starPower.applyEffect(this);
         }
 
-        // Render the blood
+        // Update the blood
         if (this.getBlood() != null && this.getBlood().isActive()) {
             this.getBlood().update(input);
         }
@@ -103,15 +132,33 @@ public class Driver extends Person{
             trip.end();
         }
 
-        // the flag of the current trip renders to the screen
+        // the flag of the current trip is shown until the passenger reaches it
+        showTripEndFlag = false;
         if(tripCount > 0) {
             Trip lastTrip = TRIPS[tripCount - 1];
             if(!lastTrip.getPassenger().hasReachedFlag()) {
-                lastTrip.getTripEndFlag().update(input);
+                showTripEndFlag = true;
             }
         }
     }
 
+    /**
+     * Render the driver when on foot, the blood at death and the flag of the current trip.
+     * @param renderer the Renderer to draw with
+     */
+    @Override
+    public void render(Renderer renderer) {
+        if (!inTaxi) {
+            super.render(renderer);
+        }
+        if (this.getBlood() != null) {
+            this.getBlood().render(renderer);
+        }
+        if (showTripEndFlag) {
+            TRIPS[tripCount - 1].getTripEndFlag().render(renderer);
+        }
+    }
+
     /**
      * Calculate total earnings.
      * @return float, total earnings
@@ -127,10 +174,12 @@ public class Driver extends Person{
     }
 
     /**
-     * Move the driver based on key input when on foot.
+     * Move the driver based on key input when on foot. The driver walks on the screen, so it also moves up the road
+     * by the distance the camera scrolled.
      * @param input the Input object that captures user keyboard actions
      */
-    private void move(Input input) {
+    private void move(InputState input) {
+        this.setY(this.getY() - WORLD.CAMERA.getScrollStep());
         if (input.isDown(Keys.UP)) {
             this.setY(this.getY() - SPEED_Y);
         }
@@ -164,7 +213,7 @@ public class Driver extends Person{
      * @return true if the Euclidean distance between the driver and taxi is <= 10, otherwise false.
      */
     private boolean canEnterTaxi() {
-        double distance = Math.sqrt(Math.pow(taxi.getX() - this.getX(), 2) + Math.pow(taxi.getY() - this.getY(), 2));
+        double distance = distanceTo(taxi);
         return distance <= TAXI_GET_IN_RADIUS && !taxi.isDamaged();
     }
 
@@ -181,20 +230,6 @@ public class Driver extends Person{
         }
     }
 
-    /**
-     * Draw the Driver's health on the screen.
-     * @param gameProps properties related to the game's graphical settings
-     * @param msgProps properties that contain messages and labels for the game
-     */
-    public void drawHealth(Properties gameProps, Properties msgProps){
-        String message = msgProps.getProperty("gamePlay.driverHealth");
-        Font font = new Font(gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize")));
-        font.drawString(message + String.format("%.1f", Math.abs(this.getHealth() * HEALTH_DISPLAY_FACTOR)),
-                Integer.parseInt(gameProps.getProperty("gamePlay.driverHealth.x")),
-                Integer.parseInt(gameProps.getProperty("gamePlay.driverHealth.y")));
-    }
-
     public Taxi getTaxi() {
         return taxi;
     }
@@ -1,58 +1,91 @@
-import bagel.Image;
-import bagel.Input;
-import bagel.Keys;
-import java.util.Properties;
+import java.nio.ByteBuffer;
 
 /**
  * Abstract Class representing the Effects in the game. Effects are rendered on screen on a gameObject.
+ * An Effect stays where it was started on the road.
  */
-public abstract class Effect extends GameObject implements Scrollable{
+public abstract class Effect extends GameObject {
     private int frames;
-    private int moveY;
-    private final int SPEED_Y;
+    private final int TTL;
 
-    public Effect(Properties props, Image image, int x, int y, int frames, int speed) {
-        super(props, x, y, image, 0);
-        this.frames = frames;
-        this.SPEED_Y = speed;
+    public Effect(GameWorld world, GameConfig.EffectConfig effect, int x, int y) {
+        super(world, x, y, effect.IMAGE, 0);
+        this.TTL = effect.TTL;
+        this.frames = TTL;
     }
 
     /**
-     * Move the Effect according to the keyboard input.
-     * @param input The current keyboard input.
+     * Start the Effect again at a new position, as if it had just been created there. Used to reuse pooled Effects.
+     * @param x the x coordinate of the Effect
+     * @param y the y coordinate of the Effect
      */
+    public void reset(int x, int y) {
+        this.placeAt(x, y);
+        this.frames = TTL;
+    }
+
     @Override
-    public void update(Input input) {
-        if (frames > 0) {
-            if (input != null) {
-                adjustToInputMovement(input);
-            }
-            move();
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putInt(frames);
+    }
 
-            // render Effect
-            IMAGE.draw(this.getX(), this.getY());
-            frames--;
+    @Override
+    public void restoreState(ByteBuffer in) {
+        super.restoreState(in);
+        frames = in.getInt();
+    }
+
+    /**
+     * Write whether a game object has an Effect to a save state, followed by the state of the Effect if it does.
+     * @param effect the Effect of the game object, or null if it has none
+     * @param out the buffer to write to
+     */
+    public static void saveEffect(Effect effect, ByteBuffer out) {
+        out.put((byte) (effect != null ? 1 : 0));
+        if (effect != null) {
+            effect.saveState(out);
         }
     }
 
     /**
-     * Move the GameObject object in the y-direction based on the speedY attribute.
+     * Read an Effect written by saveEffect.
+     * @param effect the Effect to read into, or null to take one from the pool if the game object had an Effect
+     * @param pool the pool the Effects of its kind are taken from
+     * @param in the buffer to read from
+     * @param <T> the kind of Effect
+     * @return the Effect, or null if the game object had none
+     */
+    public static <T extends Effect> T restoreEffect(T effect, Pool<T> pool, ByteBuffer in) {
+        if (in.get() == 0) {
+            return effect;
+        }
+        if (effect == null) {
+            effect = pool.acquire();
+        }
+        effect.restoreState(in);
+        return effect;
+    }
+
+    /**
+     * Count down the time the Effect is shown for.
+     * @param input The current keyboard input.
      */
     @Override
-    public void move() {
-        this.setY(this.getY() + SPEED_Y * moveY);
+    public void update(InputState input) {
+        if (frames > 0) {
+            frames--;
+        }
     }
 
     /**
-     * Adjust the movement direction in y-axis of the GameObject based on the keyboard input.
-     * @param input The current mouse/keyboard input.
+     * Render the Effect while it is active.
+     * @param renderer the Renderer to draw with
      */
     @Override
-    public void adjustToInputMovement(Input input) {
-        if (input.isDown(Keys.UP)) {
-            moveY = 1;
-        }  else if(input.wasReleased(Keys.UP)) {
-            moveY = 0;
+    public void render(Renderer renderer) {
+        if (frames > 0) {
+            super.render(renderer);
         }
     }
 
@@ -1,18 +1,38 @@
-import bagel.Image;
-import bagel.Input;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
  * Class representing the Enemy cars in the game. Enemy cars can shoot fireballs which deal damage.
  */
 public class EnemyCar extends NPC {
-    private static final int SPAWN_RATE = 300;
     private final List<Fireball> fireballs = new ArrayList<>();  // List to store fireballs
 
-    public EnemyCar(Properties props) {
-        super(props, new Image(props.getProperty("gameObjects.enemyCar.image")),
-                "gameObjects.enemyCar.minSpeedY",
-                "gameObjects.enemyCar.maxSpeedY");
+    public EnemyCar(GameWorld world) {
+        super(world, world.CONFIG.ENEMY_CAR.IMAGE, world.CONFIG.ENEMY_CAR);
+    }
+
+    /**
+     * Write the state of the enemy car to a save state, followed by the fireballs it has shot.
+     * @param out the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putShort((short) fireballs.size());
+        for (Fireball fireball : fireballs) {
+            fireball.saveState(out);
+        }
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        super.restoreState(in);
+        int fireballCount = in.getShort();
+        for (int i = 0; i < fireballCount; i++) {
+            Fireball fireball = WORLD.FIREBALL_POOL.acquire();
+            fireball.restoreState(in);
+            fireballs.add(fireball);
+        }
     }
 
     /**
@@ -20,23 +40,19 @@ public class EnemyCar extends NPC {
      * @param input The current mouse/keyboard input.
      */
     @Override
-    public void update(Input input) {
+    public void update(InputState input) {
         if(this.getShouldChangeSpeedY()){
             setNewSpeed();
         }
 
-        if (input != null) {
-            adjustToInputMovement(input);
-        }
         move();
-        draw();
-        // Render smoke if damaged
+        // Update smoke if damaged
         if (this.getSmoke() != null && this.getSmoke().getFrames()>0) {
             this.getSmoke().update(input);
         }
 
         if (this.getFire() != null && this.getFire().isActive()) {
-            this.getFire().update(input);  // Render the fire
+            this.getFire().update(input);
         }
 
         handleFireballs(input);
@@ -46,8 +62,8 @@ public class EnemyCar extends NPC {
      * Spawn fireball and move fireball according to the keyboard input.
      * @param input The current mouse/keyboard input.
      */
-    private void handleFireballs(Input input) {
-        boolean spawnFireball = MiscUtils.canSpawn(SPAWN_RATE);
+    private void handleFireballs(InputState input) {
+        boolean spawnFireball = MiscUtils.canSpawn(WORLD.RANDOM.FIREBALLS, CONFIG.FIREBALL.SHOOT_RATE);
 
         if (spawnFireball) {
             shootFireball();
@@ -58,8 +74,28 @@ public class EnemyCar extends NPC {
             fireball.update(input);
         }
 
-        // Remove inactive fireballs
-        fireballs.removeIf(fireball -> !fireball.isActive());
+        // Remove inactive fireballs and give them back to the pool
+        Iterator<Fireball> fireballIterator = fireballs.iterator();
+        while (fireballIterator.hasNext()) {
+            Fireball fireball = fireballIterator.next();
+            if (!fireball.isActive()) {
+                fireballIterator.remove();
+                WORLD.FIREBALL_POOL.release(fireball);
+            }
+        }
+    }
+
+    /**
+     * Render the car with its smoke and fire effects, and the fireballs it has shot.
+     * @param renderer the Renderer to draw with
+     */
+    @Override
+    public void render(Renderer renderer) {
+        super.render(renderer);
+        renderEffects(renderer);
+        for (Fireball fireball : fireballs) {
+            fireball.render(renderer);
+        }
     }
 
     /**
@@ -67,10 +103,23 @@ public class EnemyCar extends NPC {
      */
     private void shootFireball() {
         // Use the enemy car's current coordinates
-        Fireball newFireball = new Fireball(this.getX(), this.getY(), GAME_PROPS);
+        Fireball newFireball = WORLD.FIREBALL_POOL.acquire();
+        newFireball.reset(this.getX(), this.getY());
         fireballs.add(newFireball);
     }
 
+    /**
+     * Give the effects and the fireballs of this enemy car back to their pools.
+     */
+    @Override
+    protected void releaseEffects() {
+        super.releaseEffects();
+        for (Fireball fireball : fireballs) {
+            WORLD.FIREBALL_POOL.release(fireball);
+        }
+        fireballs.clear();
+    }
+
     public List<Fireball> getFireballs() {
         return fireballs;
     }
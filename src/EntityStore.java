@@ -0,0 +1,246 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The state of every game object of a session, stored column by column. Each game object owns an id, and its
+ * position, radius, health, collision timeout counter and flags are kept in primitive arrays at that index.
+ * The GameObject classes are views that read and write their own row, so passes over many entities walk a few
+ * flat arrays instead of chasing object fields. Ids of removed entities are reused.
+ * The position at the start of the current tick is kept as well, so the render pass can draw each entity between
+ * its last two positions.
+ * The row of an entity can be written to a save state and read back into another row, the radius is not saved as it
+ * is fixed by the kind of game object.
+ */
+public class EntityStore {
+    public static final int IN_COLLISION_TIMEOUT = 1;
+    public static final int HIT_BY_FIREBALL = 1 << 1;
+    public static final int INVINCIBLE = 1 << 2;
+    public static final int DAMAGED = 1 << 3;
+    public static final int DEAD = 1 << 4;
+    public static final int SHOULD_CHANGE_SPEED_Y = 1 << 5;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] x;
+    private int[] y;
+    private int[] previousX;
+    private int[] previousY;
+    private double[] radius;
+    private double[] health;
+    private int[] collisionTimeoutCounter;
+    private int[] flags;
+    private boolean[] used;
+    private final IntList freeIds = new IntList();
+    private int size;
+    private int count;
+    private double renderAlpha = 1;
+
+    public EntityStore() {
+        x = new int[INITIAL_CAPACITY];
+        y = new int[INITIAL_CAPACITY];
+        previousX = new int[INITIAL_CAPACITY];
+        previousY = new int[INITIAL_CAPACITY];
+        radius = new double[INITIAL_CAPACITY];
+        health = new double[INITIAL_CAPACITY];
+        collisionTimeoutCounter = new int[INITIAL_CAPACITY];
+        flags = new int[INITIAL_CAPACITY];
+        used = new boolean[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Add an entity to the store. Its health is 0, its collision timeout counter is -1 and no flags are set.
+     * @param x the x coordinate of the entity
+     * @param y the y coordinate of the entity
+     * @param radius the collision radius of the entity
+     * @return the id of the new entity
+     */
+    public int create(int x, int y, double radius) {
+        int id;
+        if (freeIds.size() > 0) {
+            id = freeIds.removeLast();
+        } else {
+            if (size == used.length) {
+                resize(size * 2);
+            }
+            id = size++;
+        }
+        this.x[id] = x;
+        this.y[id] = y;
+        this.previousX[id] = x;
+        this.previousY[id] = y;
+        this.radius[id] = radius;
+        this.health[id] = 0;
+        this.collisionTimeoutCounter[id] = -1;
+        this.flags[id] = 0;
+        this.used[id] = true;
+        count++;
+        return id;
+    }
+
+    /**
+     * Remove an entity from the store, so its id can be given to a new entity.
+     * @param id the id of the entity
+     */
+    public void destroy(int id) {
+        if (!used[id]) {
+            throw new IllegalStateException("Entity " + id + " has already been destroyed");
+        }
+        used[id] = false;
+        freeIds.add(id);
+        count--;
+    }
+
+    /**
+     * Get the distance between the centres of two entities.
+     * @param a the id of the first entity
+     * @param b the id of the second entity
+     * @return the distance between the entities
+     */
+    public double distance(int a, int b) {
+        return Math.sqrt(Math.pow(x[a] - x[b], 2) + Math.pow(y[a] - y[b], 2));
+    }
+
+    public int getX(int id) {
+        return x[id];
+    }
+
+    public void setX(int id, int value) {
+        x[id] = value;
+    }
+
+    public int getY(int id) {
+        return y[id];
+    }
+
+    public void setY(int id, int value) {
+        y[id] = value;
+    }
+
+    /**
+     * Move an entity to a new position without drawing it in between, for entities that jump rather than move,
+     * such as pooled objects that are reused somewhere else.
+     * @param id the id of the entity
+     * @param x the new x coordinate
+     * @param y the new y coordinate
+     */
+    public void place(int id, int x, int y) {
+        this.x[id] = x;
+        this.y[id] = y;
+        this.previousX[id] = x;
+        this.previousY[id] = y;
+    }
+
+    /**
+     * Remember the position of every entity at the start of a tick, the render pass interpolates from there.
+     */
+    public void savePositions() {
+        System.arraycopy(x, 0, previousX, 0, size);
+        System.arraycopy(y, 0, previousY, 0, size);
+    }
+
+    /**
+     * Set how far the render pass is between the last tick and the next one.
+     * @param alpha 0 to draw the entities where they were before the last tick, 1 to draw them where they are now
+     */
+    public void setRenderAlpha(double alpha) {
+        this.renderAlpha = alpha;
+    }
+
+    public double getRenderX(int id) {
+        return previousX[id] + (x[id] - previousX[id]) * renderAlpha;
+    }
+
+    public double getRenderY(int id) {
+        return previousY[id] + (y[id] - previousY[id]) * renderAlpha;
+    }
+
+    public double getRadius(int id) {
+        return radius[id];
+    }
+
+    public double getHealth(int id) {
+        return health[id];
+    }
+
+    public void setHealth(int id, double value) {
+        health[id] = value;
+    }
+
+    public int getCollisionTimeoutCounter(int id) {
+        return collisionTimeoutCounter[id];
+    }
+
+    public void setCollisionTimeoutCounter(int id, int value) {
+        collisionTimeoutCounter[id] = value;
+    }
+
+    public boolean hasFlag(int id, int flag) {
+        return (flags[id] & flag) != 0;
+    }
+
+    public void setFlag(int id, int flag, boolean value) {
+        if (value) {
+            flags[id] |= flag;
+        } else {
+            flags[id] &= ~flag;
+        }
+    }
+
+    /**
+     * Write the row of an entity to a save state: its position, its position at the start of the tick, its health,
+     * its collision timeout counter and its flags.
+     * @param id the id of the entity
+     * @param out the buffer to write to
+     */
+    public void saveRow(int id, ByteBuffer out) {
+        out.putInt(x[id]).putInt(y[id]).putInt(previousX[id]).putInt(previousY[id])
+                .putDouble(health[id]).putInt(collisionTimeoutCounter[id]).put((byte) flags[id]);
+    }
+
+    /**
+     * Read a row written by saveRow into the row of an entity.
+     * @param id the id of the entity
+     * @param in the buffer to read from
+     */
+    public void restoreRow(int id, ByteBuffer in) {
+        x[id] = in.getInt();
+        y[id] = in.getInt();
+        previousX[id] = in.getInt();
+        previousY[id] = in.getInt();
+        health[id] = in.getDouble();
+        collisionTimeoutCounter[id] = in.getInt();
+        flags[id] = in.get();
+    }
+
+    /**
+     * Get the number of entities in the store.
+     * @return the number of ids in use
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the number of rows the columns currently hold, including rows of removed entities.
+     * @return the capacity of the columns
+     */
+    public int getCapacity() {
+        return used.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("entities: count=%d highestId=%d capacity=%d", count, size - 1, getCapacity());
+    }
+
+    private void resize(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        health = Arrays.copyOf(health, capacity);
+        collisionTimeoutCounter = Arrays.copyOf(collisionTimeoutCounter, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        used = Arrays.copyOf(used, capacity);
+    }
+}
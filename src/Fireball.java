@@ -1,6 +1,4 @@
-import bagel.Image;
-import bagel.Input;
-import java.util.Properties;
+import java.nio.ByteBuffer;
 
 /**
  * Class representing the Fireball object in the game. Fireballs are shot by enemyCars and deal damage.
@@ -10,42 +8,64 @@ public class Fireball extends GameObject implements Collidable{
     private final double DAMAGE_POINTS;
     private boolean active;
 
-    public Fireball(int x, int y, Properties props) {
-        super(props, x, y, new Image(props.getProperty("gameObjects.fireball.image")),
-                Double.parseDouble(props.getProperty("gameObjects.fireball.radius")));
-        this.SPEED_Y = Integer.parseInt(props.getProperty("gameObjects.fireball.shootSpeedY"));
-        this.DAMAGE_POINTS = Double.parseDouble(props.getProperty("gameObjects.fireball.damage"));
+    public Fireball(int x, int y, GameWorld world) {
+        super(world, x, y, world.CONFIG.FIREBALL.IMAGE, world.CONFIG.FIREBALL.RADIUS);
+        this.SPEED_Y = world.CONFIG.FIREBALL.SPEED_Y;
+        this.DAMAGE_POINTS = world.CONFIG.FIREBALL.DAMAGE;
         this.active = true;
     }
 
+    /**
+     * Shoot the Fireball again from a new position. Used to reuse pooled Fireballs.
+     * @param x the x coordinate to shoot from
+     * @param y the y coordinate to shoot from
+     */
+    public void reset(int x, int y) {
+        this.placeAt(x, y);
+        this.active = true;
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.put((byte) (active ? 1 : 0));
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        super.restoreState(in);
+        active = in.get() != 0;
+    }
+
     /**
      * Handles fireball movement each update.
      * @param input The current mouse/keyboard input.
      */
-    public void update(Input input) {
+    public void update(InputState input) {
         if (active) {
             move();
-            draw();
         }
     }
 
     /**
-     * Move the Fireball up until the top of the screen.
+     * Move the Fireball up the screen until it reaches the top. Its speed is relative to the screen, so it also
+     * moves up the road by the distance the camera scrolled.
      */
     private void move() {
-        this.setY(this.getY()-SPEED_Y); // Moves the fireball upwards
-        if (this.getY() < 0) {
+        this.setY(this.getY() - SPEED_Y - WORLD.CAMERA.getScrollStep()); // Moves the fireball upwards
+        if (this.getScreenY() < 0) {
             active = false;  // Stop rendering when it reaches the top of the screen
         }
     }
 
     /**
      * Render the fireball while it is active
+     * @param renderer the Renderer to draw with
      */
     @Override
-    public void draw() {
+    public void render(Renderer renderer) {
         if (active) {
-            IMAGE.draw(this.getX(), this.getY());
+            super.render(renderer);
         }
     }
 
@@ -81,9 +101,8 @@ public class Fireball extends GameObject implements Collidable{
      * @return true if a collision occurs under the circumstances, false otherwise
      */
     public boolean checkCollision(GameObject target) {
-        double distance = Math.sqrt(Math.pow(this.getX() - target.getX(), 2) +
-                Math.pow(this.getY() - target.getY(), 2));
-        return distance < (this.RADIUS + target.RADIUS);
+        double distance = distanceTo(target);
+        return distance < (this.getRADIUS() + target.getRADIUS());
     }
 
     /**
@@ -0,0 +1,247 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Times the phases of each frame and shows the 50th and 99th percentile of each phase over the last WINDOW samples,
+ * with the entity, draw and culling counts and the allocation rate of the game thread, in an overlay.
+ * A phase is timed by taking a start time and ending the phase with lap, which returns the start of the next phase:
+ * <pre>
+ *     long start = profiler.start();
+ *     updateTaxi(input);
+ *     start = profiler.lap(FrameProfiler.Phase.TAXI, start);
+ * </pre>
+ * While the profiler is disabled, start and lap return at once without reading the clock.
+ */
+public class FrameProfiler {
+    // the number of samples of each phase the percentiles are taken over
+    private static final int WINDOW = 240;
+    // the overlay text is rebuilt this often, so the numbers can be read and formatting stays off most frames
+    private static final int REFRESH_FRAMES = 30;
+    private static final int FONT_SIZE = 14;
+    private static final int LINE_HEIGHT = 16;
+    private static final double X = 300;
+    private static final double Y = 20;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double BYTES_PER_MEGABYTE = 1 << 20;
+
+    /**
+     * The timed phases. The game play phases are timed once per tick, the others once per frame.
+     */
+    public enum Phase {
+        TICK,
+        BACKGROUND,
+        DRIVER,
+        LEVEL_SPAWN,
+        PASSENGERS,
+        TAXI,
+        POWER_UPS,
+        NPCS,
+        COLLISIONS,
+        LEVEL_RETIRE,
+        // the whole render pass of the game play, the HUD included
+        RENDER,
+        HUD,
+        // submitting the draws the renderer queued in the frame
+        FLUSH,
+        // the loading of the game play assets on the home, player info and game end screens
+        ASSET_LOADING,
+        HOME_SCREEN,
+        PLAYER_INFO_SCREEN,
+        GAME_END_SCREEN
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final String FONT;
+
+    // the buffers are only created when the profiler is first turned on
+    private long[][] samples;
+    private int[] sampleCounts;
+    // the frame each phase was last timed in, so phases that are no longer running are not shown
+    private long[] lastFrames;
+    private long[] sorted;
+    private com.sun.management.ThreadMXBean allocationBean;
+
+    private boolean enabled;
+    private long frame;
+    private int entityCount;
+    private int npcCount;
+    private int passengerCount;
+    private int drawCount;
+    private int textureSwitchCount;
+    private int culledDraws;
+    private int culledDrawChecks;
+    private int asleepCount;
+    private int sleeperCount;
+    private long refreshTime;
+    private long refreshAllocatedBytes;
+    private String[] lines = new String[0];
+
+    /**
+     * Create a disabled profiler.
+     * @param font the path to the font file of the overlay
+     */
+    public FrameProfiler(String font) {
+        this.FONT = font;
+    }
+
+    /**
+     * Turn the profiler and its overlay on or off. The samples are cleared when it is turned on.
+     */
+    public void toggle() {
+        enabled = !enabled;
+        if (enabled) {
+            if (samples == null) {
+                samples = new long[PHASES.length][WINDOW];
+                sampleCounts = new int[PHASES.length];
+                lastFrames = new long[PHASES.length];
+                sorted = new long[WINDOW];
+                ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+                // allocations can only be counted on JVMs that expose them
+                if (threadBean instanceof com.sun.management.ThreadMXBean
+                        && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+                    allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+                }
+            }
+            Arrays.fill(sampleCounts, 0);
+            Arrays.fill(lastFrames, -1);
+            lines = new String[0];
+            refreshTime = System.nanoTime();
+            refreshAllocatedBytes = getAllocatedBytes();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start timing a phase.
+     * @return the start time, 0 while the profiler is disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * End a phase and start the next one.
+     * @param phase the phase that ended
+     * @param start the start time of the phase, as returned by start or the previous lap
+     * @return the start time of the next phase, 0 while the profiler is disabled
+     */
+    public long lap(Phase phase, long start) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        int index = phase.ordinal();
+        samples[index][sampleCounts[index] % WINDOW] = now - start;
+        sampleCounts[index]++;
+        lastFrames[index] = frame;
+        return now;
+    }
+
+    /**
+     * Set the entity counts shown in the overlay.
+     * @param entities the number of entities in the world
+     * @param npcs the number of other cars and enemy cars
+     * @param passengers the number of passengers
+     */
+    public void setEntityCounts(int entities, int npcs, int passengers) {
+        this.entityCount = entities;
+        this.npcCount = npcs;
+        this.passengerCount = passengers;
+    }
+
+    /**
+     * Set the culling counts of the last render pass and tick shown in the overlay.
+     * @param culledDraws the number of game object draws that were culled
+     * @param draws the number of game object draws, culled or not
+     * @param asleep the number of game objects that slept through the tick
+     * @param sleepers the number of game objects that could have slept
+     */
+    public void setCullCounts(int culledDraws, int draws, int asleep, int sleepers) {
+        this.culledDraws = culledDraws;
+        this.culledDrawChecks = draws;
+        this.asleepCount = asleep;
+        this.sleeperCount = sleepers;
+    }
+
+    /**
+     * Set the draw counts of the last frame shown in the overlay.
+     * @param draws the number of images and lines of text drawn
+     * @param textureSwitches the number of times the renderer switched textures
+     */
+    public void setDrawCounts(int draws, int textureSwitches) {
+        this.drawCount = draws;
+        this.textureSwitchCount = textureSwitches;
+    }
+
+    /**
+     * Finish a frame, rebuilding the overlay text every REFRESH_FRAMES frames.
+     */
+    public void endFrame() {
+        if (!enabled) {
+            return;
+        }
+        frame++;
+        if (frame % REFRESH_FRAMES == 0) {
+            refresh();
+        }
+    }
+
+    /**
+     * Draw the overlay while the profiler is enabled.
+     * @param renderer the Renderer to draw with
+     */
+    public void render(Renderer renderer) {
+        if (!enabled) {
+            return;
+        }
+        renderer.setLayer(Renderer.Layer.HUD);
+        for (int i = 0; i < lines.length; i++) {
+            renderer.drawString(FONT, FONT_SIZE, lines[i], X, Y + i * LINE_HEIGHT);
+        }
+    }
+
+    private void refresh() {
+        long now = System.nanoTime();
+        long allocatedBytes = getAllocatedBytes();
+        double seconds = (now - refreshTime) / 1e9;
+        String allocationRate = allocatedBytes < 0 ? "n/a"
+                : String.format("%.1f MB/s", (allocatedBytes - refreshAllocatedBytes) / seconds / BYTES_PER_MEGABYTE);
+        refreshTime = now;
+        refreshAllocatedBytes = allocatedBytes;
+
+        String[] newLines = new String[PHASES.length + 4];
+        int lineCount = 0;
+        newLines[lineCount++] = String.format("entities %d  npcs %d  passengers %d",
+                entityCount, npcCount, passengerCount);
+        newLines[lineCount++] = String.format("draws %d  texture switches %d", drawCount, textureSwitchCount);
+        newLines[lineCount++] = String.format("culled %d/%d  asleep %d/%d",
+                culledDraws, culledDrawChecks, asleepCount, sleeperCount);
+        newLines[lineCount++] = "allocation " + allocationRate;
+        for (Phase phase : PHASES) {
+            int index = phase.ordinal();
+            if (lastFrames[index] <= frame - REFRESH_FRAMES) {
+                continue;
+            }
+            int count = Math.min(sampleCounts[index], WINDOW);
+            System.arraycopy(samples[index], 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            newLines[lineCount++] = String.format("%s  p50 %.3f ms  p99 %.3f ms", phase.name().toLowerCase(),
+                    sorted[percentileIndex(count, 50)] / NANOS_PER_MILLI,
+                    sorted[percentileIndex(count, 99)] / NANOS_PER_MILLI);
+        }
+        lines = Arrays.copyOf(newLines, lineCount);
+    }
+
+    private static int percentileIndex(int count, int percent) {
+        return Math.min(count - 1, count * percent / 100);
+    }
+
+    private long getAllocatedBytes() {
+        return allocationBean != null ? allocationBean.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * A fixed-rate simulation clock. The time between rendered frames is added to an accumulator, and the game play is
+ * advanced in whole ticks of a fixed length, so the speed of the game does not depend on the frame rate.
+ * A frame runs at most a set number of ticks. When the game falls further behind than that, for example after a
+ * stall, the rest of the time is dropped and the game slows down instead of freezing to catch up.
+ */
+public class GameClock {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long TICK_NANOS;
+    private final int MAX_TICKS_PER_FRAME;
+    private long lastTime = -1;
+    private long accumulator;
+    private long ticks;
+    private long droppedTicks;
+
+    /**
+     * @param ticksPerSecond the number of ticks the game play advances per second
+     * @param maxTicksPerFrame the largest number of ticks run for one rendered frame
+     */
+    public GameClock(int ticksPerSecond, int maxTicksPerFrame) {
+        if (ticksPerSecond <= 0 || maxTicksPerFrame <= 0) {
+            throw new IllegalArgumentException("The tick rate and the ticks per frame must be positive");
+        }
+        this.TICK_NANOS = NANOS_PER_SECOND / ticksPerSecond;
+        this.MAX_TICKS_PER_FRAME = maxTicksPerFrame;
+    }
+
+    /**
+     * Start counting time again from the next frame, dropping the time that has built up so far.
+     */
+    public void reset() {
+        lastTime = -1;
+        accumulator = 0;
+    }
+
+    /**
+     * Add the time since the previous frame and take the number of ticks to run for this frame out of it.
+     * The first frame after a reset runs no tick.
+     * @param now the current time in nanoseconds, as given by System.nanoTime
+     * @return the number of ticks to run, at most the maximum ticks per frame
+     */
+    public int advance(long now) {
+        if (lastTime >= 0) {
+            accumulator += now - lastTime;
+        }
+        lastTime = now;
+
+        int frameTicks = (int) Math.min(accumulator / TICK_NANOS, MAX_TICKS_PER_FRAME);
+        accumulator -= frameTicks * TICK_NANOS;
+        if (accumulator >= TICK_NANOS) {
+            droppedTicks += accumulator / TICK_NANOS;
+            accumulator %= TICK_NANOS;
+        }
+        ticks += frameTicks;
+        return frameTicks;
+    }
+
+    /**
+     * Get how far the clock is between the last tick and the next one, used to interpolate the drawn positions.
+     * @return the fraction of a tick that has passed since the last tick, from 0 inclusive to 1 exclusive
+     */
+    public double getAlpha() {
+        return (double) accumulator / TICK_NANOS;
+    }
+
+    /**
+     * Get the number of ticks run since the clock was created.
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Get the number of ticks that were dropped because a frame fell too far behind.
+     * @return the number of dropped ticks
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("clock: tickRate=%d/s ticks=%d dropped=%d",
+                NANOS_PER_SECOND / TICK_NANOS, ticks, droppedTicks);
+    }
+}
@@ -0,0 +1,528 @@
+import java.util.Properties;
+
+/**
+ * An immutable, typed snapshot of app.properties. All values are parsed and validated once when the game starts,
+ * so game objects only read plain fields while a frame is running.
+ */
+public class GameConfig {
+    public final int WINDOW_WIDTH;
+    public final int WINDOW_HEIGHT;
+    public final String FONT;
+
+    public final String SUNNY_BACKGROUND;
+    public final String RAIN_BACKGROUND;
+    public final String HOME_BACKGROUND;
+    public final String PLAYER_INFO_BACKGROUND;
+    public final String GAME_END_BACKGROUND;
+
+    public final String OBJECTS_FILE;
+    public final String WEATHER_FILE;
+    public final String LEVEL_FILE;
+    public final String ATLAS_IMAGE;
+    public final String ATLAS_INDEX;
+    public final String REPLAY_FILE;
+    public final String CHECKPOINT_FILE;
+    public final int CHECKPOINT_INTERVAL;
+    public final String SCORES_FILE;
+    public final String CSV_SCORES_FILE;
+    public final String TOP_SCORES_FILE;
+    public final int TOP_SCORES_COUNT;
+    public final boolean SYNC_SCORES;
+    public final float TARGET;
+    public final int MAX_FRAMES;
+    public final int LEVEL_LOOK_AHEAD;
+    public final int LEVEL_RETIRE_MARGIN;
+    public final int NPC_RETIRE_MARGIN;
+    public final int CULL_MARGIN;
+    public final int WAKE_MARGIN;
+    public final int TICKS_PER_SECOND;
+    public final int MAX_TICKS_PER_FRAME;
+    private final int[] ROAD_LANE_CENTERS;
+
+    public final TaxiConfig TAXI;
+    public final NpcConfig OTHER_CAR;
+    public final NpcConfig ENEMY_CAR;
+    public final FireballConfig FIREBALL;
+    public final EffectConfig SMOKE;
+    public final EffectConfig FIRE;
+    public final EffectConfig BLOOD;
+    public final PassengerConfig PASSENGER;
+    public final DriverConfig DRIVER;
+    public final FlagConfig TRIP_END_FLAG;
+    public final PowerUpConfig INVINCIBLE_POWER;
+    public final PowerUpConfig COIN;
+    public final TripConfig TRIP;
+
+    public final HudConfig HUD;
+    public final HomeConfig HOME;
+    public final PlayerInfoConfig PLAYER_INFO;
+    public final GameEndConfig GAME_END;
+
+    /**
+     * Parse and validate the game properties.
+     * @param props the properties read from app.properties
+     * @throws IllegalArgumentException if a property is missing, malformed or out of range
+     */
+    public GameConfig(Properties props) {
+        WINDOW_WIDTH = getPositiveInt(props, "window.width");
+        WINDOW_HEIGHT = getPositiveInt(props, "window.height");
+        FONT = getString(props, "font");
+
+        SUNNY_BACKGROUND = getString(props, "backgroundImage.sunny");
+        RAIN_BACKGROUND = getString(props, "backgroundImage.raining");
+        HOME_BACKGROUND = getString(props, "backgroundImage.home");
+        PLAYER_INFO_BACKGROUND = getString(props, "backgroundImage.playerInfo");
+        GAME_END_BACKGROUND = getString(props, "backgroundImage.gameEnd");
+
+        OBJECTS_FILE = getString(props, "gamePlay.objectsFile");
+        WEATHER_FILE = getString(props, "gamePlay.weatherFile");
+        LEVEL_FILE = getString(props, "gamePlay.levelFile");
+        ATLAS_IMAGE = getString(props, "gamePlay.atlasImage");
+        ATLAS_INDEX = getString(props, "gamePlay.atlasIndex");
+        REPLAY_FILE = getString(props, "gamePlay.replayFile");
+        CHECKPOINT_FILE = getString(props, "gamePlay.checkpointFile");
+        CHECKPOINT_INTERVAL = getNonNegativeInt(props, "gamePlay.checkpointInterval");
+        SCORES_FILE = getString(props, "gameEnd.scoresFile");
+        CSV_SCORES_FILE = getString(props, "gameEnd.csvScoresFile");
+        TOP_SCORES_FILE = getString(props, "gameEnd.topScoresFile");
+        TOP_SCORES_COUNT = getPositiveInt(props, "gameEnd.topScoresCount");
+        SYNC_SCORES = getBoolean(props, "gameEnd.syncScores");
+        TARGET = getFloat(props, "gamePlay.target");
+        MAX_FRAMES = getPositiveInt(props, "gamePlay.maxFrames");
+        LEVEL_LOOK_AHEAD = getNonNegativeInt(props, "gamePlay.levelLookAhead");
+        LEVEL_RETIRE_MARGIN = getNonNegativeInt(props, "gamePlay.levelRetireMargin");
+        NPC_RETIRE_MARGIN = getNonNegativeInt(props, "gamePlay.npcRetireMargin");
+        CULL_MARGIN = getNonNegativeInt(props, "gamePlay.cullMargin");
+        WAKE_MARGIN = getNonNegativeInt(props, "gamePlay.wakeMargin");
+        TICKS_PER_SECOND = getPositiveInt(props, "gamePlay.ticksPerSecond");
+        MAX_TICKS_PER_FRAME = getPositiveInt(props, "gamePlay.maxTicksPerFrame");
+        ROAD_LANE_CENTERS = new int[] {
+                getInt(props, "roadLaneCenter1"),
+                getInt(props, "roadLaneCenter2"),
+                getInt(props, "roadLaneCenter3")
+        };
+
+        TAXI = new TaxiConfig(props);
+        OTHER_CAR = new NpcConfig(props, "gameObjects.otherCar");
+        ENEMY_CAR = new NpcConfig(props, "gameObjects.enemyCar");
+        FIREBALL = new FireballConfig(props);
+        SMOKE = new EffectConfig(props, "gameObjects.smoke");
+        FIRE = new EffectConfig(props, "gameObjects.fire");
+        BLOOD = new EffectConfig(props, "gameObjects.blood");
+        PASSENGER = new PassengerConfig(props);
+        DRIVER = new DriverConfig(props);
+        TRIP_END_FLAG = new FlagConfig(props);
+        INVINCIBLE_POWER = new PowerUpConfig(props, "gameObjects.invinciblePower");
+        COIN = new PowerUpConfig(props, "gameObjects.coin");
+        TRIP = new TripConfig(props);
+
+        HUD = new HudConfig(props);
+        HOME = new HomeConfig(props);
+        PLAYER_INFO = new PlayerInfoConfig(props);
+        GAME_END = new GameEndConfig(props);
+    }
+
+    public int getLaneCount() {
+        return ROAD_LANE_CENTERS.length;
+    }
+
+    public int getLaneCenter(int lane) {
+        return ROAD_LANE_CENTERS[lane];
+    }
+
+    /**
+     * Settings of the player's taxi. The taxi's vertical speed is also the scroll speed of the world.
+     */
+    public static class TaxiConfig {
+        public final String IMAGE;
+        public final String DAMAGED_IMAGE;
+        public final double RADIUS;
+        public final double HEALTH;
+        public final double DAMAGE;
+        public final int SPEED_X;
+        public final int SPEED_Y;
+        public final int NEXT_SPAWN_MIN_Y;
+        public final int NEXT_SPAWN_MAX_Y;
+
+        private TaxiConfig(Properties props) {
+            IMAGE = getString(props, "gameObjects.taxi.image");
+            DAMAGED_IMAGE = getString(props, "gameObjects.taxi.damagedImage");
+            RADIUS = getPositiveDouble(props, "gameObjects.taxi.radius");
+            HEALTH = getPositiveDouble(props, "gameObjects.taxi.health");
+            DAMAGE = getNonNegativeDouble(props, "gameObjects.taxi.damage");
+            SPEED_X = getNonNegativeInt(props, "gameObjects.taxi.speedX");
+            SPEED_Y = getNonNegativeInt(props, "gameObjects.taxi.speedY");
+            NEXT_SPAWN_MIN_Y = getInt(props, "gameObjects.taxi.nextSpawnMinY");
+            NEXT_SPAWN_MAX_Y = getInt(props, "gameObjects.taxi.nextSpawnMaxY");
+            requireOrdered("gameObjects.taxi.nextSpawnMinY", NEXT_SPAWN_MIN_Y,
+                    "gameObjects.taxi.nextSpawnMaxY", NEXT_SPAWN_MAX_Y);
+        }
+    }
+
+    /**
+     * Settings shared by the other cars and enemy cars.
+     */
+    public static class NpcConfig {
+        public final String IMAGE;
+        public final double RADIUS;
+        public final double HEALTH;
+        public final double DAMAGE;
+        public final int MIN_SPEED_Y;
+        public final int MAX_SPEED_Y;
+        public final int SPEED_X;
+        public final int TYPES;
+        // a car spawns in a frame when a number drawn from 1 to 1000 is a multiple of the spawn rate
+        public final int SPAWN_RATE;
+        // no more cars of this kind spawn while this many are on the road
+        public final int MAX_COUNT;
+        private final String[] IMAGES;
+
+        private NpcConfig(Properties props, String prefix) {
+            IMAGE = getString(props, prefix + ".image");
+            RADIUS = getPositiveDouble(props, prefix + ".radius");
+            HEALTH = getPositiveDouble(props, prefix + ".health");
+            DAMAGE = getNonNegativeDouble(props, prefix + ".damage");
+            MIN_SPEED_Y = getNonNegativeInt(props, prefix + ".minSpeedY");
+            MAX_SPEED_Y = getNonNegativeInt(props, prefix + ".maxSpeedY");
+            SPEED_X = getNonNegativeInt(props, prefix + ".speedX");
+            TYPES = getPositiveInt(props, prefix + ".types");
+            SPAWN_RATE = getPositiveInt(props, prefix + ".spawnRate");
+            MAX_COUNT = getPositiveInt(props, prefix + ".maxCount");
+            // NPC speeds are drawn from [MIN_SPEED_Y, MAX_SPEED_Y), which must not be empty
+            if (MIN_SPEED_Y >= MAX_SPEED_Y) {
+                throw new IllegalArgumentException("Property " + prefix + ".minSpeedY (" + MIN_SPEED_Y
+                        + ") must be less than " + prefix + ".maxSpeedY (" + MAX_SPEED_Y + ")");
+            }
+
+            IMAGES = new String[TYPES];
+            for (int type = 1; type <= TYPES; type++) {
+                IMAGES[type - 1] = String.format(IMAGE, type);
+            }
+        }
+
+        /**
+         * Get the image of a car type. Types are numbered from 1.
+         * @param type the car type
+         * @return the image file of that type
+         */
+        public String getImage(int type) {
+            return IMAGES[type - 1];
+        }
+    }
+
+    /**
+     * Settings of the fireballs shot by enemy cars.
+     */
+    public static class FireballConfig {
+        public final String IMAGE;
+        public final double RADIUS;
+        public final double DAMAGE;
+        public final int SPEED_Y;
+        public final int POOL_SIZE;
+        // an enemy car shoots in a frame when a number drawn from 1 to 1000 is a multiple of the shoot rate
+        public final int SHOOT_RATE;
+
+        private FireballConfig(Properties props) {
+            IMAGE = getString(props, "gameObjects.fireball.image");
+            RADIUS = getPositiveDouble(props, "gameObjects.fireball.radius");
+            DAMAGE = getNonNegativeDouble(props, "gameObjects.fireball.damage");
+            SPEED_Y = getPositiveInt(props, "gameObjects.fireball.shootSpeedY");
+            POOL_SIZE = getNonNegativeInt(props, "gameObjects.fireball.poolSize");
+            SHOOT_RATE = getPositiveInt(props, "gameObjects.fireball.shootRate");
+        }
+    }
+
+    /**
+     * Settings of a short-lived effect such as smoke, fire or blood.
+     */
+    public static class EffectConfig {
+        public final String IMAGE;
+        public final int TTL;
+        public final int POOL_SIZE;
+
+        private EffectConfig(Properties props, String prefix) {
+            IMAGE = getString(props, prefix + ".image");
+            TTL = getPositiveInt(props, prefix + ".ttl");
+            POOL_SIZE = getNonNegativeInt(props, prefix + ".poolSize");
+        }
+    }
+
+    /**
+     * Settings of the passengers.
+     */
+    public static class PassengerConfig {
+        public final String IMAGE;
+        public final int WALK_SPEED_X;
+        public final int WALK_SPEED_Y;
+        public final double RADIUS;
+        public final int TAXI_DETECT_RADIUS;
+        public final int TAXI_GET_IN_RADIUS;
+        public final double HEALTH;
+        public final int FONT_SIZE;
+
+        private PassengerConfig(Properties props) {
+            IMAGE = getString(props, "gameObjects.passenger.image");
+            WALK_SPEED_X = getNonNegativeInt(props, "gameObjects.passenger.walkSpeedX");
+            WALK_SPEED_Y = getNonNegativeInt(props, "gameObjects.passenger.walkSpeedY");
+            RADIUS = getPositiveDouble(props, "gameObjects.passenger.radius");
+            TAXI_DETECT_RADIUS = getNonNegativeInt(props, "gameObjects.passenger.taxiDetectRadius");
+            TAXI_GET_IN_RADIUS = getNonNegativeInt(props, "gameObjects.passenger.taxiGetInRadius");
+            HEALTH = getPositiveDouble(props, "gameObjects.passenger.health");
+            FONT_SIZE = getPositiveInt(props, "gameObjects.passenger.fontSize");
+        }
+    }
+
+    /**
+     * Settings of the driver.
+     */
+    public static class DriverConfig {
+        public final String IMAGE;
+        public final int WALK_SPEED_X;
+        public final int WALK_SPEED_Y;
+        public final double RADIUS;
+        public final int TAXI_GET_IN_RADIUS;
+        public final double HEALTH;
+
+        private DriverConfig(Properties props) {
+            IMAGE = getString(props, "gameObjects.driver.image");
+            WALK_SPEED_X = getNonNegativeInt(props, "gameObjects.driver.walkSpeedX");
+            WALK_SPEED_Y = getNonNegativeInt(props, "gameObjects.driver.walkSpeedY");
+            RADIUS = getPositiveDouble(props, "gameObjects.driver.radius");
+            TAXI_GET_IN_RADIUS = getNonNegativeInt(props, "gameObjects.driver.taxiGetInRadius");
+            HEALTH = getPositiveDouble(props, "gameObjects.driver.health");
+        }
+    }
+
+    /**
+     * Settings of the trip end flag.
+     */
+    public static class FlagConfig {
+        public final String IMAGE;
+        public final double RADIUS;
+
+        private FlagConfig(Properties props) {
+            IMAGE = getString(props, "gameObjects.tripEndFlag.image");
+            RADIUS = getPositiveDouble(props, "gameObjects.tripEndFlag.radius");
+        }
+    }
+
+    /**
+     * Settings of a collectable power up.
+     */
+    public static class PowerUpConfig {
+        public final String IMAGE;
+        public final double RADIUS;
+        public final int MAX_FRAMES;
+
+        private PowerUpConfig(Properties props, String prefix) {
+            IMAGE = getString(props, prefix + ".image");
+            RADIUS = getPositiveDouble(props, prefix + ".radius");
+            MAX_FRAMES = getPositiveInt(props, prefix + ".maxFrames");
+        }
+    }
+
+    /**
+     * Rates used to work out trip fees and penalties.
+     */
+    public static class TripConfig {
+        public static final int MIN_PRIORITY = 1;
+        public static final int MAX_PRIORITY = 3;
+        public final float RATE_PER_Y;
+        public final float PENALTY_PER_Y;
+        private final float[] PRIORITY_RATES;
+
+        private TripConfig(Properties props) {
+            RATE_PER_Y = getFloat(props, "trip.rate.perY");
+            PENALTY_PER_Y = getFloat(props, "trip.penalty.perY");
+            PRIORITY_RATES = new float[MAX_PRIORITY + 1];
+            for (int priority = MIN_PRIORITY; priority <= MAX_PRIORITY; priority++) {
+                PRIORITY_RATES[priority] = getFloat(props, "trip.rate.priority" + priority);
+            }
+        }
+
+        /**
+         * Get the rate paid for a trip of the given priority.
+         * @param priority the priority, from MIN_PRIORITY to MAX_PRIORITY
+         * @return the rate of that priority
+         */
+        public float getPriorityRate(int priority) {
+            return PRIORITY_RATES[priority];
+        }
+    }
+
+    /**
+     * Font size and positions of the in-game HUD.
+     */
+    public static class HudConfig {
+        public final int FONT_SIZE;
+        public final int EARNINGS_X;
+        public final int EARNINGS_Y;
+        public final int TARGET_X;
+        public final int TARGET_Y;
+        public final int MAX_FRAMES_X;
+        public final int MAX_FRAMES_Y;
+        public final int COIN_X;
+        public final int COIN_Y;
+        public final int DRIVER_HEALTH_X;
+        public final int DRIVER_HEALTH_Y;
+        public final int TAXI_HEALTH_X;
+        public final int TAXI_HEALTH_Y;
+        public final int PASSENGER_HEALTH_X;
+        public final int PASSENGER_HEALTH_Y;
+        public final int TRIP_INFO_X;
+        public final int TRIP_INFO_Y;
+
+        private HudConfig(Properties props) {
+            FONT_SIZE = getPositiveInt(props, "gamePlay.info.fontSize");
+            EARNINGS_X = getInt(props, "gamePlay.earnings.x");
+            EARNINGS_Y = getInt(props, "gamePlay.earnings.y");
+            TARGET_X = getInt(props, "gamePlay.target.x");
+            TARGET_Y = getInt(props, "gamePlay.target.y");
+            MAX_FRAMES_X = getInt(props, "gamePlay.maxFrames.x");
+            MAX_FRAMES_Y = getInt(props, "gamePlay.maxFrames.y");
+            COIN_X = getInt(props, "gameplay.coin.x");
+            COIN_Y = getInt(props, "gameplay.coin.y");
+            DRIVER_HEALTH_X = getInt(props, "gamePlay.driverHealth.x");
+            DRIVER_HEALTH_Y = getInt(props, "gamePlay.driverHealth.y");
+            TAXI_HEALTH_X = getInt(props, "gamePlay.taxiHealth.x");
+            TAXI_HEALTH_Y = getInt(props, "gamePlay.taxiHealth.y");
+            PASSENGER_HEALTH_X = getInt(props, "gamePlay.passengerHealth.x");
+            PASSENGER_HEALTH_Y = getInt(props, "gamePlay.passengerHealth.y");
+            TRIP_INFO_X = getInt(props, "gamePlay.tripInfo.x");
+            TRIP_INFO_Y = getInt(props, "gamePlay.tripInfo.y");
+        }
+    }
+
+    /**
+     * Layout of the home screen.
+     */
+    public static class HomeConfig {
+        public final int TITLE_FONT_SIZE;
+        public final int TITLE_Y;
+        public final int INSTRUCTION_FONT_SIZE;
+        public final int INSTRUCTION_Y;
+
+        private HomeConfig(Properties props) {
+            TITLE_FONT_SIZE = getPositiveInt(props, "home.title.fontSize");
+            TITLE_Y = getInt(props, "home.title.y");
+            INSTRUCTION_FONT_SIZE = getPositiveInt(props, "home.instruction.fontSize");
+            INSTRUCTION_Y = getInt(props, "home.instruction.y");
+        }
+    }
+
+    /**
+     * Layout of the player info screen.
+     */
+    public static class PlayerInfoConfig {
+        public final int FONT_SIZE;
+        public final int START_Y;
+        public final int PLAYER_NAME_INPUT_Y;
+        public final int PLAYER_NAME_Y;
+
+        private PlayerInfoConfig(Properties props) {
+            FONT_SIZE = getPositiveInt(props, "playerInfo.fontSize");
+            START_Y = getInt(props, "playerInfo.start.y");
+            PLAYER_NAME_INPUT_Y = getInt(props, "playerInfo.playerNameInput.y");
+            PLAYER_NAME_Y = getInt(props, "playerInfo.playerName.y");
+        }
+    }
+
+    /**
+     * Layout of the game end screen.
+     */
+    public static class GameEndConfig {
+        public final int STATUS_FONT_SIZE;
+        public final int STATUS_Y;
+        public final int SCORES_FONT_SIZE;
+        public final int SCORES_Y;
+
+        private GameEndConfig(Properties props) {
+            STATUS_FONT_SIZE = getPositiveInt(props, "gameEnd.status.fontSize");
+            STATUS_Y = getInt(props, "gameEnd.status.y");
+            SCORES_FONT_SIZE = getPositiveInt(props, "gameEnd.scores.fontSize");
+            SCORES_Y = getInt(props, "gameEnd.scores.y");
+        }
+    }
+
+    private static String getString(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing property " + key);
+        }
+        return value.trim();
+    }
+
+    private static int getInt(Properties props, String key) {
+        String value = getString(props, key);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Property " + key + " is not an integer: " + value, e);
+        }
+    }
+
+    private static boolean getBoolean(Properties props, String key) {
+        String value = getString(props, key);
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Property " + key + " is not true or false: " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static int getNonNegativeInt(Properties props, String key) {
+        int value = getInt(props, key);
+        if (value < 0) {
+            throw new IllegalArgumentException("Property " + key + " must not be negative: " + value);
+        }
+        return value;
+    }
+
+    private static int getPositiveInt(Properties props, String key) {
+        int value = getInt(props, key);
+        if (value <= 0) {
+            throw new IllegalArgumentException("Property " + key + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    private static float getFloat(Properties props, String key) {
+        String value = getString(props, key);
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Property " + key + " is not a number: " + value, e);
+        }
+    }
+
+    private static double getDouble(Properties props, String key) {
+        String value = getString(props, key);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Property " + key + " is not a number: " + value, e);
+        }
+    }
+
+    private static double getNonNegativeDouble(Properties props, String key) {
+        double value = getDouble(props, key);
+        if (value < 0) {
+            throw new IllegalArgumentException("Property " + key + " must not be negative: " + value);
+        }
+        return value;
+    }
+
+    private static double getPositiveDouble(Properties props, String key) {
+        double value = getDouble(props, key);
+        if (value <= 0) {
+            throw new IllegalArgumentException("Property " + key + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    private static void requireOrdered(String minKey, int min, String maxKey, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Property " + minKey + " (" + min + ") is greater than "
+                    + maxKey + " (" + max + ")");
+        }
+    }
+}
@@ -5,6 +5,7 @@
 
 import bagel.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A class that represents the game end screen for a win/loss.
@@ -23,30 +24,33 @@ public class GameEndScreen {
     private final int STATUS_Y;
     private final int SCORES_Y;
 
-    private final Score[] TOP_SCORES;
-    private Score[] scores;
+    // read by the score writer after the score of the game play has been saved
+    private final CompletableFuture<Score[]> TOP_SCORES;
 
     private boolean isWon;
 
 
-    public GameEndScreen(Properties gameProps, Properties msgProps) {
+    /**
+     * @param config the game configuration
+     * @param msgProps the messages shown on screen
+     * @param assets the cache the background and fonts are loaded from
+     * @param scores the score writer the score of the game play was queued on, the top scores are read after it
+     */
+    public GameEndScreen(GameConfig config, Properties msgProps, AssetCache assets, ScoreWriter scores) {
 
-        BACKGROUND_IMAGE = new Image(gameProps.getProperty("backgroundImage.gameEnd"));
+        BACKGROUND_IMAGE = assets.getImage(config.GAME_END_BACKGROUND);
 
         GAME_WON_TXT = msgProps.getProperty("gameEnd.won");
         GAME_LOST_TXT = msgProps.getProperty("gameEnd.lost");
         HIGHEST_SCORE_TXT = msgProps.getProperty("gameEnd.highestScores");
 
-        STATUS_Y = Integer.parseInt(gameProps.getProperty("gameEnd.status.y"));
-        SCORES_Y = Integer.parseInt(gameProps.getProperty("gameEnd.scores.y"));
+        STATUS_Y = config.GAME_END.STATUS_Y;
+        SCORES_Y = config.GAME_END.SCORES_Y;
 
-        String fontFile = gameProps.getProperty("font");
-        STATUS_FONT = new Font(fontFile, Integer.parseInt(gameProps.getProperty("gameEnd.status.fontSize")));
-        SCORES_FONT = new Font(fontFile, Integer.parseInt(gameProps.getProperty("gameEnd.scores.fontSize")));
+        STATUS_FONT = assets.getFont(config.FONT, config.GAME_END.STATUS_FONT_SIZE);
+        SCORES_FONT = assets.getFont(config.FONT, config.GAME_END.SCORES_FONT_SIZE);
 
-        //get top 5 scores
-        populateScores(gameProps.getProperty("gameEnd.scoresFile"));
-        TOP_SCORES = getTopScores();
+        TOP_SCORES = scores.getTopScores();
     }
 
     public void setIsWon(boolean isWon) {
@@ -54,7 +58,7 @@ public class GameEndScreen {
     }
 
     /**
-     * Show whether the game is won or lost and the top 5 scores.
+     * Show whether the game is won or lost and the top scores.
      * @param input The current mouse/keyboard input.
      * @return true if SPACE key is pressed, false otherwise.
      */
@@ -77,13 +81,11 @@ public class GameEndScreen {
                 SCORES_Y);
 
         int scoreIdx = 0;
-        for(Score score : TOP_SCORES) {
-            if(score != null) {
-                String text = score.getPlayerName() + " - " + String.format("%.02f", score.getScore());
-                double x = Window.getWidth() / 2 - SCORES_FONT.getWidth(text)/2;
-                double y = SCORES_Y + 40 * (scoreIdx + 1);
-                SCORES_FONT.drawString(text, x, y);
-            }
+        for(Score score : getTopScores()) {
+            String text = score.getPlayerName() + " - " + String.format("%.02f", score.getScore());
+            double x = Window.getWidth() / 2 - SCORES_FONT.getWidth(text)/2;
+            double y = SCORES_Y + 40 * (scoreIdx + 1);
+            SCORES_FONT.drawString(text, x, y);
 
             scoreIdx++;
         }
@@ -93,28 +95,12 @@ public class GameEndScreen {
     }
 
     /**
-     * Populate the scores from a file. The file used to store the scores of previous game plays.
-     * @param filename The name of the file to read the scores from.
-     */
-    public void populateScores(String filename) {
-        ArrayList<String[]> data = IOUtils.readCommaSeperatedFile(filename);
-        scores = new Score[data.size()];
-
-        int scoreIdx = 0;
-        for (String[] line : data) {
-            String username = line[0];
-            double score = Double.parseDouble(line[1]);
-            scores[scoreIdx] = new Score(username, score);
-            scoreIdx++;
-        }
-    }
-
-    /**
-     * Sort the score in descending order and return the top 5 scores.
-     * @return list of Score objects representing the top 5 scores.
+     * Get the top scores shown on the screen. They are shown once the score writer has read them, which is usually
+     * before the first frame of the screen.
+     * @return the best scores, best first. There are fewer than the configured number if fewer games were played,
+     *         and none while the scores are still being read or could not be read.
      */
     public Score[] getTopScores() {
-        Arrays.sort(scores, (a, b) -> Double.compare(b.getScore(), a.getScore()));
-        return Arrays.copyOfRange(scores, 0, 5);
+        return TOP_SCORES.isDone() && !TOP_SCORES.isCompletedExceptionally() ? TOP_SCORES.join() : new Score[0];
     }
 }
@@ -0,0 +1,280 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The JDK Flight Recorder events of the game, so a running game can be recorded with
+ * {@code jcmd <pid> JFR.start} and its ticks, collisions, spawns, trips, score writes, checkpoints, level loads, asset
+ * loads and screen transitions lined up against the GC pauses and I/O of the JVM.
+ * The events are disabled until a recording is started. An event is created, timed and committed like this:
+ * <pre>
+ *     GameEvents.CollisionPass event = new GameEvents.CollisionPass();
+ *     event.begin();
+ *     handleCollisions();
+ *     if (event.shouldCommit()) {
+ *         event.npcs = npcCount;
+ *         event.commit();
+ *     }
+ * </pre>
+ * While no recording is running, shouldCommit returns false and the JIT removes the event, so the game pays nothing
+ * for it. The game events do not take stack traces, as they are fired from a few known places.
+ */
+public final class GameEvents {
+    private GameEvents() {
+    }
+
+    @Name("shadowtaxi.Tick")
+    @Label("Tick")
+    @Description("One tick of the game play")
+    @Category({"ShadowTaxi", "Game Play"})
+    @StackTrace(false)
+    public static class Tick extends Event {
+        @Label("Frame")
+        public int frame;
+
+        @Label("Entities")
+        @Description("The number of entities in use, not counting the pooled objects waiting in their pools")
+        public int entities;
+
+        @Label("NPCs")
+        @Description("The number of other cars and enemy cars")
+        public int npcs;
+
+        @Label("Passengers")
+        public int passengers;
+
+        @Label("Asleep")
+        @Description("The number of passengers and power-ups far from the screen that were not updated")
+        public int asleep;
+
+        @Label("Finished")
+        @Description("Whether the game play ended in this tick")
+        public boolean finished;
+    }
+
+    @Name("shadowtaxi.CollisionPass")
+    @Label("Collision Pass")
+    @Description("One collision pass over the passengers, cars and fireballs")
+    @Category({"ShadowTaxi", "Game Play"})
+    @StackTrace(false)
+    public static class CollisionPass extends Event {
+        @Label("Frame")
+        public int frame;
+
+        @Label("NPCs")
+        public int npcs;
+
+        @Label("Passengers")
+        public int passengers;
+    }
+
+    @Name("shadowtaxi.Spawn")
+    @Label("Spawn")
+    @Description("A game object was created by the level stream or a random spawn")
+    @Category({"ShadowTaxi", "Game Play"})
+    @StackTrace(false)
+    public static class Spawn extends Event {
+        @Label("Frame")
+        public int frame;
+
+        @Label("Type")
+        public String type;
+
+        @Label("X")
+        public int x;
+
+        @Label("Y")
+        public int y;
+    }
+
+    @Name("shadowtaxi.TripStart")
+    @Label("Trip Start")
+    @Description("A passenger got into the taxi")
+    @Category({"ShadowTaxi", "Game Play"})
+    @StackTrace(false)
+    public static class TripStart extends Event {
+        @Label("Priority")
+        public int priority;
+
+        @Label("Start Y")
+        public int startY;
+
+        @Label("End X")
+        public int endX;
+
+        @Label("End Y")
+        public int endY;
+    }
+
+    @Name("shadowtaxi.TripEnd")
+    @Label("Trip End")
+    @Description("A passenger was dropped off")
+    @Category({"ShadowTaxi", "Game Play"})
+    @StackTrace(false)
+    public static class TripEnd extends Event {
+        @Label("Priority")
+        public int priority;
+
+        @Label("Fee")
+        public float fee;
+
+        @Label("Penalty")
+        public float penalty;
+    }
+
+    @Name("shadowtaxi.ScoreWrite")
+    @Label("Score Write")
+    @Description("A batch of scores was appended to the score log")
+    @Category({"ShadowTaxi", "I/O"})
+    @StackTrace(false)
+    public static class ScoreWrite extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Player")
+        @Description("The player of the last score of the batch")
+        public String player;
+
+        @Label("Score")
+        @Description("The last score of the batch")
+        public double score;
+
+        @Label("Scores")
+        @Description("The number of scores in the batch")
+        public int scores;
+
+        @Label("Synced")
+        @Description("Whether the scores were forced to the storage device")
+        public boolean synced;
+
+        @Label("Bytes Written")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("shadowtaxi.Checkpoint")
+    @Label("Checkpoint")
+    @Description("A save state of the game play was compressed and written to the checkpoint file")
+    @Category({"ShadowTaxi", "I/O"})
+    @StackTrace(false)
+    public static class Checkpoint extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Frame")
+        @Description("The tick the save state was taken after")
+        public int frame;
+
+        @Label("Capture Time")
+        @Description("The time the game play thread took to copy the state, before it was written")
+        @Timespan(Timespan.NANOSECONDS)
+        public long captureTime;
+
+        @Label("State Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Bytes Written")
+        @DataAmount
+        public long compressedBytes;
+    }
+
+    @Name("shadowtaxi.LevelLoad")
+    @Label("Level Load")
+    @Description("The level was loaded, and compiled if the level file was out of date")
+    @Category({"ShadowTaxi", "I/O"})
+    @StackTrace(false)
+    public static class LevelLoad extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Compiled")
+        @Description("Whether the level file was compiled from the CSV files first")
+        public boolean compiled;
+
+        @Label("CSV Fallback")
+        @Description("Whether the level read from the CSV files is played because the level file could not be used")
+        public boolean csvFallback;
+
+        @Label("Entries")
+        @Description("The number of passengers, coins and stars to stream")
+        public int entries;
+    }
+
+    @Name("shadowtaxi.AssetLoad")
+    @Label("Asset Load")
+    @Description("A startup loading task: packing the atlas, loading the level or uploading an image")
+    @Category({"ShadowTaxi", "I/O"})
+    @StackTrace(false)
+    public static class AssetLoad extends Event {
+        @Label("Task")
+        public String task;
+
+        @Label("File")
+        public String file;
+    }
+
+    @Name("shadowtaxi.ScreenTransition")
+    @Label("Screen Transition")
+    @Description("The game moved from one screen to another")
+    @Category({"ShadowTaxi", "Game Play"})
+    @StackTrace(false)
+    public static class ScreenTransition extends Event {
+        @Label("From")
+        public String from;
+
+        @Label("To")
+        public String to;
+    }
+
+    /**
+     * Record a screen transition. The transition takes no time, so the event is committed at once.
+     * @param from the screen that was left
+     * @param to the screen that was entered
+     */
+    static void screenTransition(String from, String to) {
+        ScreenTransition event = new ScreenTransition();
+        if (event.shouldCommit()) {
+            event.from = from;
+            event.to = to;
+            event.commit();
+        }
+    }
+
+    /**
+     * Record the start of a trip, as the passenger gets into the taxi. The start is timed as an instant.
+     * @param passenger the passenger of the trip
+     */
+    static void tripStart(Passenger passenger) {
+        TripStart event = new TripStart();
+        if (event.shouldCommit()) {
+            event.priority = passenger.getTravelPlan().getPriority();
+            event.startY = passenger.getY();
+            event.endX = passenger.getTravelPlan().getEndX();
+            event.endY = passenger.getTravelPlan().getEndY();
+            event.commit();
+        }
+    }
+
+    /**
+     * Record a game object that was spawned. The spawn is timed as an instant.
+     * @param frame the tick of the game play
+     * @param type the kind of game object
+     * @param object the game object
+     */
+    static void spawn(int frame, String type, GameObject object) {
+        Spawn event = new Spawn();
+        if (event.shouldCommit()) {
+            event.frame = frame;
+            event.type = type;
+            event.x = object.getX();
+            event.y = object.getY();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.Properties;
+
+/**
+ * The heads-up display of the game play screen: the earnings, target, remaining frames, coin timer, health of the
+ * driver, taxi and passenger, and the details of the last trip.
+ * Each line keeps its text between frames and is only formatted again when the value it shows changes.
+ */
+public class GameHud {
+    private static final int HEALTH_DISPLAY_FACTOR = 100;
+    private static final int TRIP_INFO_OFFSET_1 = 30;
+    private static final int TRIP_INFO_OFFSET_2 = 60;
+    private static final int TRIP_INFO_OFFSET_3 = 90;
+
+    private final HudLine EARNINGS;
+    private final HudLine TARGET;
+    private final HudLine REMAINING_FRAMES;
+    private final HudLine COIN_FRAMES;
+    private final HudLine DRIVER_HEALTH;
+    private final HudLine TAXI_HEALTH;
+    private final HudLine PASSENGER_HEALTH;
+    private final HudLine COMPLETED_TRIP_TITLE;
+    private final HudLine ONGOING_TRIP_TITLE;
+    private final HudLine EXPECTED_FEE;
+    private final HudLine PRIORITY;
+    private final HudLine PENALTY;
+
+    public GameHud(GameConfig config, Properties msgProps) {
+        GameConfig.HudConfig hud = config.HUD;
+        String font = config.FONT;
+        int fontSize = hud.FONT_SIZE;
+        int tripInfoX = hud.TRIP_INFO_X;
+        int tripInfoY = hud.TRIP_INFO_Y;
+
+        EARNINGS = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.earnings"),
+                value -> String.format("%.02f", value),
+                hud.EARNINGS_X, hud.EARNINGS_Y);
+        TARGET = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.target"),
+                value -> String.format("%.02f", value),
+                hud.TARGET_X, hud.TARGET_Y);
+        TARGET.setValue(config.TARGET);
+        REMAINING_FRAMES = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.remFrames"),
+                value -> String.valueOf((int) value),
+                hud.MAX_FRAMES_X, hud.MAX_FRAMES_Y);
+        COIN_FRAMES = new HudLine(font, fontSize, "", value -> String.valueOf(Math.round(value)),
+                hud.COIN_X, hud.COIN_Y);
+
+        DRIVER_HEALTH = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.driverHealth"),
+                GameHud::formatHealth,
+                hud.DRIVER_HEALTH_X, hud.DRIVER_HEALTH_Y);
+        TAXI_HEALTH = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.taxiHealth"),
+                GameHud::formatHealth,
+                hud.TAXI_HEALTH_X, hud.TAXI_HEALTH_Y);
+        PASSENGER_HEALTH = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.passengerHealth"),
+                GameHud::formatHealth,
+                hud.PASSENGER_HEALTH_X, hud.PASSENGER_HEALTH_Y);
+
+        COMPLETED_TRIP_TITLE = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.completedTrip.title"),
+                null, tripInfoX, tripInfoY);
+        ONGOING_TRIP_TITLE = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.onGoingTrip.title"),
+                null, tripInfoX, tripInfoY);
+        EXPECTED_FEE = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.trip.expectedEarning"),
+                value -> String.valueOf((float) value), tripInfoX, tripInfoY + TRIP_INFO_OFFSET_1);
+        PRIORITY = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.trip.priority"),
+                value -> String.valueOf((int) value), tripInfoX, tripInfoY + TRIP_INFO_OFFSET_2);
+        PENALTY = new HudLine(font, fontSize, msgProps.getProperty("gamePlay.trip.penalty"),
+                value -> String.format("%.02f", value), tripInfoX, tripInfoY + TRIP_INFO_OFFSET_3);
+    }
+
+    /**
+     * Draw the health of the driver, the taxi and a passenger.
+     * @param renderer the Renderer to draw with
+     * @param driver the driver
+     * @param taxi the active taxi
+     * @param passenger the passenger whose health is shown, or null if no passenger is shown
+     */
+    public void renderHealth(Renderer renderer, Driver driver, Taxi taxi, Passenger passenger) {
+        DRIVER_HEALTH.setValue(driver.getHealth());
+        DRIVER_HEALTH.render(renderer);
+        TAXI_HEALTH.setValue(taxi.getHealth());
+        TAXI_HEALTH.render(renderer);
+        if (passenger != null) {
+            PASSENGER_HEALTH.setValue(passenger.getHealth());
+            PASSENGER_HEALTH.render(renderer);
+        }
+    }
+
+    /**
+     * Draw the game information.
+     * @param renderer the Renderer to draw with
+     * @param totalEarnings the earnings so far
+     * @param remainingFrames the number of frames left in the game
+     * @param coinFrames the number of frames the active coin has been active for, or a negative number to hide it
+     * @param lastTrip the last trip of the driver, or null if there has been no trip yet
+     */
+    public void renderInfo(Renderer renderer, float totalEarnings, int remainingFrames, float coinFrames,
+                           Trip lastTrip) {
+        EARNINGS.setValue(totalEarnings);
+        EARNINGS.render(renderer);
+        TARGET.render(renderer);
+        REMAINING_FRAMES.setValue(remainingFrames);
+        REMAINING_FRAMES.render(renderer);
+
+        if (coinFrames >= 0) {
+            COIN_FRAMES.setValue(coinFrames);
+            COIN_FRAMES.render(renderer);
+        }
+
+        if (lastTrip != null) {
+            if (lastTrip.isComplete()) {
+                COMPLETED_TRIP_TITLE.render(renderer);
+            } else {
+                ONGOING_TRIP_TITLE.render(renderer);
+            }
+
+            TravelPlan travelPlan = lastTrip.getPassenger().getTravelPlan();
+            EXPECTED_FEE.setValue(travelPlan.getExpectedFee());
+            EXPECTED_FEE.render(renderer);
+            PRIORITY.setValue(travelPlan.getPriority());
+            PRIORITY.render(renderer);
+            if (lastTrip.isComplete()) {
+                PENALTY.setValue(lastTrip.getPenalty());
+                PENALTY.render(renderer);
+            }
+        }
+    }
+
+    private static String formatHealth(double health) {
+        return String.format("%.1f", Math.abs(health * HEALTH_DISPLAY_FACTOR));
+    }
+}
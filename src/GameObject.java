@@ -1,48 +1,142 @@
-import java.util.Properties;
-import bagel.*;
+import java.nio.ByteBuffer;
 
 /**
  * Abstract Class representing all GameObjects in the game. A class is a gameObject if it has associated x,y
- * coordinates and an Image
+ * coordinates and an Image.
+ * The position and radius of a GameObject live in the EntityStore of its world, in the row given by its id.
+ * Positions are on the road, in world coordinates, and the camera of the world turns them into screen positions.
+ * The state of a GameObject can be written to a save state and read back into a new GameObject of the same kind, so
+ * a game play can be resumed. Game objects that refer to other game objects leave the references to the game play.
  */
 public abstract class GameObject {
-    protected final Properties GAME_PROPS;
-    private int x;
-    private int y;
-    protected final Image IMAGE;
-    protected final double RADIUS;
-
-    public GameObject(Properties properties, int x, int y, Image image, double radius) {
-        this.GAME_PROPS = properties;
-        this.x = x;
-        this.y = y;
+    protected final GameWorld WORLD;
+    protected final GameConfig CONFIG;
+    protected final EntityStore ENTITIES;
+    protected final int ID;
+    protected final String IMAGE;
+
+    public GameObject(GameWorld world, int x, int y, String image, double radius) {
+        this.WORLD = world;
+        this.CONFIG = world.CONFIG;
+        this.ENTITIES = world.ENTITIES;
+        this.ID = ENTITIES.create(x, y, radius);
         this.IMAGE = image;
-        this.RADIUS = radius;
     }
 
-    protected abstract void update(Input input);
+    protected abstract void update(InputState input);
+
+    /**
+     * Check if the GameObject can skip its update while it is far from the screen, because its update does nothing
+     * until the taxi or the driver comes near it.
+     * @return true if the GameObject can sleep, false by default
+     */
+    public boolean canSleep() {
+        return false;
+    }
+
+    /**
+     * Draw the GameObject between its position before the last tick and its current position, unless it is too far
+     * from the screen to show.
+     * @param renderer the Renderer to draw with
+     */
+    protected void render(Renderer renderer) {
+        if (isVisible()) {
+            renderer.drawImage(IMAGE, getRenderX(), getRenderY());
+        }
+    }
+
+    /**
+     * Check if a draw at the render position of the GameObject can show on the screen. Each call counts as a draw
+     * made or culled.
+     * @return true if the draw has to be made
+     */
+    protected boolean isVisible() {
+        return WORLD.CULLER.isVisible(getRenderY());
+    }
+
+    /**
+     * Write the state of the GameObject to a save state. Subclasses with state of their own write it after this.
+     * @param out the buffer to write to
+     */
+    public void saveState(ByteBuffer out) {
+        ENTITIES.saveRow(ID, out);
+    }
 
-    protected void draw() {
-        IMAGE.draw(x, y);
+    /**
+     * Read the state written by saveState into this GameObject, which was created for the game play being restored.
+     * @param in the buffer to read from
+     */
+    public void restoreState(ByteBuffer in) {
+        ENTITIES.restoreRow(ID, in);
+    }
+
+    /**
+     * Remove this GameObject from its world. It must not be used afterwards.
+     */
+    public void destroy() {
+        ENTITIES.destroy(ID);
+    }
+
+    /**
+     * Get the distance between the centres of this GameObject and another one.
+     * @param other the other GameObject
+     * @return the distance between the GameObjects
+     */
+    public double distanceTo(GameObject other) {
+        return ENTITIES.distance(ID, other.ID);
     }
 
     public int getX() {
-        return x;
+        return ENTITIES.getX(ID);
     }
 
     public int getY() {
-        return y;
+        return ENTITIES.getY(ID);
     }
 
     public void setX(int x) {
-        this.x = x;
+        ENTITIES.setX(ID, x);
     }
 
     public void setY(int y) {
-        this.y = y;
+        ENTITIES.setY(ID, y);
+    }
+
+    /**
+     * Move the GameObject to a new position without drawing it in between.
+     * @param x the new x coordinate
+     * @param y the new y coordinate
+     */
+    public void placeAt(int x, int y) {
+        ENTITIES.place(ID, x, y);
+    }
+
+    /**
+     * Get the y coordinate of the GameObject on the screen rather than on the road.
+     * @return the y coordinate on the screen
+     */
+    public int getScreenY() {
+        return WORLD.CAMERA.toScreenY(getY());
+    }
+
+    public double getRenderX() {
+        return ENTITIES.getRenderX(ID);
+    }
+
+    /**
+     * Get the y coordinate to draw the GameObject at on the screen, between its position before and after the last
+     * tick and moved by the scroll of the camera.
+     * @return the y coordinate on the screen
+     */
+    public double getRenderY() {
+        return ENTITIES.getRenderY(ID) + WORLD.CAMERA.getRenderScrollY();
     }
 
     public double getRADIUS() {
-        return RADIUS;
+        return ENTITIES.getRadius(ID);
+    }
+
+    public int getId() {
+        return ID;
     }
-}
\ No newline at end of file
+}
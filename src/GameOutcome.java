@@ -0,0 +1,13 @@
+/**
+ * GameOutcome is an enum class that contains the ways a game play can end.
+ */
+public enum GameOutcome {
+    // the target earnings were reached
+    WON,
+    // the game ran out of frames
+    OUT_OF_TIME,
+    DRIVER_DIED,
+    PASSENGER_DIED,
+    // a new taxi left the screen before the driver got in
+    TAXI_LOST
+}
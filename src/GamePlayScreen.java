@@ -4,15 +4,19 @@
  * Modifications have been made to implement new introduced classes.
  */
 
-import bagel.Font;
-import bagel.Input;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Represents the gameplay screen in the game.
  */
 public class GamePlayScreen{
-    private final Properties GAME_PROPS;
+    // written to a save state in place of the position of a power-up that was removed from its list, followed by it
+    private static final int REMOVED = -2;
+
+    private final GameConfig CONFIG;
+    private final GameWorld WORLD;
     private final Properties MSG_PROPS;
 
     // keep track of earning and coin timeout
@@ -22,173 +26,524 @@ public class GamePlayScreen{
     private int currFrame = 0;
     private int finalBloodFrame = -1;
 
-    // game objects
-    private final static int TAXI_SPAWN_Y_MAX = 400;
-    private final static int TAXI_SPAWN_Y_MIN = 200;
+    // game objects. Their state and the state of the game play can be saved with saveState and restored by the
+    // restoring constructor, so a game play can be resumed from a checkpoint.
     private GameObject taxi;
     private ArrayList<GameObject> deadTaxis = new ArrayList<>();
     private GameObject driver;
-    private GameObject[] passengers;
-    private GameObject[] coins;
-    private GameObject[] stars;
     private Background background1;
     private Background background2;
 
+    // the passengers, coins and stars are created as the road scrolls towards them and removed after they leave.
+    // Each list is kept in the order of the game objects file, the orders hold the position of each object in it.
+    private LevelStream level;
+    private final List<GameObject> passengers = new ArrayList<>();
+    private final List<GameObject> coins = new ArrayList<>();
+    private final List<GameObject> stars = new ArrayList<>();
+    private final IntList passengerOrders = new IntList();
+    private final IntList coinOrders = new IntList();
+    private final IntList starOrders = new IntList();
+    private final int LEVEL_RETIRE_Y;
+    // other cars and enemy cars are removed once they are further than this above or below the lines they spawn on
+    private final int NPC_RETIRE_MIN_Y;
+    private final int NPC_RETIRE_MAX_Y;
+    private boolean hasRained;
+
     private List<GameObject> otherCars = new ArrayList<>();
     private List<GameObject> enemyCars = new ArrayList<>();
-    private final static int SPAWN_RATE = 200;
-    private final static int ENEMY_SPAWN_RATE = 400;
+
+    // collision broadphase
+    private final SpatialHash PASSENGER_GRID;
+    private final SpatialHash OTHER_CAR_GRID;
+    private final SpatialHash ENEMY_CAR_GRID;
+    private final SpatialHash POWER_UP_GRID;
+    private final IntList candidates = new IntList();
+    private final IntList impactingPassengers = new IntList();
+    private final IntList impactingOtherCars = new IntList();
+    private final IntList impactingEnemyCars = new IntList();
+    private int[] passengerTimeOuts = new int[0];
 
     private final float TARGET;
     private final int MAX_FRAMES;
 
-    // vars for save score into the file
+    // vars for save score into the file, the score writer is null when scores are not saved
     private final String PLAYER_NAME;
+    private final ScoreWriter SCORES;
     private boolean savedData;
 
     // display text vars
-    private final Font INFO_FONT;
-    private final int EARNINGS_Y;
-    private final int EARNINGS_X;
-    private final int COIN_X;
-    private final int COIN_Y;
-    private final int TARGET_X;
-    private final int TARGET_Y;
-    private final int MAX_FRAMES_X;
-    private final int MAX_FRAMES_Y;
+    private final GameHud HUD;
     private final int MIN_SCREEN_Y = -50;
     private final int MAX_SCREEN_Y;
 
-    private final int TRIP_INFO_X;
-    private final int TRIP_INFO_Y;
-    private final int TRIP_INFO_OFFSET_1;
-    private final int TRIP_INFO_OFFSET_2;
-    private final int TRIP_INFO_OFFSET_3;
-
-    private ArrayList<WeatherCondition> weatherConditions = new ArrayList<>();
+    private final List<WeatherCondition> weatherConditions;
     private String currentWeather;
 
-    public GamePlayScreen(Properties gameProps, Properties msgProps, String playerName) {
-        this.GAME_PROPS = gameProps;
+    private FrameProfiler profiler;
+
+    public GamePlayScreen(GameConfig config, Properties msgProps, String playerName, ScoreWriter scores) {
+        this(config, msgProps, playerName, GameRandom.newSeed(), scores);
+    }
+
+    /**
+     * Start a game play whose random events are drawn from a given seed, so it can be played again the same way.
+     * @param config the game configuration
+     * @param msgProps the messages shown on screen
+     * @param playerName the name the score is saved under
+     * @param seed the seed of the random streams of the game play
+     * @param scores the writer the score is saved with, or null to not save the score
+     */
+    public GamePlayScreen(GameConfig config, Properties msgProps, String playerName, long seed, ScoreWriter scores) {
+        this(config, msgProps, playerName, seed, Level.load(config), scores);
+    }
+
+    /**
+     * Start a game play on a level that is already loaded. Levels are only read, so game plays running at the same
+     * time can share one.
+     * @param config the game configuration
+     * @param msgProps the messages shown on screen
+     * @param playerName the name the score is saved under
+     * @param seed the seed of the random streams of the game play
+     * @param gameLevel the level to play
+     * @param scores the writer the score is saved with, or null to not save the score
+     */
+    GamePlayScreen(GameConfig config, Properties msgProps, String playerName, long seed, Level gameLevel,
+                   ScoreWriter scores) {
+        this.CONFIG = config;
+        this.WORLD = new GameWorld(config, seed);
         this.MSG_PROPS = msgProps;
 
-        // read game objects from file and weather file and populate the game objects and weather conditions
-        ArrayList<String[]> lines = IOUtils.readCommaSeperatedFile(gameProps.getProperty("gamePlay.objectsFile"));
-
-        loadWeatherConditions();
-        populateGameObjects(lines);
-
-        this.TARGET = Float.parseFloat(gameProps.getProperty("gamePlay.target"));
-        this.MAX_FRAMES = Integer.parseInt(gameProps.getProperty("gamePlay.maxFrames"));
-
-        // display text vars
-        INFO_FONT = new Font(gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize")));
-        EARNINGS_Y = Integer.parseInt(gameProps.getProperty("gamePlay.earnings.y"));
-        EARNINGS_X = Integer.parseInt(gameProps.getProperty("gamePlay.earnings.x"));
-        COIN_X = Integer.parseInt(gameProps.getProperty("gameplay.coin.x"));
-        COIN_Y = Integer.parseInt(gameProps.getProperty("gameplay.coin.y"));
-        TARGET_X = Integer.parseInt(gameProps.getProperty("gamePlay.target.x"));
-        TARGET_Y = Integer.parseInt(gameProps.getProperty("gamePlay.target.y"));
-        MAX_FRAMES_X = Integer.parseInt(gameProps.getProperty("gamePlay.maxFrames.x"));
-        MAX_FRAMES_Y = Integer.parseInt(gameProps.getProperty("gamePlay.maxFrames.y"));
-        MAX_SCREEN_Y = Integer.parseInt(gameProps.getProperty("window.height"));
-
-        // current trip info vars
-        TRIP_INFO_X = Integer.parseInt(gameProps.getProperty("gamePlay.tripInfo.x"));
-        TRIP_INFO_Y = Integer.parseInt(gameProps.getProperty("gamePlay.tripInfo.y"));
-        TRIP_INFO_OFFSET_1 = 30;
-        TRIP_INFO_OFFSET_2 = 60;
-        TRIP_INFO_OFFSET_3 = 90;
+        // populate the game objects and weather conditions of the level
+        weatherConditions = gameLevel.getWeatherConditions();
+        populateGameObjects(gameLevel);
+
+        // the grid cells are as wide as the largest collision diameter
+        double cellSize = 2 * getLargestRadius(config);
+        PASSENGER_GRID = new SpatialHash(cellSize);
+        OTHER_CAR_GRID = new SpatialHash(cellSize);
+        ENEMY_CAR_GRID = new SpatialHash(cellSize);
+        POWER_UP_GRID = new SpatialHash(cellSize);
+
+        this.TARGET = config.TARGET;
+        this.MAX_FRAMES = config.MAX_FRAMES;
+
+        HUD = new GameHud(config, msgProps);
+        profiler = new FrameProfiler(config.FONT);
+        MAX_SCREEN_Y = config.WINDOW_HEIGHT;
+        LEVEL_RETIRE_Y = config.WINDOW_HEIGHT + config.LEVEL_RETIRE_MARGIN;
+        NPC_RETIRE_MIN_Y = NPC.MIN_Y - config.NPC_RETIRE_MARGIN;
+        NPC_RETIRE_MAX_Y = NPC.MAX_Y + config.NPC_RETIRE_MARGIN;
 
         this.PLAYER_NAME = playerName;
+        this.SCORES = scores;
+    }
+
+    /**
+     * Resume a game play from a save state, on the level it was saved on. The game play goes on from the tick after
+     * the state was saved and draws the random numbers it would have drawn, so with the same input it plays out the
+     * same way as if it had never stopped.
+     * @param config the game configuration, the same as when the state was saved
+     * @param msgProps the messages shown on screen
+     * @param state the save state
+     * @param gameLevel the level to play
+     * @param scores the writer the score is saved with, or null to not save the score
+     * @throws IllegalArgumentException if the state was saved on another level
+     */
+    GamePlayScreen(GameConfig config, Properties msgProps, SaveState state, Level gameLevel, ScoreWriter scores) {
+        this(config, msgProps, state.PLAYER_NAME, state.SEED, gameLevel, scores);
+        restoreState(state.getBody());
     }
 
     /**
-     * Populate the game objects from the lines read from the game objects file.
-     * @param lines list of lines read from the game objects file. lines are processed into String arrays using comma as
-     *             delimiter.
+     * Populate the game objects of the level. The taxi and the driver are created now, the passengers, coins and
+     * stars are handed to the level stream.
+     * @param gameLevel the level of the game
      */
-    private void populateGameObjects(ArrayList<String[]> lines) {
+    private void populateGameObjects(Level gameLevel) {
 
         // two background images stacked in y-axis are used to create a scrolling effect
-        background1 = new Background(
-                Integer.parseInt(GAME_PROPS.getProperty("window.width")) / 2,
-                Integer.parseInt(GAME_PROPS.getProperty("window.height")) / 2,
-                GAME_PROPS);
-        background2 = new Background(
-                Integer.parseInt(GAME_PROPS.getProperty("window.width")) / 2,
-                -1 * Integer.parseInt(GAME_PROPS.getProperty("window.height")) / 2,
-                GAME_PROPS);
-
-        int passengerCount = 0;
-        int coinCount = 0;
-        int starCount = 0;
-        for(String[] lineElement: lines) {
-            if(lineElement[0].equals(GameObjectType.PASSENGER.name())) {
-                passengerCount++;
-            } else if(lineElement[0].equals(GameObjectType.COIN.name())) {
-                coinCount++;
-            } else if(lineElement[0].equals(GameObjectType.INVINCIBLE_POWER.name())) {
-                starCount++;
+        background1 = new Background(CONFIG.WINDOW_WIDTH / 2, CONFIG.WINDOW_HEIGHT / 2, CONFIG, WORLD.CAMERA);
+        background2 = new Background(CONFIG.WINDOW_WIDTH / 2, -1 * CONFIG.WINDOW_HEIGHT / 2, CONFIG, WORLD.CAMERA);
+
+        LevelEntry taxiEntry = gameLevel.getTaxi();
+        LevelEntry driverEntry = gameLevel.getDriver();
+        taxi = new Taxi(taxiEntry.X, taxiEntry.Y, this.WORLD);
+        driver = new Driver(driverEntry.X, driverEntry.Y, (Taxi) taxi, gameLevel.getPassengerCount(), this.WORLD);
+        level = new LevelStream(gameLevel, CONFIG, WORLD.CAMERA);
+
+        // The driver begins the game in the taxi
+        ((Taxi) taxi).setDriver((Driver) driver);
+        ((Taxi) taxi).setDriverOnBoard(true);
+    }
+
+    /**
+     * Create the passengers, coins and stars that the road has scrolled into the look-ahead window above the screen.
+     * Umbrella passengers get the priority set by earlier rain.
+     */
+    private void spawnLevelObjects() {
+        LevelEntry entry;
+        while((entry = level.poll()) != null) {
+            int y = entry.Y;
+            if(entry.TYPE == GameObjectType.PASSENGER) {
+                Passenger passenger = new Passenger(entry.X, y, (Driver) driver, entry.PRIORITY, entry.END_X,
+                        entry.END_Y, entry.HAS_UMBRELLA, WORLD);
+                if(hasRained && passenger.hasUmbrella()) {
+                    passenger.getTravelPlan().setPriority(1);
+                }
+                addInLevelOrder(passengers, passengerOrders, passenger, entry.ORDER);
+                GameEvents.spawn(currFrame, "PASSENGER", passenger);
+            } else if(entry.TYPE == GameObjectType.COIN) {
+                Coin coinPower = new Coin(entry.X, y, this.WORLD);
+                addInLevelOrder(coins, coinOrders, coinPower, entry.ORDER);
+                GameEvents.spawn(currFrame, "COIN", coinPower);
+            } else if(entry.TYPE == GameObjectType.INVINCIBLE_POWER) {
+                Star starPower = new Star(entry.X, y, this.WORLD);
+                addInLevelOrder(stars, starOrders, starPower, entry.ORDER);
+                GameEvents.spawn(currFrame, "INVINCIBLE_POWER", starPower);
             }
         }
-        passengers = new GameObject[passengerCount];
-        coins = new GameObject[coinCount];
-        stars = new GameObject[starCount];
-
-        // process each line in the file
-        int passenger_idx = 0;
-        int coin_idx = 0;
-        int star_idx = 0;
-        for(String[] lineElement: lines) {
-            int x = Integer.parseInt(lineElement[1]);
-            int y = Integer.parseInt(lineElement[2]);
-
-            if(lineElement[0].equals(GameObjectType.TAXI.name())) {
-                taxi = new Taxi(x, y, this.GAME_PROPS);
-            } else if(lineElement[0].equals(GameObjectType.DRIVER.name())) {
-                driver = new Driver(x, y, (Taxi) taxi, passengerCount, this.GAME_PROPS);
-            } else if(lineElement[0].equals(GameObjectType.PASSENGER.name())) {
-                int priority = Integer.parseInt(lineElement[3]);
-                int travelEndX = Integer.parseInt(lineElement[4]);
-                int travelEndY = Integer.parseInt(lineElement[5]);
-                boolean hasUmbrella = (Integer.parseInt(lineElement[6]) == 1);
-
-                Passenger passenger = new Passenger(x, y, (Driver) driver, priority, travelEndX, travelEndY,
-                        hasUmbrella, GAME_PROPS);
-                passengers[passenger_idx] = passenger;
-                passenger_idx++;
-
-            } else if(lineElement[0].equals(GameObjectType.COIN.name())) {
-                Coin coinPower = new Coin(x, y, this.GAME_PROPS);
-                coins[coin_idx] = coinPower;
-                coin_idx++;
-
-            } else if(lineElement[0].equals(GameObjectType.INVINCIBLE_POWER.name())) {
-                Star starPower = new Star(x, y, this.GAME_PROPS);
-                stars[star_idx] = starPower;
-                star_idx++;
+    }
+
+    /**
+     * Remove the passengers, coins and stars that can no longer take part in the game play: waiting and delivered
+     * passengers and uncollected power-ups below the screen, and collected power-ups whose effect has ended.
+     * Objects that the driver or a trip still refers to are only removed from the lists, the others are destroyed.
+     */
+    private void retireLevelObjects() {
+        for(int i = passengers.size() - 1; i >= 0; i--) {
+            Passenger passenger = (Passenger) passengers.get(i);
+            if(passenger.getScreenY() > LEVEL_RETIRE_Y && !passenger.isDead()) {
+                if(passenger.isWaiting()) {
+                    passenger.destroy();
+                    removeAt(passengers, passengerOrders, i);
+                } else if(passenger.isDelivered()) {
+                    removeAt(passengers, passengerOrders, i);
+                }
+            }
+        }
+        retirePowerUps(coins, coinOrders);
+        retirePowerUps(stars, starOrders);
+
+        // wrecks only scroll down, so they never come back once they are below the screen. The wreck the current
+        // trip started in is kept, the trip still checks whether it is moving.
+        Trip trip = ((Driver) driver).getTrip();
+        for(int i = deadTaxis.size() - 1; i >= 0; i--) {
+            GameObject deadTaxi = deadTaxis.get(i);
+            if(deadTaxi.getScreenY() > LEVEL_RETIRE_Y && (trip == null || trip.getTaxi() != deadTaxi)) {
+                deadTaxi.destroy();
+                deadTaxis.remove(i);
             }
         }
+    }
 
-        // The driver begins the game in the taxi
-        ((Taxi) taxi).setDriver((Driver) driver);
-        ((Taxi) taxi).setDriverOnBoard(true);
+    private void retirePowerUps(List<GameObject> powerUps, IntList orders) {
+        for(int i = powerUps.size() - 1; i >= 0; i--) {
+            PowerUp powerUp = (PowerUp) powerUps.get(i);
+            if(powerUp.isCollided()) {
+                if(powerUp.getFramesActive() > powerUp.getMaxFrames()) {
+                    Driver currDriver = (Driver) driver;
+                    if(currDriver.getCoinPower() != powerUp && currDriver.getStarPower() != powerUp) {
+                        powerUp.destroy();
+                    }
+                    removeAt(powerUps, orders, i);
+                }
+            } else if(powerUp.getScreenY() > LEVEL_RETIRE_Y) {
+                powerUp.destroy();
+                removeAt(powerUps, orders, i);
+            }
+        }
     }
 
     /**
-     * Load weather conditions from the weather file.
+     * Add a new object to a list, keeping the list in the order of the game objects file.
+     * @param objects the list to add to
+     * @param orders the position in the game objects file of each object in the list
+     * @param object the object to add
+     * @param order the position of the object in the game objects file
      */
-    private void loadWeatherConditions() {
-        ArrayList<String[]> weatherData =
-                IOUtils.readCommaSeperatedFile(GAME_PROPS.getProperty("gamePlay.weatherFile"));
-        for (String[] line : weatherData) {
-            String condition = line[0];
-            int startFrame = Integer.parseInt(line[1]);
-            int endFrame = Integer.parseInt(line[2]);
-            weatherConditions.add(new WeatherCondition(condition, startFrame, endFrame));
+    private static void addInLevelOrder(List<GameObject> objects, IntList orders, GameObject object, int order) {
+        int index = orders.size();
+        while(index > 0 && orders.get(index - 1) > order) {
+            index--;
         }
+        objects.add(index, object);
+        orders.insert(index, order);
+    }
+
+    private static void removeAt(List<GameObject> objects, IntList orders, int index) {
+        objects.remove(index);
+        orders.remove(index);
+    }
+
+    /**
+     * Write the state of the game play to a save state: the counters of the game play, the camera, the position in
+     * the level, the random streams and every game object with the references between them. The spatial hashes and
+     * the other working lists are rebuilt every tick, so they are not saved.
+     * Game objects are written in lists and refer to each other by their position in the lists. The passengers
+     * whose trips the driver still keeps after they were removed from the game play are written after the others,
+     * and a power-up the driver still holds after it was removed is written where the driver refers to it.
+     * A wreck that has been removed is not written; only a finished trip can refer to one, and never uses it.
+     * @param out the buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void saveState(ByteBuffer out) {
+        level.saveState(out);
+        out.putInt(currFrame).putInt(finalBloodFrame).putFloat(totalEarnings).putFloat(coinFramesActive)
+                .put((byte) (hasRained ? 1 : 0)).put((byte) (savedData ? 1 : 0));
+        SaveState.putString(out, currentWeather);
+        WORLD.CAMERA.saveState(out);
+
+        // the taxi the driver is in comes first, then the wrecks
+        List<GameObject> taxis = new ArrayList<>(deadTaxis.size() + 1);
+        taxis.add(taxi);
+        taxis.addAll(deadTaxis);
+        out.putInt(taxis.size());
+        for (GameObject currTaxi : taxis) {
+            currTaxi.saveState(out);
+            out.put((byte) (((Taxi) currTaxi).getDriver() != null ? 1 : 0));
+        }
+        driver.saveState(out);
+
+        Driver currDriver = (Driver) driver;
+        List<GameObject> retiredPassengers = new ArrayList<>();
+        for (int i = 0; i < currDriver.getTripCount(); i++) {
+            Passenger passenger = currDriver.getTripAt(i).getPassenger();
+            if (!passengers.contains(passenger)) {
+                retiredPassengers.add(passenger);
+            }
+        }
+        saveObjects(passengers, passengerOrders, out);
+        saveObjects(retiredPassengers, null, out);
+        saveObjects(coins, coinOrders, out);
+        saveObjects(stars, starOrders, out);
+        saveObjects(otherCars, null, out);
+        saveObjects(enemyCars, null, out);
+
+        out.putInt(currDriver.getTripCount()).put((byte) (currDriver.getTrip() != null ? 1 : 0));
+        for (int i = 0; i < currDriver.getTripCount(); i++) {
+            Trip trip = currDriver.getTripAt(i);
+            out.putInt(indexOf(trip.getPassenger(), passengers, retiredPassengers));
+            out.putInt(taxis.indexOf(trip.getTaxi()));
+            trip.saveState(out);
+        }
+        out.putInt(taxis.indexOf(currDriver.getTaxi()));
+        out.putInt(indexOf(currDriver.getPassenger(), passengers, retiredPassengers));
+        savePowerUpRef(currDriver.getCoinPower(), coins, out);
+        savePowerUpRef(currDriver.getStarPower(), stars, out);
+        WORLD.RANDOM.saveState(out);
+    }
+
+    /**
+     * Read the state written by saveState into this game play, which has just been created on the same level with
+     * the same seed. The taxi and the driver it was created with are restored, every other game object is created
+     * again.
+     * @param in the buffer to read from
+     * @throws IllegalArgumentException if the state was saved on another level
+     */
+    private void restoreState(ByteBuffer in) {
+        level.restoreState(in);
+        currFrame = in.getInt();
+        finalBloodFrame = in.getInt();
+        totalEarnings = in.getFloat();
+        coinFramesActive = in.getFloat();
+        hasRained = in.get() != 0;
+        savedData = in.get() != 0;
+        currentWeather = SaveState.getString(in);
+        if (currentWeather != null) {
+            background1.update(currentWeather);
+            background2.update(currentWeather);
+        }
+        WORLD.CAMERA.restoreState(in);
+
+        Driver currDriver = (Driver) driver;
+        List<GameObject> taxis = new ArrayList<>();
+        int taxiCount = in.getInt();
+        for (int i = 0; i < taxiCount; i++) {
+            Taxi currTaxi = i == 0 ? (Taxi) taxi : new Taxi(0, 0, WORLD);
+            currTaxi.restoreState(in);
+            currTaxi.setDriver(in.get() != 0 ? currDriver : null);
+            taxis.add(currTaxi);
+        }
+        deadTaxis.addAll(taxis.subList(1, taxis.size()));
+        driver.restoreState(in);
+
+        List<GameObject> retiredPassengers = new ArrayList<>();
+        restoreObjects(passengers, passengerOrders, in, () -> restorePassenger(in));
+        restoreObjects(retiredPassengers, null, in, () -> restorePassenger(in));
+        restoreObjects(coins, coinOrders, in, () -> new Coin(0, 0, WORLD));
+        restoreObjects(stars, starOrders, in, () -> new Star(0, 0, WORLD));
+        restoreObjects(otherCars, null, in, () -> new OtherCar(WORLD, in.getInt()));
+        restoreObjects(enemyCars, null, in, () -> new EnemyCar(WORLD));
+
+        int tripCount = in.getInt();
+        boolean hasCurrentTrip = in.get() != 0;
+        for (int i = 0; i < tripCount; i++) {
+            Passenger passenger = (Passenger) getAt(in.getInt(), passengers, retiredPassengers);
+            Trip trip = new Trip(passenger, currDriver, WORLD);
+            trip.setTaxi((Taxi) getAt(in.getInt(), taxis, null));
+            trip.restoreState(in);
+            passenger.setTrip(trip);
+            currDriver.setTrip(trip);
+        }
+        // only the last trip can still be going on
+        if (!hasCurrentTrip) {
+            currDriver.setTrip(null);
+        }
+        currDriver.setTaxi((Taxi) getAt(in.getInt(), taxis, null));
+        currDriver.setPassenger((Passenger) getAt(in.getInt(), passengers, retiredPassengers));
+        currDriver.collectPower((Coin) restorePowerUpRef(coins, in, () -> new Coin(0, 0, WORLD)));
+        currDriver.collectPower((Star) restorePowerUpRef(stars, in, () -> new Star(0, 0, WORLD)));
+
+        // the random streams are restored last, as creating the other cars and enemy cars draws from them
+        WORLD.RANDOM.restoreState(in);
+    }
+
+    /**
+     * Write a list of game objects to a save state.
+     * @param objects the game objects
+     * @param orders the position of each game object in the game objects file, or null if they are not from the file
+     * @param out the buffer to write to
+     */
+    private static void saveObjects(List<GameObject> objects, IntList orders, ByteBuffer out) {
+        out.putInt(objects.size());
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject object = objects.get(i);
+            if (orders != null) {
+                out.putInt(orders.get(i));
+            }
+            if (object instanceof Passenger) {
+                // the travel plan the passenger was created with
+                Passenger passenger = (Passenger) object;
+                out.putInt(passenger.getTravelPlan().getEndX()).putInt(passenger.getTravelPlan().getDistanceY())
+                        .put((byte) (passenger.hasUmbrella() ? 1 : 0));
+            } else if (object instanceof OtherCar) {
+                out.putInt(((OtherCar) object).getImageNumber());
+            }
+            object.saveState(out);
+        }
+    }
+
+    /**
+     * Read a list of game objects written by saveObjects.
+     * @param objects the list to add the game objects to
+     * @param orders the list to add the position of each game object in the game objects file to, or null
+     * @param in the buffer to read from
+     * @param factory creates a game object of the kind in the list, reading what it is created with
+     */
+    private static void restoreObjects(List<GameObject> objects, IntList orders, ByteBuffer in,
+                                       Supplier<GameObject> factory) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            if (orders != null) {
+                orders.add(in.getInt());
+            }
+            GameObject object = factory.get();
+            object.restoreState(in);
+            objects.add(object);
+        }
+    }
+
+    private Passenger restorePassenger(ByteBuffer in) {
+        int endX = in.getInt();
+        int distanceY = in.getInt();
+        boolean hasUmbrella = in.get() != 0;
+        // the priority is restored with the rest of the travel plan
+        return new Passenger(0, 0, (Driver) driver, 0, endX, distanceY, hasUmbrella, WORLD);
+    }
+
+    /**
+     * Write a power-up the driver holds to a save state: its position in its list, or the power-up itself if it has
+     * been removed from the list.
+     * @param powerUp the power-up, or null if the driver holds none
+     * @param powerUps the list of power-ups of its kind
+     * @param out the buffer to write to
+     */
+    private static void savePowerUpRef(PowerUp powerUp, List<GameObject> powerUps, ByteBuffer out) {
+        int index = powerUps.indexOf(powerUp);
+        if (powerUp != null && index < 0) {
+            out.putInt(REMOVED);
+            powerUp.saveState(out);
+        } else {
+            out.putInt(index);
+        }
+    }
+
+    private static GameObject restorePowerUpRef(List<GameObject> powerUps, ByteBuffer in,
+                                                Supplier<GameObject> factory) {
+        int index = in.getInt();
+        if (index == REMOVED) {
+            GameObject powerUp = factory.get();
+            powerUp.restoreState(in);
+            return powerUp;
+        }
+        return index < 0 ? null : powerUps.get(index);
+    }
+
+    /**
+     * Find a game object in two lists, as if the second list followed the first.
+     * @return the position of the game object, or -1 if it is null or in neither list
+     */
+    private static int indexOf(GameObject object, List<GameObject> first, List<GameObject> second) {
+        if (object == null) {
+            return -1;
+        }
+        int index = first.indexOf(object);
+        if (index < 0 && second != null) {
+            index = second.indexOf(object);
+            return index < 0 ? -1 : first.size() + index;
+        }
+        return index;
+    }
+
+    private static GameObject getAt(int index, List<GameObject> first, List<GameObject> second) {
+        if (index < 0) {
+            return null;
+        }
+        return index < first.size() ? first.get(index) : second.get(index - first.size());
+    }
+
+    /**
+     * List the image files used by the game play, so they can be loaded before the game play starts.
+     * @param config the game configuration the image paths are read from
+     * @return the paths to the image files
+     */
+    public static List<String> getImageFiles(GameConfig config) {
+        List<String> imageFiles = new ArrayList<>(Arrays.asList(config.SUNNY_BACKGROUND, config.RAIN_BACKGROUND));
+        imageFiles.addAll(getSpriteFiles(config));
+        return imageFiles;
+    }
+
+    /**
+     * List the image files of the game objects, which are packed into the sprite atlas. The full screen backgrounds
+     * are left out, as they would take up most of the atlas.
+     * @param config the game configuration the image paths are read from
+     * @return the paths to the image files
+     */
+    public static List<String> getSpriteFiles(GameConfig config) {
+        List<String> imageFiles = new ArrayList<>(Arrays.asList(config.TAXI.IMAGE, config.TAXI.DAMAGED_IMAGE,
+                config.ENEMY_CAR.IMAGE, config.FIREBALL.IMAGE, config.SMOKE.IMAGE, config.FIRE.IMAGE,
+                config.BLOOD.IMAGE, config.PASSENGER.IMAGE, config.DRIVER.IMAGE, config.TRIP_END_FLAG.IMAGE,
+                config.INVINCIBLE_POWER.IMAGE, config.COIN.IMAGE));
+        for (int type = 1; type <= config.OTHER_CAR.TYPES; type++) {
+            imageFiles.add(config.OTHER_CAR.getImage(type));
+        }
+        return imageFiles;
+    }
+
+    /**
+     * Find the largest radius of the game objects that can collide.
+     * @param config the game configuration the radius of each game object is read from
+     * @return the largest radius
+     */
+    private static double getLargestRadius(GameConfig config) {
+        double[] radii = {config.TAXI.RADIUS, config.OTHER_CAR.RADIUS, config.ENEMY_CAR.RADIUS,
+                config.FIREBALL.RADIUS, config.PASSENGER.RADIUS, config.DRIVER.RADIUS, config.COIN.RADIUS,
+                config.INVINCIBLE_POWER.RADIUS};
+        double largestRadius = 0;
+        for (double radius : radii) {
+            largestRadius = Math.max(largestRadius, radius);
+        }
+        return largestRadius;
     }
 
     /**
@@ -209,55 +564,158 @@ public class GamePlayScreen{
      * Change the background image and change priorities based on the weather condition
      * Handle collision between game objects
      * Spawn new taxi if the active taxi is destroyed
+     * Nothing is drawn here, see render for the drawing of the game objects.
+     * Each call is one tick of the game play, the frame counts and the time to live of every object count ticks.
      * @param input Keyboard input
      * @return true if the game is finished, false otherwise
      */
-    public boolean update(Input input) {
+    public boolean update(InputState input) {
+        long tickStart = profiler.start();
+        GameEvents.Tick tickEvent = new GameEvents.Tick();
+        tickEvent.begin();
         currFrame++;
+        WORLD.ENTITIES.savePositions();
+        WORLD.CULLER.startTick();
+        scroll(input);
         updateWeather();
 
-        background1.update(input, background2, currentWeather);
-        background2.update(input, background1, currentWeather);
+        background1.update(currentWeather);
+        background2.update(currentWeather);
+        long start = profiler.lap(FrameProfiler.Phase.BACKGROUND, tickStart);
 
         // Update driver status
         driver.update(input);
-        ((Driver) driver).drawHealth(GAME_PROPS, MSG_PROPS);
+        start = profiler.lap(FrameProfiler.Phase.DRIVER, start);
+
+        // Create the objects the road has scrolled close to the screen
+        spawnLevelObjects();
+        start = profiler.lap(FrameProfiler.Phase.LEVEL_SPAWN, start);
 
         // Update passenger status
+        boolean isRaining = currentWeather.equals("RAINING");
         for(GameObject passenger: passengers) {
-            if (currentWeather.equals("RAINING") && ((Passenger) passenger).hasUmbrella()){
+            if (isRaining && ((Passenger) passenger).hasUmbrella()){
                 ((Passenger) passenger).getTravelPlan().setPriority(1);
             }
-            passenger.update(input);
-        }
-
-        // Draw the current or the lowest health passenger's health on screen
-        if(((Driver) driver).getPassenger() != null){
-            ((Driver) driver).getPassenger().drawHealth(GAME_PROPS, MSG_PROPS);
-        }else{
-            ((Passenger) getMinimumHealthPassenger()).drawHealth(GAME_PROPS,MSG_PROPS);
+            updateUnlessAsleep(passenger, input);
         }
+        hasRained = hasRained || isRaining;
+        start = profiler.lap(FrameProfiler.Phase.PASSENGERS, start);
 
         updateTaxi(input);
+        start = profiler.lap(FrameProfiler.Phase.TAXI, start);
         updatePowerUp(input);
+        start = profiler.lap(FrameProfiler.Phase.POWER_UPS, start);
         updateNPC(input);
+        start = profiler.lap(FrameProfiler.Phase.NPCS, start);
 
+        GameEvents.CollisionPass collisionEvent = new GameEvents.CollisionPass();
+        collisionEvent.begin();
         handleCollisions();
-        displayInfo();
+        if (collisionEvent.shouldCommit()) {
+            collisionEvent.frame = currFrame;
+            collisionEvent.npcs = otherCars.size() + enemyCars.size();
+            collisionEvent.passengers = passengers.size();
+            collisionEvent.commit();
+        }
+        start = profiler.lap(FrameProfiler.Phase.COLLISIONS, start);
+        retireLevelObjects();
+        profiler.lap(FrameProfiler.Phase.LEVEL_RETIRE, start);
 
         // End game if a person dies
         checkPersonDead();
+        boolean isFinished;
         if (finalBloodFrame > 0) {
             finalBloodFrame--;
-            return false;  // Ending game as soon as the blood has finished rendering
+            isFinished = false;  // Ending game as soon as the blood has finished rendering
+        } else {
+            totalEarnings = ((Driver) driver).calculateTotalEarnings();
+            isFinished = isGameOver() || isLevelCompleted() || (finalBloodFrame == 0) || isTaxiOffScreen();
+        }
+        profiler.lap(FrameProfiler.Phase.TICK, tickStart);
+        if (tickEvent.shouldCommit()) {
+            tickEvent.frame = currFrame;
+            tickEvent.entities = WORLD.getLiveEntityCount();
+            tickEvent.npcs = otherCars.size() + enemyCars.size();
+            tickEvent.passengers = passengers.size();
+            tickEvent.asleep = WORLD.CULLER.getAsleepCount();
+            tickEvent.finished = isFinished;
+            tickEvent.commit();
+        }
+        return isFinished;
+    }
+
+    /**
+     * Render the game objects and the game information in the order they are layered on the screen.
+     * Moving objects are drawn between their positions before and after the last tick, so the motion stays smooth
+     * when the frame rate is not the tick rate. The game objects are all on the ROAD layer, so a batching renderer
+     * draws the text of the passengers over the cars rather than between them.
+     * @param renderer the Renderer to draw with
+     * @param alpha how far the render pass is between the last tick and the next one, from 0 to 1
+     */
+    public void render(Renderer renderer, double alpha) {
+        WORLD.ENTITIES.setRenderAlpha(alpha);
+        WORLD.CAMERA.setRenderAlpha(alpha);
+        WORLD.CULLER.startRender();
+        renderer.setLayer(Renderer.Layer.BACKGROUND);
+        background1.render(renderer);
+        background2.render(renderer);
+
+        renderer.setLayer(Renderer.Layer.ROAD);
+        driver.render(renderer);
+        for(GameObject passenger: passengers) {
+            passenger.render(renderer);
+        }
+
+        taxi.render(renderer);
+        for(GameObject deadTaxi: deadTaxis) {
+            deadTaxi.render(renderer);
         }
 
-        totalEarnings = ((Driver) driver).calculateTotalEarnings();
+        for(GameObject coinPower: coins) {
+            coinPower.render(renderer);
+        }
+        for(GameObject starPower: stars) {
+            starPower.render(renderer);
+        }
+        for(GameObject car: otherCars) {
+            car.render(renderer);
+        }
+        for(GameObject enemy: enemyCars) {
+            enemy.render(renderer);
+        }
+
+        // Draw the current or the lowest health passenger's health on screen
+        long start = profiler.start();
+        renderer.setLayer(Renderer.Layer.HUD);
+        Passenger shownPassenger = ((Driver) driver).getPassenger();
+        if(shownPassenger == null){
+            shownPassenger = (Passenger) getMinimumHealthPassenger();
+        }
+        HUD.renderHealth(renderer, (Driver) driver, (Taxi) taxi, shownPassenger);
+        displayInfo(renderer);
+        profiler.lap(FrameProfiler.Phase.HUD, start);
+        profiler.setEntityCounts(WORLD.getLiveEntityCount(), otherCars.size() + enemyCars.size(), passengers.size());
+        ViewCuller culler = WORLD.CULLER;
+        profiler.setCullCounts(culler.getCulledCount(), culler.getDrawCount() + culler.getCulledCount(),
+                culler.getAsleepCount(), culler.getAwakeCount() + culler.getAsleepCount());
+    }
 
-        return isGameOver() || isLevelCompleted() || (finalBloodFrame == 0) || isTaxiOffScreen();
+    /**
+     * Scroll the road by moving the camera. Every game object keeps its place on the road except the taxi the driver
+     * is in, which stays in its place on the screen and is moved up the road with the camera. The driver and an
+     * ejected passenger follow it or walk on the screen in their own updates. Scrolling costs the same however many
+     * game objects are on the road.
+     * @param input the keyboard input
+     */
+    private void scroll(InputState input) {
+        WORLD.CAMERA.update(input);
+        if (((Taxi) taxi).isDriverOnBoard()) {
+            taxi.setY(taxi.getY() - WORLD.CAMERA.getScrollStep());
+        }
     }
 
-    private void updateTaxi(Input input){
+    private void updateTaxi(InputState input){
         // Update taxi status
         if (taxi != null) {
             taxi.update(input);
@@ -271,58 +729,90 @@ public class GamePlayScreen{
                 ((Driver) driver).setTaxi((Taxi) taxi);
                 ((Taxi) taxi).setDriver((Driver) driver);
             }
-            ((Taxi) taxi).drawHealth(GAME_PROPS, MSG_PROPS);
         }
         for(GameObject deadTaxi: deadTaxis) {
-            ((Taxi) deadTaxi).updateWithDriver(input);
+            ((Taxi) deadTaxi).updateAsWreck(input);
         }
     }
 
-    private void updatePowerUp(Input input){
+    private void updatePowerUp(InputState input){
         // Update each coin
-        if(coins.length > 0) {
-            int minFramesActive = ((Coin) coins[0]).getMaxFrames();
-            for(GameObject coinPower: coins) {
-                Coin currCoin = (Coin) coinPower;
-                coinPower.update(input);
-                currCoin.collide((Taxi) taxi);
-                currCoin.collide((Driver) driver);
-
-                // check if there's active coin and finding the coin with maximum ttl
-                int framesActive = currCoin.getFramesActive();
-                if(currCoin.getIsActive() && minFramesActive > framesActive) {
-                    minFramesActive = framesActive;
-                }
+        for(GameObject coinPower: coins) {
+            updateUnlessAsleep(coinPower, input);
+        }
+        collectPowerUps(coins);
+
+        int minFramesActive = CONFIG.COIN.MAX_FRAMES;
+        for(GameObject coinPower: coins) {
+            Coin currCoin = (Coin) coinPower;
+
+            // check if there's active coin and finding the coin with maximum ttl
+            int framesActive = currCoin.getFramesActive();
+            if(currCoin.getIsActive() && minFramesActive > framesActive) {
+                minFramesActive = framesActive;
             }
-            coinFramesActive = minFramesActive;
         }
+        coinFramesActive = minFramesActive;
 
         // Update each star
-        if(stars.length > 0) {
-            int minFramesActive = ((Star) stars[0]).getMaxFrames();
-            for(GameObject starPower: stars) {
-                starPower.update(input);
-                ((Star) starPower).collide((Taxi) taxi);
-                ((Star) starPower).collide((Driver) driver);
-
-                // check if there's active star and finding the star with maximum ttl
-                int framesActive = ((Star) starPower).getFramesActive();
-                if(((Star) starPower).getIsActive() && minFramesActive > framesActive) {
-                    minFramesActive = framesActive;
-                }
-            }
+        for(GameObject starPower: stars) {
+            updateUnlessAsleep(starPower, input);
+        }
+        collectPowerUps(stars);
+    }
+
+    /**
+     * Update a game object, unless it can sleep and is too far from the screen for its update to do anything.
+     * @param object the game object
+     * @param input the keyboard input
+     */
+    private void updateUnlessAsleep(GameObject object, InputState input) {
+        if (object.canSleep() && !WORLD.CULLER.isAwake(object.getScreenY())) {
+            return;
         }
+        object.update(input);
     }
 
-    private void updateNPC(Input input){
-        // Handle spawning of NPCs
-        if (MiscUtils.canSpawn(SPAWN_RATE)) {
-            OtherCar newCar = new OtherCar(GAME_PROPS);
+    /**
+     * Let the taxi and the driver collect the power-ups they are touching. Only the power-ups near the taxi or the
+     * driver are checked, in the order they appear in the array.
+     * @param powerUps the power-ups to check
+     */
+    private void collectPowerUps(List<GameObject> powerUps) {
+        POWER_UP_GRID.build(powerUps);
+        candidates.clear();
+        POWER_UP_GRID.query(taxi, candidates);
+        POWER_UP_GRID.query(driver, candidates);
+        candidates.sortUnique();
+
+        for(int c = 0; c < candidates.size(); c++) {
+            PowerUp powerUp = (PowerUp) powerUps.get(candidates.get(c));
+            powerUp.collide((Taxi) taxi);
+            powerUp.collide((Driver) driver);
+        }
+    }
+
+    /**
+     * Spawn, update and remove the other cars and enemy cars.
+     * A car only spawns while there are fewer than the maximum count of its kind on the road, so a long game play
+     * does not pile up cars. A car is removed once its fire has burnt out after it was destroyed, or once it is
+     * more than the retire margin above or below the lines cars spawn on.
+     * @param input the keyboard input
+     */
+    private void updateNPC(InputState input){
+        // Handle spawning of NPCs. The spawn chance is drawn even when the road is full, so the random events that
+        // follow do not depend on the maximum counts.
+        if (MiscUtils.canSpawn(WORLD.RANDOM.SPAWNING, CONFIG.OTHER_CAR.SPAWN_RATE)
+                && otherCars.size() < CONFIG.OTHER_CAR.MAX_COUNT) {
+            OtherCar newCar = new OtherCar(WORLD);
             otherCars.add(newCar);
+            GameEvents.spawn(currFrame, "OTHER_CAR", newCar);
         }
-        if (MiscUtils.canSpawn(ENEMY_SPAWN_RATE)) {
-            EnemyCar newEnemy = new EnemyCar(GAME_PROPS);
+        if (MiscUtils.canSpawn(WORLD.RANDOM.SPAWNING, CONFIG.ENEMY_CAR.SPAWN_RATE)
+                && enemyCars.size() < CONFIG.ENEMY_CAR.MAX_COUNT) {
+            EnemyCar newEnemy = new EnemyCar(WORLD);
             enemyCars.add(newEnemy);
+            GameEvents.spawn(currFrame, "ENEMY_CAR", newEnemy);
         }
 
         // Update other cars
@@ -330,7 +820,8 @@ public class GamePlayScreen{
         while (carIterator.hasNext()) {
             GameObject car = carIterator.next();
             car.update(input);
-            if (((OtherCar) car).isDamaged() && !((OtherCar) car).getFire().isActive()) {
+            if ((((OtherCar) car).isDamaged() && !((OtherCar) car).getFire().isActive()) || isBeyondNpcRetireY(car)) {
+                car.destroy();
                 carIterator.remove();
             }
         }
@@ -340,12 +831,18 @@ public class GamePlayScreen{
         while (enemyIterator.hasNext()) {
             GameObject enemy = enemyIterator.next();
             enemy.update(input);
-            if (((EnemyCar)enemy).isDamaged() && !((EnemyCar) enemy).getFire().isActive()) {
+            if ((((EnemyCar) enemy).isDamaged() && !((EnemyCar) enemy).getFire().isActive())
+                    || isBeyondNpcRetireY(enemy)) {
+                enemy.destroy();
                 enemyIterator.remove();
             }
         }
     }
 
+    private boolean isBeyondNpcRetireY(GameObject car) {
+        return car.getScreenY() < NPC_RETIRE_MIN_Y || car.getScreenY() > NPC_RETIRE_MAX_Y;
+    }
+
     /**
      * Find the passenger with the least amount of health
      */
@@ -366,132 +863,300 @@ public class GamePlayScreen{
     }
 
     /**
-     * Handle collision between entities
+     * Handle collision between entities.
+     * Passengers, other cars and enemy cars are bucketed into spatial hashes, so an entity is only checked against
+     * the entities near it. Entities that are still being pushed by an earlier impact are always checked, because the
+     * collision handlers move them even when nothing touches them. Only those entities move during this pass, so the
+     * buckets of every other entity stay correct. The pairs are visited in the same order as checking every pair,
+     * so the results are the same.
+     * This is package-private so the benchmarks can time a collision pass on its own.
      */
-    private void handleCollisions() {
+    void handleCollisions() {
         if (taxi == null) return;
 
+        PASSENGER_GRID.build(passengers);
+        OTHER_CAR_GRID.build(otherCars);
+        ENEMY_CAR_GRID.build(enemyCars);
+        findImpactingPersons(passengers, impactingPassengers);
+        findImpactingCars(otherCars, impactingOtherCars);
+        findImpactingCars(enemyCars, impactingEnemyCars);
+
         // Update fireballs and check for collisions with game objects
         for (GameObject enemyCar : enemyCars) {
             for (Fireball fireball : ((EnemyCar) enemyCar).getFireballs()) {
                 fireball.handleCollision((Driver) driver);
                 fireball.handleCollision((Taxi) taxi);
 
-                for (GameObject passenger : passengers) {
-                    fireball.handleCollision((Passenger) passenger);
+                findCandidates(PASSENGER_GRID, fireball, impactingPassengers);
+                for (int c = 0; c < candidates.size(); c++) {
+                    Passenger passenger = (Passenger) passengers.get(candidates.get(c));
+                    fireball.handleCollision(passenger);
+                    trackImpact(passenger, candidates.get(c), impactingPassengers);
                 }
 
-                for (GameObject car : otherCars) {
-                    fireball.handleCollision((OtherCar) car);
+                findCandidates(OTHER_CAR_GRID, fireball, impactingOtherCars);
+                for (int c = 0; c < candidates.size(); c++) {
+                    OtherCar car = (OtherCar) otherCars.get(candidates.get(c));
+                    fireball.handleCollision(car);
+                    trackImpact(car, candidates.get(c), impactingOtherCars);
                 }
 
-                for (GameObject car : enemyCars) {
+                findCandidates(ENEMY_CAR_GRID, fireball, impactingEnemyCars);
+                for (int c = 0; c < candidates.size(); c++) {
+                    EnemyCar car = (EnemyCar) enemyCars.get(candidates.get(c));
                     if (!car.equals(enemyCar)) {  // Skip checking collision with itself
-                        fireball.handleCollision((EnemyCar) car);
+                        fireball.handleCollision(car);
+                        trackImpact(car, candidates.get(c), impactingEnemyCars);
                     }
                 }
             }
         }
 
         // Check for collisions between the taxi and other cars
-        for (GameObject otherCar : otherCars) {
-            ((Taxi) taxi).handleCollision((OtherCar) otherCar);
-
-            ((OtherCar) otherCar).handleCollision((Driver) driver);
-            for(GameObject passenger: passengers){
-                ((OtherCar) otherCar).handleCollision((Passenger) passenger);
+        for (int i = 0; i < otherCars.size(); i++) {
+            OtherCar otherCar = (OtherCar) otherCars.get(i);
+            ((Taxi) taxi).handleCollision(otherCar);
+            otherCar.handleCollision((Driver) driver);
+
+            int lastVisited = -1;
+            findCandidates(PASSENGER_GRID, otherCar, impactingPassengers);
+            for (int c = 0; c < candidates.size(); c++) {
+                int j = candidates.get(c);
+                if (j <= lastVisited) continue;
+                int x = otherCar.getX();
+                int y = otherCar.getY();
+
+                Passenger passenger = (Passenger) passengers.get(j);
+                otherCar.handleCollision(passenger);
+                trackImpact(passenger, j, impactingPassengers);
+
+                // the neighbours of the car change if it was pushed, so look them up again
+                lastVisited = j;
+                if (otherCar.getX() != x || otherCar.getY() != y) {
+                    findCandidates(PASSENGER_GRID, otherCar, impactingPassengers);
+                    c = -1;
+                }
             }
+            trackImpact(otherCar, i, impactingOtherCars);
         }
 
-        // Check for collisions between the taxi and enemy cars
-        for (GameObject enemyCar : enemyCars) {
-            ((Taxi) taxi).handleCollision((EnemyCar) enemyCar);
-
-            ((EnemyCar) enemyCar).handleCollision((Driver) driver);
-            for(GameObject passenger: passengers){
-                ((EnemyCar) enemyCar).handleCollision((Passenger) passenger);
-                ((Passenger) passenger).handleCollisionTimeOut(); // update each passenger's collision timeout
+        // Check for collisions between the taxi and enemy cars. Every passenger counts down its collision timeout
+        // once per enemy car, the count downs for the enemy cars that are far away are done in one go.
+        if (passengerTimeOuts.length < passengers.size()) {
+            passengerTimeOuts = new int[passengers.size() * 2];
+        }
+        Arrays.fill(passengerTimeOuts, 0);
+        for (int k = 0; k < enemyCars.size(); k++) {
+            EnemyCar enemyCar = (EnemyCar) enemyCars.get(k);
+            ((Taxi) taxi).handleCollision(enemyCar);
+            enemyCar.handleCollision((Driver) driver);
+
+            int lastVisited = -1;
+            findCandidates(PASSENGER_GRID, enemyCar, impactingPassengers);
+            for (int c = 0; c < candidates.size(); c++) {
+                int j = candidates.get(c);
+                if (j <= lastVisited) continue;
+                int x = enemyCar.getX();
+                int y = enemyCar.getY();
+
+                Passenger passenger = (Passenger) passengers.get(j);
+                passenger.handleCollisionTimeOut(k - passengerTimeOuts[j]);
+                enemyCar.handleCollision(passenger);
+                trackImpact(passenger, j, impactingPassengers);
+                passenger.handleCollisionTimeOut(); // update each passenger's collision timeout
+                passengerTimeOuts[j] = k + 1;
+
+                lastVisited = j;
+                if (enemyCar.getX() != x || enemyCar.getY() != y) {
+                    findCandidates(PASSENGER_GRID, enemyCar, impactingPassengers);
+                    c = -1;
+                }
             }
+            trackImpact(enemyCar, k, impactingEnemyCars);
+        }
+        for (int j = 0; j < passengers.size(); j++) {
+            ((Passenger) passengers.get(j)).handleCollisionTimeOut(enemyCars.size() - passengerTimeOuts[j]);
         }
 
         // Check for collisions between other cars and enemy cars
-        for (GameObject otherCar : otherCars) {
-            for (GameObject enemyCar : enemyCars) {
-                ((OtherCar) otherCar).handleCollision((EnemyCar) enemyCar);
+        for (int i = 0; i < otherCars.size(); i++) {
+            OtherCar otherCar = (OtherCar) otherCars.get(i);
+
+            int lastVisited = -1;
+            findCandidates(ENEMY_CAR_GRID, otherCar, impactingEnemyCars);
+            for (int c = 0; c < candidates.size(); c++) {
+                int j = candidates.get(c);
+                if (j <= lastVisited) continue;
+                int x = otherCar.getX();
+                int y = otherCar.getY();
+
+                EnemyCar enemyCar = (EnemyCar) enemyCars.get(j);
+                otherCar.handleCollision(enemyCar);
+                trackImpact(enemyCar, j, impactingEnemyCars);
+
+                lastVisited = j;
+                if (otherCar.getX() != x || otherCar.getY() != y) {
+                    findCandidates(ENEMY_CAR_GRID, otherCar, impactingEnemyCars);
+                    c = -1;
+                }
             }
+            trackImpact(otherCar, i, impactingOtherCars);
         }
 
         // Check for collisions between other cars and other cars
-        for (int i = 0; i < otherCars.size(); i++) {
-            GameObject car1 = otherCars.get(i);
-            for (int j = i + 1; j < otherCars.size(); j++) {
-                GameObject car2 = otherCars.get(j);
-                ((OtherCar) car1).handleCollision((OtherCar) car2);
-            }
-            ((OtherCar) car1).handleCollisionTimeOut(); // update each otherCar's collision time out
-        }
+        handleCollisionsWithin(otherCars, OTHER_CAR_GRID, impactingOtherCars);
 
         // Check for collisions between enemy cars and enemy cars
-        for (int i = 0; i < enemyCars.size(); i++) {
-            GameObject car1 = enemyCars.get(i);
-            for (int j = i + 1; j < enemyCars.size(); j++) {
-                GameObject car2 = enemyCars.get(j);
-                ((EnemyCar) car1).handleCollision((EnemyCar) car2);
-            }
-            ((EnemyCar) car1).handleCollisionTimeOut(); // update each enemyCar's collision time out
-        }
+        handleCollisionsWithin(enemyCars, ENEMY_CAR_GRID, impactingEnemyCars);
 
         ((Taxi) taxi).handleCollisionTimeOut();
         ((Driver) driver).handleCollisionTimeOut();
     }
 
     /**
-     * Spawn a taxi randomly
+     * Handle the collisions between every pair of cars in a list, then update each car's collision timeout.
+     * @param cars the cars to check
+     * @param grid the spatial hash built from the cars
+     * @param impacting the indices of the cars that are still being pushed by an earlier impact
      */
-    private void spawnNewTaxi() {
-        int x = MiscUtils.selectAValue(NPC.LANE_POSITIONS[0], NPC.LANE_POSITIONS[2]);
-        int y = MiscUtils.getRandomInt(TAXI_SPAWN_Y_MIN, TAXI_SPAWN_Y_MAX);
-        taxi = new Taxi(x, y, GAME_PROPS);
+    private void handleCollisionsWithin(List<GameObject> cars, SpatialHash grid, IntList impacting) {
+        for (int i = 0; i < cars.size(); i++) {
+            Car car1 = (Car) cars.get(i);
+
+            int lastVisited = i;
+            findCandidates(grid, car1, impacting);
+            for (int c = 0; c < candidates.size(); c++) {
+                int j = candidates.get(c);
+                if (j <= lastVisited) continue;
+                int x = car1.getX();
+                int y = car1.getY();
+
+                Car car2 = (Car) cars.get(j);
+                car1.handleCollision(car2);
+                trackImpact(car2, j, impacting);
+
+                lastVisited = j;
+                if (car1.getX() != x || car1.getY() != y) {
+                    findCandidates(grid, car1, impacting);
+                    c = -1;
+                }
+            }
+            trackImpact(car1, i, impacting);
+            car1.handleCollisionTimeOut(); // update each car's collision time out
+        }
     }
 
     /**
-     * Display the game information on the screen.
+     * Collect the entities that should be checked against an object: the ones near it in the grid and the ones that
+     * are still being pushed by an earlier impact. The candidates are sorted in list order.
+     * @param grid the spatial hash to search
+     * @param object the object to find candidates for
+     * @param impacting the indices of the entities that are still being pushed by an earlier impact
      */
-    public void displayInfo() {
-        INFO_FONT.drawString(MSG_PROPS.getProperty("gamePlay.earnings") + getTotalEarnings(), EARNINGS_X, EARNINGS_Y);
-        INFO_FONT.drawString(MSG_PROPS.getProperty("gamePlay.target") + String.format("%.02f", TARGET), TARGET_X,
-                TARGET_Y);
-        INFO_FONT.drawString(MSG_PROPS.getProperty("gamePlay.remFrames") + (MAX_FRAMES - currFrame), MAX_FRAMES_X,
-                MAX_FRAMES_Y);
+    private void findCandidates(SpatialHash grid, GameObject object, IntList impacting) {
+        candidates.clear();
+        grid.query(object, candidates);
+        candidates.addAll(impacting);
+        candidates.sortUnique();
+    }
 
-        if(coins.length > 0 && ((Coin) coins[0]).getMaxFrames() != coinFramesActive) {
-            INFO_FONT.drawString(String.valueOf(Math.round(coinFramesActive)), COIN_X, COIN_Y);
+    private static void findImpactingPersons(List<GameObject> persons, IntList impacting) {
+        impacting.clear();
+        for (int i = 0; i < persons.size(); i++) {
+            trackImpact((Person) persons.get(i), i, impacting);
         }
+    }
 
-        Trip lastTrip = ((Driver) driver).getLastTrip();
-        if(lastTrip != null) {
-            if(lastTrip.isComplete()) {
-                INFO_FONT.drawString(MSG_PROPS.getProperty("gamePlay.completedTrip.title"), TRIP_INFO_X, TRIP_INFO_Y);
-            } else {
-                INFO_FONT.drawString(MSG_PROPS.getProperty("gamePlay.onGoingTrip.title"), TRIP_INFO_X, TRIP_INFO_Y);
-            }
-            INFO_FONT.drawString(MSG_PROPS.getProperty("gamePlay.trip.expectedEarning")
-                    + lastTrip.getPassenger().getTravelPlan().getExpectedFee(), TRIP_INFO_X, TRIP_INFO_Y
-                    + TRIP_INFO_OFFSET_1);
-            INFO_FONT.drawString(MSG_PROPS.getProperty("gamePlay.trip.priority")
-                    + lastTrip.getPassenger().getTravelPlan().getPriority(), TRIP_INFO_X, TRIP_INFO_Y
-                    + TRIP_INFO_OFFSET_2);
-            if(lastTrip.isComplete()) {
-                INFO_FONT.drawString(MSG_PROPS.getProperty("gamePlay.trip.penalty") + String.format("%.02f",
-                        lastTrip.getPenalty()), TRIP_INFO_X, TRIP_INFO_Y + TRIP_INFO_OFFSET_3);
-            }
+    private static void findImpactingCars(List<GameObject> cars, IntList impacting) {
+        impacting.clear();
+        for (int i = 0; i < cars.size(); i++) {
+            trackImpact((Car) cars.get(i), i, impacting);
         }
     }
 
+    private static void trackImpact(Person person, int index, IntList impacting) {
+        if (person.isInCollisionImpact()) {
+            impacting.add(index);
+        }
+    }
+
+    private static void trackImpact(Car car, int index, IntList impacting) {
+        if (car.isInCollisionImpact()) {
+            impacting.add(index);
+        }
+    }
+
+    /**
+     * Spawn a taxi randomly
+     */
+    private void spawnNewTaxi() {
+        int x = MiscUtils.selectAValue(WORLD.RANDOM.SPAWNING, CONFIG.getLaneCenter(0), CONFIG.getLaneCenter(CONFIG.getLaneCount() - 1));
+        int y = MiscUtils.getRandomInt(WORLD.RANDOM.SPAWNING, CONFIG.TAXI.NEXT_SPAWN_MIN_Y, CONFIG.TAXI.NEXT_SPAWN_MAX_Y);
+        taxi = new Taxi(x, WORLD.CAMERA.toWorldY(y), WORLD);
+        GameEvents.spawn(currFrame, "TAXI", taxi);
+    }
+
+    /**
+     * Display the game information on the screen.
+     * @param renderer the Renderer to draw with
+     */
+    public void displayInfo(Renderer renderer) {
+        // the coin timer is only shown while a coin is active
+        float coinFrames = -1;
+        if(CONFIG.COIN.MAX_FRAMES != coinFramesActive) {
+            coinFrames = coinFramesActive;
+        }
+        HUD.renderInfo(renderer, totalEarnings, MAX_FRAMES - currFrame, coinFrames, ((Driver) driver).getLastTrip());
+    }
+
     public String getTotalEarnings() {
         return String.format("%.02f", totalEarnings);
     }
 
+    public float getEarnings() {
+        return totalEarnings;
+    }
+
+    public GameWorld getWorld() {
+        return WORLD;
+    }
+
+    /**
+     * Get the number of ticks played so far.
+     * @return the tick count
+     */
+    public int getFrame() {
+        return currFrame;
+    }
+
+    public String getPlayerName() {
+        return PLAYER_NAME;
+    }
+
+    /**
+     * Time the phases of the game play with a profiler. Each game play has a disabled profiler of its own otherwise.
+     * @param profiler the profiler to time with
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Add an other car to the game play. This lets the benchmarks fill the road with a given number of cars.
+     * @param car the car to add, created in the world of this game play
+     */
+    void addOtherCar(OtherCar car) {
+        otherCars.add(car);
+    }
+
+    /**
+     * Add an enemy car to the game play. This lets the benchmarks fill the road with a given number of cars.
+     * @param car the car to add, created in the world of this game play
+     */
+    void addEnemyCar(EnemyCar car) {
+        enemyCars.add(car);
+    }
+
     /**
      * Check if the game is over. If the game is over and not saved the score, save the score.
      * @return true if the game is over, false otherwise.
@@ -500,8 +1165,7 @@ public class GamePlayScreen{
         // Game is over if the current frame is greater than the max frames
         boolean isGameOver = currFrame >= MAX_FRAMES;
         if(currFrame >= MAX_FRAMES && !savedData) {
-            savedData = true;
-            IOUtils.writeLineToFile(GAME_PROPS.getProperty("gameEnd.scoresFile"), PLAYER_NAME + "," + totalEarnings);
+            saveScore();
         }
         return isGameOver;
     }
@@ -514,8 +1178,7 @@ public class GamePlayScreen{
         // Level is completed if the total earnings is greater than or equal to the target earnings
         boolean isLevelCompleted = totalEarnings >= TARGET;
         if(isLevelCompleted && !savedData) {
-            savedData = true;
-            IOUtils.writeLineToFile(GAME_PROPS.getProperty("gameEnd.scoresFile"), PLAYER_NAME + "," + totalEarnings);
+            saveScore();
         }
         return isLevelCompleted;
     }
@@ -533,9 +1196,8 @@ public class GamePlayScreen{
         }
 
         if(isPersonDead && !savedData) {
-            savedData = true;
-            IOUtils.writeLineToFile(GAME_PROPS.getProperty("gameEnd.scoresFile"), PLAYER_NAME + "," + totalEarnings);
-            finalBloodFrame = Integer.parseInt(GAME_PROPS.getProperty("gameObjects.blood.ttl")) ;
+            saveScore();
+            finalBloodFrame = CONFIG.BLOOD.TTL;
         }
     }
 
@@ -544,14 +1206,40 @@ public class GamePlayScreen{
      * @return true if the taxi is off-screen, false otherwise.
      */
     public boolean isTaxiOffScreen() {
-        boolean isOffScreen = ((taxi.getY() < MIN_SCREEN_Y) || (taxi.getY() > MAX_SCREEN_Y))
+        boolean isOffScreen = ((taxi.getScreenY() < MIN_SCREEN_Y) || (taxi.getScreenY() > MAX_SCREEN_Y))
                 && !((Taxi) taxi).isDriverOnBoard();
 
 
         if(isOffScreen && !savedData) {
-            savedData = true;
-            IOUtils.writeLineToFile(GAME_PROPS.getProperty("gameEnd.scoresFile"), PLAYER_NAME + "," + totalEarnings);
+            saveScore();
         }
         return isOffScreen;
     }
+
+    /**
+     * Find out how the game play ended. Only meaningful once update has returned true.
+     * @return the outcome of the game play
+     */
+    public GameOutcome getOutcome() {
+        if (totalEarnings >= TARGET) {
+            return GameOutcome.WON;
+        }
+        if (finalBloodFrame == 0) {
+            return ((Driver) driver).isDead() ? GameOutcome.DRIVER_DIED : GameOutcome.PASSENGER_DIED;
+        }
+        if (currFrame >= MAX_FRAMES) {
+            return GameOutcome.OUT_OF_TIME;
+        }
+        return GameOutcome.TAXI_LOST;
+    }
+
+    /**
+     * Queue the score to be saved by the score writer, so the game play does not wait for the disk.
+     */
+    private void saveScore() {
+        savedData = true;
+        if (SCORES != null) {
+            SCORES.save(PLAYER_NAME, totalEarnings);
+        }
+    }
 }
@@ -0,0 +1,59 @@
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The random numbers of one game play session. Every session has a seed, and each subsystem draws from its own
+ * stream split off that seed, so a subsystem that draws more or fewer numbers does not change what the others get.
+ * The same seed and the same input play out the same game.
+ * The streams are not synchronized, they are only used by the thread that runs the game play. Their state can be
+ * saved and restored, so a game play resumed from a save state draws the numbers it would have drawn.
+ */
+public class GameRandom {
+    public final long SEED;
+    // where and when NPCs and new taxis appear, and which image an other car gets
+    public final RandomStream SPAWNING;
+    // the speeds of the NPCs
+    public final RandomStream SPEEDS;
+    // when enemy cars shoot fireballs
+    public final RandomStream FIREBALLS;
+    private final RandomStream[] STREAMS;
+
+    public GameRandom(long seed) {
+        this.SEED = seed;
+        // the streams are split off in a fixed order, so they only depend on the seed
+        RandomStream root = new RandomStream(seed);
+        this.SPAWNING = root.split();
+        this.SPEEDS = root.split();
+        this.FIREBALLS = root.split();
+        this.STREAMS = new RandomStream[] {SPAWNING, SPEEDS, FIREBALLS};
+    }
+
+    /**
+     * Write the state of every stream to a save state.
+     * @param out the buffer to write to
+     */
+    public void saveState(ByteBuffer out) {
+        for (RandomStream stream : STREAMS) {
+            out.putLong(stream.getSeed()).putLong(stream.getGamma());
+        }
+    }
+
+    public void restoreState(ByteBuffer in) {
+        for (RandomStream stream : STREAMS) {
+            stream.restore(in.getLong(), in.getLong());
+        }
+    }
+
+    /**
+     * Pick a seed for a session that does not need to be reproduced.
+     * @return a new seed
+     */
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    @Override
+    public String toString() {
+        return "random: seed=" + SEED;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * The state shared by every game object of one game play session: the game configuration, the store that holds
+ * the state of every entity, the camera that scrolls the road, the culler that skips the objects far from the screen,
+ * the random streams of the session, and the pools the short-lived effects and fireballs are taken from.
+ * A new world is created for every game.
+ */
+public class GameWorld {
+    public final GameConfig CONFIG;
+    public final EntityStore ENTITIES;
+    public final Camera CAMERA;
+    public final ViewCuller CULLER;
+    public final GameRandom RANDOM;
+    public final Pool<Smoke> SMOKE_POOL;
+    public final Pool<Fire> FIRE_POOL;
+    public final Pool<Blood> BLOOD_POOL;
+    public final Pool<Fireball> FIREBALL_POOL;
+
+    /**
+     * @param config the game configuration
+     * @param seed the seed of the random streams of the session
+     */
+    public GameWorld(GameConfig config, long seed) {
+        this.CONFIG = config;
+        this.ENTITIES = new EntityStore();
+        this.CAMERA = new Camera(config.TAXI.SPEED_Y);
+        this.CULLER = new ViewCuller(config);
+        this.RANDOM = new GameRandom(seed);
+        this.SMOKE_POOL = new Pool<>("smoke", config.SMOKE.POOL_SIZE,
+                () -> new Smoke(this, 0, 0), GameObject::destroy);
+        this.FIRE_POOL = new Pool<>("fire", config.FIRE.POOL_SIZE,
+                () -> new Fire(this, 0, 0), GameObject::destroy);
+        this.BLOOD_POOL = new Pool<>("blood", config.BLOOD.POOL_SIZE,
+                () -> new Blood(this, 0, 0), GameObject::destroy);
+        this.FIREBALL_POOL = new Pool<>("fireball", config.FIREBALL.POOL_SIZE,
+                () -> new Fireball(0, 0, this), GameObject::destroy);
+    }
+
+    /**
+     * Get the number of entities taking part in the game play. The pooled effects and fireballs keep their row of
+     * the entity store while they wait in their pool, so those rows are left out.
+     * @return the number of entities in use
+     */
+    public int getLiveEntityCount() {
+        return ENTITIES.getCount() - SMOKE_POOL.getFreeCount() - FIRE_POOL.getFreeCount()
+                - BLOOD_POOL.getFreeCount() - FIREBALL_POOL.getFreeCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(System.lineSeparator(), RANDOM.toString(), CAMERA.toString(), CULLER.toString(),
+                ENTITIES.toString(), SMOKE_POOL.toString(), FIRE_POOL.toString(),
+                BLOOD_POOL.toString(), FIREBALL_POOL.toString());
+    }
+}
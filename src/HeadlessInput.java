@@ -0,0 +1,41 @@
+import bagel.Keys;
+
+/**
+ * An InputState whose keys are set by code instead of a keyboard. Pressed and released events are derived from the
+ * difference between the key states of the current frame and the previous frame.
+ */
+public class HeadlessInput implements InputState {
+    private final boolean[] down = new boolean[Keys.values().length];
+    private final boolean[] previouslyDown = new boolean[Keys.values().length];
+
+    /**
+     * Set whether a key is held down in the current frame.
+     * @param key the key to set
+     * @param isDown true if the key is held down; false otherwise
+     */
+    public void setDown(Keys key, boolean isDown) {
+        down[key.ordinal()] = isDown;
+    }
+
+    /**
+     * Finish the current frame. Keys keep their state into the next frame until they are set again.
+     */
+    public void nextFrame() {
+        System.arraycopy(down, 0, previouslyDown, 0, down.length);
+    }
+
+    @Override
+    public boolean isDown(Keys key) {
+        return down[key.ordinal()];
+    }
+
+    @Override
+    public boolean wasPressed(Keys key) {
+        return down[key.ordinal()] && !previouslyDown[key.ordinal()];
+    }
+
+    @Override
+    public boolean wasReleased(Keys key) {
+        return !down[key.ordinal()] && previouslyDown[key.ordinal()];
+    }
+}
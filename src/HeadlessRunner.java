@@ -0,0 +1,158 @@
+import bagel.Keys;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Runs the game play without a window. The taxi is driven by a simple script or by a recorded replay, nothing is
+ * rendered, and the game plays as fast as the simulation allows. This is used for soak tests, balancing, regression
+ * runs and reproducing recorded game plays.
+ */
+public class HeadlessRunner implements AutoCloseable {
+    private final GameConfig CONFIG;
+    private final Properties MESSAGE_PROPS;
+    private final ScoreWriter SCORES;
+    private GameWorld lastWorld;
+    private String lastEarnings;
+    private boolean lastGameFinished;
+
+    public HeadlessRunner(GameConfig config, Properties messageProps) {
+        this.CONFIG = config;
+        this.MESSAGE_PROPS = messageProps;
+        this.SCORES = new ScoreWriter(
+                new Leaderboard(config.SCORES_FILE, config.TOP_SCORES_FILE, config.TOP_SCORES_COUNT),
+                config.SYNC_SCORES);
+    }
+
+    /**
+     * Save the scores still waiting and stop the score writer.
+     */
+    @Override
+    public void close() {
+        SCORES.close();
+    }
+
+    /**
+     * Play one game until it is finished, holding the UP key for the whole game.
+     * @param playerName The name the score is saved under.
+     * @param seed The seed of the random events of the game, the same seed plays the same game.
+     * @return the number of frames the game lasted.
+     */
+    public int playGame(String playerName, long seed) {
+        GamePlayScreen gamePlayScreen = new GamePlayScreen(CONFIG, MESSAGE_PROPS, playerName, seed, SCORES);
+        HeadlessInput input = new HeadlessInput();
+        input.setDown(Keys.UP, true);
+
+        int frames = 0;
+        boolean isFinished = false;
+        while (!isFinished) {
+            isFinished = gamePlayScreen.update(input);
+            input.nextFrame();
+            frames++;
+        }
+        lastWorld = gamePlayScreen.getWorld();
+        lastEarnings = gamePlayScreen.getTotalEarnings();
+        return frames;
+    }
+
+    /**
+     * Play a recorded game from the start of its replay, with the seed it was recorded with, until the game is
+     * finished or the replay runs out of ticks.
+     * @param replay The replay to play. It is rewound first.
+     * @return the number of frames played.
+     */
+    public int replayGame(ReplayInput replay) {
+        GamePlayScreen gamePlayScreen = new GamePlayScreen(CONFIG, MESSAGE_PROPS, "REPLAY", replay.SEED, SCORES);
+        replay.rewind();
+
+        int frames = 0;
+        boolean isFinished = false;
+        while (!isFinished && replay.hasNextTick()) {
+            replay.nextTick();
+            isFinished = gamePlayScreen.update(replay);
+            frames++;
+        }
+        lastWorld = gamePlayScreen.getWorld();
+        lastEarnings = gamePlayScreen.getTotalEarnings();
+        lastGameFinished = isFinished;
+        return frames;
+    }
+
+    /**
+     * Play a number of games back to back and print how fast the simulation ran.
+     * Scores are saved to a temporary file so the real leaderboard is left untouched.
+     * @param args the number of games to play, 1 by default, and the seed of the first game, random by default.
+     *             The next games are seeded with the following numbers. To play a replay file instead, pass replay,
+     *             the replay file and the number of times to play it, 1 by default.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("replay")) {
+            if (args.length < 2) {
+                System.err.println("Usage: HeadlessRunner replay <replay file> [times]");
+                System.exit(-1);
+            }
+            ReplayInput replay = new ReplayInput(Paths.get(args[1]));
+            int times = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+            HeadlessRunner runner = createRunner();
+
+            long totalFrames = 0;
+            int frames = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < times; i++) {
+                frames = runner.replayGame(replay);
+                totalFrames += frames;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("replay of %d ticks from seed %d played %d times, %d frames in %.2f s (%.0f frames/s)%n",
+                    replay.getTickCount(), replay.SEED, times, totalFrames, seconds, totalFrames / seconds);
+            if (runner.lastGameFinished) {
+                System.out.printf("the game finished after %d frames with earnings of %s%n", frames,
+                        runner.lastEarnings);
+            } else {
+                System.out.printf("the replay ended before the game finished, with earnings of %s%n",
+                        runner.lastEarnings);
+            }
+            System.out.println("World of the last game:");
+            System.out.println(runner.lastWorld);
+            runner.close();
+            return;
+        }
+
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : GameRandom.newSeed();
+
+        HeadlessRunner runner = createRunner();
+        long totalFrames = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            totalFrames += runner.playGame("HEADLESS", seed + i);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games from seed %d, %d frames in %.2f s (%.0f frames/s)%n",
+                games, seed, totalFrames, seconds, totalFrames / seconds);
+        System.out.println("World of the last game:");
+        System.out.println(runner.lastWorld);
+        runner.close();
+        System.out.println(runner.SCORES);
+    }
+
+    /**
+     * Create a runner with the game configuration, saving scores to temporary files.
+     * @return the runner
+     */
+    private static HeadlessRunner createRunner() throws IOException {
+        Properties gameProps = IOUtils.readPropertiesFile("res/app.properties");
+        Properties messageProps = IOUtils.readPropertiesFile("res/message_en.properties");
+        File scoresFile = File.createTempFile("scores", ".bin");
+        scoresFile.deleteOnExit();
+        gameProps.setProperty("gameEnd.scoresFile", scoresFile.getPath());
+        File topScoresFile = File.createTempFile("scores", ".top");
+        topScoresFile.deleteOnExit();
+        gameProps.setProperty("gameEnd.topScoresFile", topScoresFile.getPath());
+        return new HeadlessRunner(new GameConfig(gameProps), messageProps);
+    }
+}
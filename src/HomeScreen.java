@@ -21,18 +21,16 @@ public class HomeScreen {
     private final int TITLE_Y;
     private final int INSTRUCTION_Y;
 
-    public HomeScreen(Properties gameProps, Properties msgProps) {
-        BACKGROUND_IMAGE = new Image(gameProps.getProperty("backgroundImage.home"));
+    public HomeScreen(GameConfig config, Properties msgProps, AssetCache assets) {
+        BACKGROUND_IMAGE = assets.getImage(config.HOME_BACKGROUND);
 
         TITLE = msgProps.getProperty("home.title");
-        TITLE_FONT = new Font(gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("home.title.fontSize")));
-        TITLE_Y = Integer.parseInt(gameProps.getProperty("home.title.y"));
+        TITLE_FONT = assets.getFont(config.FONT, config.HOME.TITLE_FONT_SIZE);
+        TITLE_Y = config.HOME.TITLE_Y;
 
         INSTRUCTION = msgProps.getProperty("home.instruction");
-        INSTRUCTION_FONT = new Font(gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("home.instruction.fontSize")));
-        INSTRUCTION_Y = Integer.parseInt(gameProps.getProperty("home.instruction.y"));
+        INSTRUCTION_FONT = assets.getFont(config.FONT, config.HOME.INSTRUCTION_FONT_SIZE);
+        INSTRUCTION_Y = config.HOME.INSTRUCTION_Y;
     }
 
     /**
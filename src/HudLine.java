@@ -0,0 +1,56 @@
+import java.util.function.DoubleFunction;
+
+/**
+ * A line of text on the heads-up display, made of a fixed label followed by a value.
+ * The text is only rebuilt when the value changes, so an unchanged line costs no formatting or allocation per frame.
+ */
+public class HudLine {
+    private final String FONT;
+    private final int FONT_SIZE;
+    private final String LABEL;
+    private final DoubleFunction<String> FORMAT;
+    private final double X;
+    private final double Y;
+
+    private double value = Double.NaN;
+    private String text;
+
+    /**
+     * @param font the path to the font file
+     * @param fontSize the size of the font
+     * @param label the text shown before the value
+     * @param format turns the value into text, or null if the line only shows the label
+     * @param x the x coordinate of the line
+     * @param y the y coordinate of the line
+     */
+    public HudLine(String font, int fontSize, String label, DoubleFunction<String> format, double x, double y) {
+        this.FONT = font;
+        this.FONT_SIZE = fontSize;
+        this.LABEL = label;
+        this.FORMAT = format;
+        this.X = x;
+        this.Y = y;
+        if (format == null) {
+            this.text = label;
+        }
+    }
+
+    /**
+     * Set the value shown by this line. The text is rebuilt only if the value is different from the last one.
+     * @param value the new value
+     */
+    public void setValue(double value) {
+        if (text == null || Double.compare(value, this.value) != 0) {
+            this.value = value;
+            this.text = LABEL + FORMAT.apply(value);
+        }
+    }
+
+    /**
+     * Draw the line of text.
+     * @param renderer the Renderer to draw with
+     */
+    public void render(Renderer renderer) {
+        renderer.drawString(FONT, FONT_SIZE, text, X, Y);
+    }
+}
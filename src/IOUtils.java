@@ -3,7 +3,7 @@ import java.util.ArrayList;
 import java.util.Properties;
 
 /**
- * A utility class that provides methods to read and write files.
+ * A utility class that provides methods to read files.
  */
 public class IOUtils {
 
@@ -44,20 +44,4 @@ public class IOUtils {
 
         return appProps;
     }
-
-    /**
-     * Write a line to a file
-     * @param filename The name of the file
-     * @param line The line (player name & the score) to be written
-     */
-    public static void writeLineToFile(String filename, String line) {
-        try(FileWriter fw = new FileWriter(filename, true);
-            BufferedWriter bw = new BufferedWriter(fw);
-            PrintWriter out = new PrintWriter(bw))
-        {
-            out.println(line);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
 }
\ No newline at end of file
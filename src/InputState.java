@@ -0,0 +1,29 @@
+import bagel.Keys;
+
+/**
+ * Represents the keyboard state that the game simulation polls every frame.
+ * The simulation only depends on this interface, so it can be driven by the bagel window or by a headless source.
+ */
+public interface InputState {
+
+    /**
+     * Checks if a key is currently held down.
+     * @param key the key to check
+     * @return true if the key is held down in this frame; false otherwise
+     */
+    boolean isDown(Keys key);
+
+    /**
+     * Checks if a key was pressed in this frame.
+     * @param key the key to check
+     * @return true if the key went down in this frame; false otherwise
+     */
+    boolean wasPressed(Keys key);
+
+    /**
+     * Checks if a key was released in this frame.
+     * @param key the key to check
+     * @return true if the key went up in this frame; false otherwise
+     */
+    boolean wasReleased(Keys key);
+}
@@ -0,0 +1,88 @@
+import java.util.Arrays;
+
+/**
+ * A growable list of ints. It is used instead of a List of Integers on paths that run every frame,
+ * so no boxing or garbage is created once the list has grown to its working size.
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this.values = new int[16];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Append every value of another list to this list.
+     * @param other the list to copy the values from
+     */
+    public void addAll(IntList other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.values[i]);
+        }
+    }
+
+    /**
+     * Insert a value at a position, moving the values from that position one place up.
+     * @param index the position of the new value
+     * @param value the value to insert
+     */
+    public void insert(int index, int value) {
+        add(0);
+        System.arraycopy(values, index, values, index + 1, size - index - 1);
+        values[index] = value;
+    }
+
+    /**
+     * Remove the value at a position, moving the values after it one place down.
+     * @param index the position of the value to remove
+     * @return the removed value
+     */
+    public int remove(int index) {
+        int value = values[index];
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return value;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove the last value of the list.
+     * @return the removed value
+     */
+    public int removeLast() {
+        return values[--size];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sort the values in ascending order and remove repeated values.
+     */
+    public void sortUnique() {
+        Arrays.sort(values, 0, size);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || values[unique - 1] != values[i]) {
+                values[unique++] = values[i];
+            }
+        }
+        size = unique;
+    }
+}
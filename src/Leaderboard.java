@@ -0,0 +1,210 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The highest scores of the game plays saved in a score log. The top scores are kept in a small sidecar file next to
+ * the log, which is updated every time a score is saved, so the end screen reads a few records instead of the whole
+ * log. The sidecar records how many scores of the log it covers; if that does not match the log, for example after
+ * an import, the top scores are selected again by streaming over the log.
+ * Equal scores are ranked in the order they were saved.
+ */
+public class Leaderboard {
+    private static final int MAGIC = 0x53545450; // "STTP"
+    private static final int VERSION = 1;
+    // ranks the worst score first, a later score is worse than an earlier score with the same value
+    private static final Comparator<RankedScore> WORST_FIRST = Comparator
+            .comparingDouble((RankedScore ranked) -> ranked.SCORE.getScore())
+            .thenComparing(Comparator.comparingLong((RankedScore ranked) -> ranked.INDEX).reversed());
+
+    private final ScoreLog LOG;
+    private final Path TOP_SCORES_FILE;
+    private final int SIZE;
+
+    /**
+     * @param scoreLog The score log the scores are saved to.
+     * @param topScoresFile The sidecar file the top scores are kept in.
+     * @param size The number of top scores to keep.
+     */
+    public Leaderboard(String scoreLog, String topScoresFile, int size) {
+        this.LOG = new ScoreLog(scoreLog);
+        this.TOP_SCORES_FILE = Paths.get(topScoresFile);
+        this.SIZE = size;
+    }
+
+    /**
+     * Save the score of a game play and update the top scores.
+     * @param playerName The name of the player.
+     * @param score The score of the game play.
+     */
+    public void save(String playerName, double score) {
+        saveAll(Collections.singletonList(new Score(playerName, score)), false);
+    }
+
+    /**
+     * Save the scores of several game plays with one write to the log, and update the top scores once.
+     * The sidecar file is not synced, as it is rebuilt from the log if it is lost. If the scores cannot be written,
+     * the sidecar file is deleted, as the log may hold some of them, and it is rebuilt from the log the next time.
+     * @param scores The scores, in the order they were saved.
+     * @param sync Whether to wait until the scores are on the storage device, so they survive a power cut.
+     * @throws UncheckedIOException if the scores cannot be written to the log.
+     */
+    public void saveAll(List<Score> scores, boolean sync) {
+        Score[] topScores = readTopScoresFile(LOG.size());
+        try {
+            LOG.appendAll(scores, sync);
+        } catch (UncheckedIOException e) {
+            deleteTopScoresFile();
+            throw e;
+        }
+
+        if (topScores == null) {
+            topScores = selectTopScores(LOG, SIZE);
+        } else {
+            for (Score score : scores) {
+                topScores = insert(topScores, score);
+            }
+        }
+        writeTopScoresFile(topScores, LOG.size());
+    }
+
+    /**
+     * Get the top scores, best first.
+     * @return at most size scores, fewer if fewer scores have been saved.
+     */
+    public Score[] getTopScores() {
+        long logSize = LOG.size();
+        Score[] topScores = readTopScoresFile(logSize);
+        if (topScores == null) {
+            topScores = selectTopScores(LOG, SIZE);
+            writeTopScoresFile(topScores, logSize);
+        }
+        return topScores;
+    }
+
+    /**
+     * Select the highest scores of a score log. The log is streamed through a min-heap of the best scores seen so
+     * far, so only count scores are held in memory at a time.
+     * @param log The score log to read.
+     * @param count The number of scores to select.
+     * @return at most count scores, best first.
+     */
+    static Score[] selectTopScores(ScoreLog log, int count) {
+        PriorityQueue<RankedScore> heap = new PriorityQueue<>(count + 1, WORST_FIRST);
+        long[] index = {0};
+        log.forEach(score -> {
+            if (heap.size() < count) {
+                heap.add(new RankedScore(score, index[0]));
+            } else if (score.getScore() > heap.peek().SCORE.getScore()) {
+                heap.poll();
+                heap.add(new RankedScore(score, index[0]));
+            }
+            index[0]++;
+        });
+
+        Score[] topScores = new Score[heap.size()];
+        for (int i = topScores.length - 1; i >= 0; i--) {
+            topScores[i] = heap.poll().SCORE;
+        }
+        return topScores;
+    }
+
+    /**
+     * Add a newly saved score to the top scores. It is ranked below the saved scores with the same value.
+     */
+    private Score[] insert(Score[] topScores, Score score) {
+        int position = 0;
+        while (position < topScores.length && topScores[position].getScore() >= score.getScore()) {
+            position++;
+        }
+        if (position >= SIZE) {
+            return topScores;
+        }
+
+        Score[] updated = new Score[Math.min(topScores.length + 1, SIZE)];
+        System.arraycopy(topScores, 0, updated, 0, position);
+        updated[position] = score;
+        System.arraycopy(topScores, position, updated, position + 1, updated.length - position - 1);
+        return updated;
+    }
+
+    /**
+     * Read the sidecar file.
+     * @param logSize The number of scores in the log.
+     * @return the top scores, or null if the file is missing, unreadable or does not cover the log.
+     */
+    private Score[] readTopScoresFile(long logSize) {
+        if (!Files.exists(TOP_SCORES_FILE)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(TOP_SCORES_FILE)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != SIZE
+                    || in.readLong() != logSize) {
+                return null;
+            }
+            Score[] topScores = new Score[in.readInt()];
+            for (int i = 0; i < topScores.length; i++) {
+                topScores[i] = new Score(in.readUTF(), in.readDouble());
+            }
+            return topScores;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replace the sidecar file. The file is written next to it first and then moved, so it is never half written.
+     */
+    private void writeTopScoresFile(Score[] topScores, long logSize) {
+        Path tempFile = TOP_SCORES_FILE.resolveSibling(TOP_SCORES_FILE.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(SIZE);
+                out.writeLong(logSize);
+                out.writeInt(topScores.length);
+                for (Score score : topScores) {
+                    out.writeUTF(score.getPlayerName());
+                    out.writeDouble(score.getScore());
+                }
+            }
+            Files.move(tempFile, TOP_SCORES_FILE, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Delete the sidecar file, so the top scores are selected again from the log.
+     */
+    private void deleteTopScoresFile() {
+        try {
+            Files.deleteIfExists(TOP_SCORES_FILE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A score with its position in the log, so equal scores keep the order they were saved in.
+     */
+    private static class RankedScore {
+        private final Score SCORE;
+        private final long INDEX;
+
+        private RankedScore(Score score, long index) {
+            this.SCORE = score;
+            this.INDEX = index;
+        }
+    }
+}
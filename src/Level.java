@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * The contents of a level: the taxi and the driver the game starts with, the passengers, coins and stars that are
+ * streamed in as the road scrolls, and the weather conditions.
+ * The streamed entries are sorted in the order they reach the screen, closest to the screen first and entries at the
+ * same y in the order of the game objects file.
+ */
+public interface Level {
+
+    /**
+     * Load the level of the game. The compiled level file is used if it is up to date with the game objects and
+     * weather files, otherwise it is compiled again. If it cannot be written or read, the level read from the CSV
+     * files is used instead.
+     * @param config the game configuration the level files are read from
+     * @return the level
+     */
+    static Level load(GameConfig config) {
+        GameEvents.LevelLoad event = new GameEvents.LevelLoad();
+        event.begin();
+        Level level = loadLevel(config, event);
+        if (event.shouldCommit()) {
+            event.file = config.LEVEL_FILE;
+            event.entries = level.getEntryCount();
+            event.commit();
+        }
+        return level;
+    }
+
+    private static Level loadLevel(GameConfig config, GameEvents.LevelLoad event) {
+        Path levelFile = Paths.get(config.LEVEL_FILE);
+        Level csvLevel = null;
+        if (!LevelCompiler.isUpToDate(levelFile, config.OBJECTS_FILE, config.WEATHER_FILE)) {
+            csvLevel = new CsvLevel(config.OBJECTS_FILE, config.WEATHER_FILE);
+            event.compiled = true;
+            if (!LevelCompiler.compile(csvLevel, levelFile)) {
+                event.csvFallback = true;
+                return csvLevel;
+            }
+        }
+        try {
+            return new LevelFile(levelFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            event.csvFallback = true;
+            return csvLevel != null ? csvLevel : new CsvLevel(config.OBJECTS_FILE, config.WEATHER_FILE);
+        }
+    }
+
+    /**
+     * @return the taxi the game starts with
+     */
+    LevelEntry getTaxi();
+
+    /**
+     * @return the driver the game starts with
+     */
+    LevelEntry getDriver();
+
+    /**
+     * @return the number of passengers in the level
+     */
+    int getPassengerCount();
+
+    /**
+     * @return the number of passengers, coins and stars to stream
+     */
+    int getEntryCount();
+
+    /**
+     * Get the y coordinate of a streamed entry, without creating the entry.
+     * @param index the position of the entry in spawn order
+     * @return the y coordinate the entry starts at
+     */
+    int getEntryY(int index);
+
+    /**
+     * @param index the position of the entry in spawn order
+     * @return the streamed entry
+     */
+    LevelEntry getEntry(int index);
+
+    /**
+     * @return the weather conditions in the order of the weather file
+     */
+    List<WeatherCondition> getWeatherConditions();
+}
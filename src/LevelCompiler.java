@@ -0,0 +1,127 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * Compiles the game objects and weather CSV files of a level into a level file, see LevelFile for the format.
+ * The game compiles the level when it starts if the level file is missing or older than the CSV files, so the CSV
+ * files stay the files that are edited.
+ */
+public class LevelCompiler {
+
+    /**
+     * Check if a level file can be used instead of the CSV files it was compiled from.
+     * @param levelFile the compiled level file
+     * @param objectsFile the game objects file
+     * @param weatherFile the weather file
+     * @return true if the level file exists, was written by this version of the game and is not older than the CSV
+     *         files
+     */
+    public static boolean isUpToDate(Path levelFile, String objectsFile, String weatherFile) {
+        if (!Files.exists(levelFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(levelFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(LevelFile.HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            FileTime compiled = Files.getLastModifiedTime(levelFile);
+            return LevelFile.isHeaderValid(header)
+                    && compiled.compareTo(Files.getLastModifiedTime(Paths.get(objectsFile))) >= 0
+                    && compiled.compareTo(Files.getLastModifiedTime(Paths.get(weatherFile))) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write a level to a level file. The file is written next to it first and then moved, so a game that starts at
+     * the same time never maps a half written file.
+     * @param level the level to write
+     * @param levelFile the level file. An existing file is replaced.
+     * @return true if the file was written, false if it could not be written or the level cannot be stored in a level
+     *         file, so the level is played from the CSV files
+     */
+    public static boolean compile(Level level, Path levelFile) {
+        List<WeatherCondition> weatherConditions = level.getWeatherConditions();
+        int entryCount = level.getEntryCount();
+        ByteBuffer buffer = ByteBuffer.allocate(LevelFile.getWeatherOffset(entryCount)
+                + weatherConditions.size() * LevelFile.WEATHER_BYTES);
+        buffer.putInt(LevelFile.MAGIC).putInt(LevelFile.VERSION).putInt(entryCount)
+                .putInt(level.getPassengerCount()).putInt(weatherConditions.size()).putInt(LevelFile.TYPES_HASH);
+        putEntry(buffer, level.getTaxi());
+        putEntry(buffer, level.getDriver());
+        for (int i = 0; i < entryCount; i++) {
+            putEntry(buffer, level.getEntry(i));
+        }
+        try {
+            for (WeatherCondition weatherCondition : weatherConditions) {
+                putWeather(buffer, weatherCondition);
+            }
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+            return false;
+        }
+        buffer.flip();
+
+        Path tempFile = levelFile.resolveSibling(levelFile.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(tempFile, levelFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static void putEntry(ByteBuffer buffer, LevelEntry entry) {
+        buffer.put((byte) entry.TYPE.ordinal());
+        buffer.put((byte) (entry.HAS_UMBRELLA ? 1 : 0));
+        buffer.putShort((short) 0);
+        buffer.putInt(entry.X).putInt(entry.Y).putInt(entry.ORDER)
+                .putInt(entry.PRIORITY).putInt(entry.END_X).putInt(entry.END_Y);
+    }
+
+    private static void putWeather(ByteBuffer buffer, WeatherCondition weatherCondition) {
+        byte[] name = weatherCondition.getCONDITION().getBytes(StandardCharsets.UTF_8);
+        if (name.length > LevelFile.WEATHER_NAME_BYTES) {
+            throw new IllegalArgumentException("Weather condition name too long: " + weatherCondition.getCONDITION());
+        }
+        int start = buffer.position();
+        buffer.put((byte) name.length);
+        buffer.put(name);
+        buffer.position(start + 1 + LevelFile.WEATHER_NAME_BYTES);
+        buffer.putInt(weatherCondition.getStartFrame()).putInt(weatherCondition.getEndFrame());
+    }
+
+    /**
+     * Compile a level.
+     * @param args the game objects file, the weather file and the level file to write.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: LevelCompiler <game objects file> <weather file> <level file>");
+            System.exit(-1);
+        }
+        Level level = new CsvLevel(args[0], args[1]);
+        if (!compile(level, Paths.get(args[2]))) {
+            System.exit(-1);
+        }
+        System.out.println("Compiled " + (level.getEntryCount() + 2) + " game objects and "
+                + level.getWeatherConditions().size() + " weather conditions");
+    }
+}
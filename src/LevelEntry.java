@@ -0,0 +1,51 @@
+import java.util.Comparator;
+
+/**
+ * One game object of a level, as read from the game objects file. The passenger fields are only used by passengers.
+ */
+public class LevelEntry {
+    /** The order entries reach the screen in: the closest to the screen first, entries at the same y in file order. */
+    public static final Comparator<LevelEntry> SPAWN_ORDER = Comparator
+            .comparingInt((LevelEntry entry) -> -entry.Y)
+            .thenComparingInt(entry -> entry.ORDER);
+
+    public final GameObjectType TYPE;
+    public final int X;
+    public final int Y;
+    // the position of the entry in the game objects file
+    public final int ORDER;
+    public final int PRIORITY;
+    public final int END_X;
+    public final int END_Y;
+    public final boolean HAS_UMBRELLA;
+
+    public LevelEntry(GameObjectType type, int x, int y, int order, int priority, int endX, int endY,
+                      boolean hasUmbrella) {
+        this.TYPE = type;
+        this.X = x;
+        this.Y = y;
+        this.ORDER = order;
+        this.PRIORITY = priority;
+        this.END_X = endX;
+        this.END_Y = endY;
+        this.HAS_UMBRELLA = hasUmbrella;
+    }
+
+    /**
+     * Create an entry from a line of the game objects file.
+     * @param line the elements of the line: the type, x and y, followed by the priority, the trip end x and y and
+     *             whether the passenger has an umbrella (1) or not (0) for passengers.
+     * @param order the position of the line in the file
+     * @return the entry
+     */
+    public static LevelEntry fromCsv(String[] line, int order) {
+        GameObjectType type = GameObjectType.valueOf(line[0]);
+        int x = Integer.parseInt(line[1]);
+        int y = Integer.parseInt(line[2]);
+        if (type != GameObjectType.PASSENGER) {
+            return new LevelEntry(type, x, y, order, 0, 0, 0, false);
+        }
+        return new LevelEntry(type, x, y, order, Integer.parseInt(line[3]), Integer.parseInt(line[4]),
+                Integer.parseInt(line[5]), Integer.parseInt(line[6]) == 1);
+    }
+}
@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A level compiled by the LevelCompiler, read through a memory-mapped file. Opening the file checks its header and
+ * the type of every entry; an entry is decoded when the level stream reaches it, so a large level loads without
+ * parsing or allocating per entry.
+ * The file starts with a header, followed by fixed-width entry records for the taxi, the driver and the streamed
+ * entries in spawn order, and then fixed-width weather records. An entry record holds the GameObjectType ordinal,
+ * whether the passenger has an umbrella, x, y, the line of the entry in the game objects file, and the priority and
+ * trip end of passengers. A weather record holds the length of the condition name, the name and the first and last
+ * frame of the condition.
+ */
+public class LevelFile implements Level {
+    static final int MAGIC = 0x53544C56; // "STLV"
+    static final int VERSION = 1;
+    // magic, version, entry count, passenger count, weather count and the GameObjectType names hash
+    static final int HEADER_BYTES = 6 * Integer.BYTES;
+    static final int ENTRY_BYTES = 4 + 6 * Integer.BYTES;
+    static final int WEATHER_NAME_BYTES = 15;
+    static final int WEATHER_BYTES = 1 + WEATHER_NAME_BYTES + 2 * Integer.BYTES;
+    // the entries are stored by ordinal, so a file written for other GameObjectTypes cannot be read
+    static final int TYPES_HASH = getTypesHash();
+
+    private static final GameObjectType[] TYPES = GameObjectType.values();
+    // the taxi and the driver are stored before the streamed entries
+    private static final int FIRST_ENTRY = 2;
+
+    private final MappedByteBuffer BUFFER;
+    private final int ENTRY_COUNT;
+    private final int PASSENGER_COUNT;
+    private final List<WeatherCondition> WEATHER_CONDITIONS;
+
+    /**
+     * Map a compiled level file.
+     * @param file the level file
+     * @throws IOException if the file cannot be read, is not a level file of this version or is damaged
+     */
+    public LevelFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            BUFFER = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (!isHeaderValid(BUFFER)) {
+                throw new IOException(file + " is not a level file of version " + VERSION);
+            }
+            ENTRY_COUNT = BUFFER.getInt(2 * Integer.BYTES);
+            PASSENGER_COUNT = BUFFER.getInt(3 * Integer.BYTES);
+            int weatherCount = BUFFER.getInt(4 * Integer.BYTES);
+            if (ENTRY_COUNT < 0 || weatherCount < 0 || fileSize != HEADER_BYTES
+                    + (long) (FIRST_ENTRY + ENTRY_COUNT) * ENTRY_BYTES + (long) weatherCount * WEATHER_BYTES) {
+                throw new IOException(file + " is truncated");
+            }
+            // the entries are read while the game is played, so a damaged entry must be found now
+            for (int record = 0; record < FIRST_ENTRY + ENTRY_COUNT; record++) {
+                int type = BUFFER.get(getEntryOffset(record));
+                if (type < 0 || type >= TYPES.length) {
+                    throw new IOException(file + " is damaged at entry " + record);
+                }
+            }
+
+            List<WeatherCondition> weatherConditions = new ArrayList<>(weatherCount);
+            byte[] name = new byte[WEATHER_NAME_BYTES];
+            for (int i = 0; i < weatherCount; i++) {
+                int offset = getWeatherOffset(ENTRY_COUNT) + i * WEATHER_BYTES;
+                int nameLength = BUFFER.get(offset);
+                if (nameLength < 0 || nameLength > WEATHER_NAME_BYTES) {
+                    throw new IOException(file + " is damaged at weather condition " + i);
+                }
+                BUFFER.get(offset + 1, name, 0, nameLength);
+                weatherConditions.add(new WeatherCondition(new String(name, 0, nameLength, StandardCharsets.UTF_8),
+                        BUFFER.getInt(offset + 1 + WEATHER_NAME_BYTES),
+                        BUFFER.getInt(offset + 1 + WEATHER_NAME_BYTES + Integer.BYTES)));
+            }
+            WEATHER_CONDITIONS = Collections.unmodifiableList(weatherConditions);
+        }
+    }
+
+    @Override
+    public LevelEntry getTaxi() {
+        return readEntry(0);
+    }
+
+    @Override
+    public LevelEntry getDriver() {
+        return readEntry(1);
+    }
+
+    @Override
+    public int getPassengerCount() {
+        return PASSENGER_COUNT;
+    }
+
+    @Override
+    public int getEntryCount() {
+        return ENTRY_COUNT;
+    }
+
+    @Override
+    public int getEntryY(int index) {
+        return BUFFER.getInt(getEntryOffset(FIRST_ENTRY + index) + 4 + Integer.BYTES);
+    }
+
+    @Override
+    public LevelEntry getEntry(int index) {
+        return readEntry(FIRST_ENTRY + index);
+    }
+
+    @Override
+    public List<WeatherCondition> getWeatherConditions() {
+        return WEATHER_CONDITIONS;
+    }
+
+    private LevelEntry readEntry(int record) {
+        int offset = getEntryOffset(record);
+        GameObjectType type = TYPES[BUFFER.get(offset)];
+        boolean hasUmbrella = BUFFER.get(offset + 1) == 1;
+        offset += 4;
+        return new LevelEntry(type, BUFFER.getInt(offset), BUFFER.getInt(offset + Integer.BYTES),
+                BUFFER.getInt(offset + 2 * Integer.BYTES), BUFFER.getInt(offset + 3 * Integer.BYTES),
+                BUFFER.getInt(offset + 4 * Integer.BYTES), BUFFER.getInt(offset + 5 * Integer.BYTES), hasUmbrella);
+    }
+
+    static int getEntryOffset(int record) {
+        return HEADER_BYTES + record * ENTRY_BYTES;
+    }
+
+    static int getWeatherOffset(int entryCount) {
+        return getEntryOffset(FIRST_ENTRY + entryCount);
+    }
+
+    /**
+     * Check that a header was written by this version of the game.
+     * @param header a buffer that starts with the header
+     * @return true if the file can be read
+     */
+    static boolean isHeaderValid(ByteBuffer header) {
+        return header.limit() >= HEADER_BYTES && header.getInt(0) == MAGIC && header.getInt(Integer.BYTES) == VERSION
+                && header.getInt(5 * Integer.BYTES) == TYPES_HASH;
+    }
+
+    private static int getTypesHash() {
+        int hash = 0;
+        for (GameObjectType type : GameObjectType.values()) {
+            hash = 31 * hash + type.name().hashCode();
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,70 @@
+import java.nio.ByteBuffer;
+
+/**
+ * The passengers, coins and stars of a level that have not been created yet. The entries of the level are sorted by
+ * y, and an entry is handed out when the camera has scrolled it to within the look-ahead window above the screen, so
+ * only the objects near the screen exist and are updated.
+ * The entries are in world coordinates, so an object created late is in the same place on the road as if it had been
+ * created at the start of the game.
+ */
+public class LevelStream {
+    private final Level LEVEL;
+    private final Camera CAMERA;
+    private final int LOOK_AHEAD;
+    private int next;
+
+    /**
+     * @param level the level whose entries are streamed
+     * @param config the game configuration the look-ahead window is read from
+     * @param camera the camera that scrolls the road
+     */
+    public LevelStream(Level level, GameConfig config, Camera camera) {
+        this.LEVEL = level;
+        this.CAMERA = camera;
+        this.LOOK_AHEAD = config.LEVEL_LOOK_AHEAD;
+    }
+
+    /**
+     * Take the next entry if it has scrolled into the look-ahead window.
+     * @return the entry, or null if the next entry is still further away
+     */
+    public LevelEntry poll() {
+        if (next == LEVEL.getEntryCount() || CAMERA.toScreenY(LEVEL.getEntryY(next)) < -LOOK_AHEAD) {
+            return null;
+        }
+        return LEVEL.getEntry(next++);
+    }
+
+    /**
+     * Write the position of the stream in the level to a save state, with the size of the level so the state is
+     * not restored on another level.
+     * @param out the buffer to write to
+     */
+    public void saveState(ByteBuffer out) {
+        out.putInt(LEVEL.getEntryCount()).putInt(LEVEL.getPassengerCount()).putInt(next);
+    }
+
+    /**
+     * Read the position written by saveState.
+     * @param in the buffer to read from
+     * @throws IllegalArgumentException if the state was saved on a level of another size
+     */
+    public void restoreState(ByteBuffer in) {
+        int entryCount = in.getInt();
+        int passengerCount = in.getInt();
+        if (entryCount != LEVEL.getEntryCount() || passengerCount != LEVEL.getPassengerCount()) {
+            throw new IllegalArgumentException("The save state is of a level with " + entryCount
+                    + " entries and " + passengerCount + " passengers, not " + LEVEL.getEntryCount() + " and "
+                    + LEVEL.getPassengerCount());
+        }
+        next = in.getInt();
+    }
+
+    /**
+     * Get the number of entries that have not been handed out.
+     * @return the number of remaining entries
+     */
+    public int getRemaining() {
+        return LEVEL.getEntryCount() - next;
+    }
+}
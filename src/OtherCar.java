@@ -1,15 +1,24 @@
-import bagel.Image;
-import bagel.Input;
-import java.util.Properties;
 /**
  * Class representing the other NPC Cars in the game. OtherCars can collide with other cars and spawn randomly
  * with random image.
  */
 public class OtherCar extends NPC {
-    public OtherCar(Properties props) {
-        super(props, new Image(getRandomImage(props)),
-                "gameObjects.otherCar.minSpeedY",
-                "gameObjects.otherCar.maxSpeedY");
+    private final int IMAGE_NUMBER;
+
+    public OtherCar(GameWorld world) {
+        // Randomly choose between the pictures
+        this(world, MiscUtils.selectAValue(world.RANDOM.SPAWNING, 1, 2));
+    }
+
+    /**
+     * Create an other car with a given image, such as one restored from a save state. Its position and speed are
+     * drawn at random as for any other car.
+     * @param world the world of the game play
+     * @param imageNumber the number of the car image, from 1
+     */
+    public OtherCar(GameWorld world, int imageNumber) {
+        super(world, world.CONFIG.OTHER_CAR.getImage(imageNumber), world.CONFIG.OTHER_CAR);
+        this.IMAGE_NUMBER = imageNumber;
     }
 
     /**
@@ -17,36 +26,33 @@ public class OtherCar extends NPC {
      * @param input The keyboard input
      */
     @Override
-    public void update(Input input) {
+    public void update(InputState input) {
         if(this.getShouldChangeSpeedY()){
             setNewSpeed();
         }
-        if (input != null) {
-            adjustToInputMovement(input);
-        }
         move();
-        draw();
 
-        // Render smoke if damaged
+        // Update smoke if damaged
         if (this.getSmoke() != null && this.getSmoke().getFrames()>0) {
             this.getSmoke().update(input);
         }
 
         if (this.getFire() != null && this.getFire().isActive()) {
-            this.getFire().update(input);  // Render the fire
+            this.getFire().update(input);
         }
     }
 
     /**
-     * Randomly select between two car images.
-     * @param props The source of the image path
-     * @return Path to the car image file.
+     * Render the car with its smoke and fire effects.
+     * @param renderer the Renderer to draw with
      */
-    private static String getRandomImage(Properties props) {
-        String baseImagePath = props.getProperty("gameObjects.otherCar.image");
+    @Override
+    public void render(Renderer renderer) {
+        super.render(renderer);
+        renderEffects(renderer);
+    }
 
-        // Randomly choose between the pictures
-        int imageNumber = MiscUtils.selectAValue(1, 2);
-        return String.format(baseImagePath, imageNumber);
+    public int getImageNumber() {
+        return IMAGE_NUMBER;
     }
 }
\ No newline at end of file
@@ -4,35 +4,33 @@
  * Modifications have been made to implement collision, umbrella priority setting and follow driver logic.
  */
 
-import bagel.Font;
-import bagel.Image;
-import bagel.Input;
-import bagel.Keys;
-
-import java.util.Properties;
+import java.nio.ByteBuffer;
 
 /**
  * Class representing the Passenger in the game. Passengers can be picked up by a Taxi to complete a trip.
+ * A passenger stays in its place on the road unless it walks, rides in the taxi or follows the driver after being
+ * ejected.
  */
-public class Passenger extends Person implements Scrollable {
+public class Passenger extends Person {
     private static final int EJECTION_OFFSET = 100; // Offset applied when the passenger is ejected
-    private static final int HEALTH_DISPLAY_FACTOR = 100;
     private final int TAXI_DETECT_RADIUS;
-    private final Properties PROPS;
     private final TravelPlan travelPlan;
 
     private final int WALK_SPEED_X;
     private final int WALK_SPEED_Y;
     private final int PRIORITY_OFFSET;
     private final int EXPECTED_FEE_OFFSET;
+    private final String PRIORITY_FONT;
+    private final int PRIORITY_FONT_SIZE;
+    private int shownPriority;
+    private String priorityText;
+    private String expectedFeeText;
     private int walkDirectionX;
     private int walkDirectionY;
     private boolean isGetInTaxi;
     private Trip trip;
 
-    private final int SPEED_Y;
     private final boolean HAS_UMBRELLA;
-    private int moveY;
 
     private boolean reachedFlag;
     private boolean passengerCleared = false;
@@ -41,27 +39,49 @@ public class Passenger extends Person implements Scrollable {
     private final Driver driver;
 
     public Passenger(int x, int y, Driver driver, int priority, int endX, int distanceY, boolean hasUmbrella,
-                     Properties props) {
-        super(x,y, new Image(props.getProperty("gameObjects.passenger.image")),
-                Double.parseDouble(props.getProperty("gameObjects.passenger.radius")),
-                Double.parseDouble(props.getProperty("gameObjects.passenger.health")),
-                props);
-        this.WALK_SPEED_X = Integer.parseInt(props.getProperty("gameObjects.passenger.walkSpeedX"));
-        this.WALK_SPEED_Y = Integer.parseInt(props.getProperty("gameObjects.passenger.walkSpeedY"));
-        this.PROPS = props;
-
-        this.travelPlan = new TravelPlan(endX, distanceY, priority, props);
-        this.TAXI_DETECT_RADIUS = Integer.parseInt(props.getProperty("gameObjects.passenger.taxiDetectRadius"));
-        this.moveY = 0;
+                     GameWorld world) {
+        super(x,y, world.CONFIG.PASSENGER.IMAGE, world.CONFIG.PASSENGER.RADIUS, world.CONFIG.PASSENGER.HEALTH, world);
+        this.WALK_SPEED_X = world.CONFIG.PASSENGER.WALK_SPEED_X;
+        this.WALK_SPEED_Y = world.CONFIG.PASSENGER.WALK_SPEED_Y;
+
+        this.travelPlan = new TravelPlan(endX, distanceY, priority, world.CONFIG.TRIP);
+        this.TAXI_DETECT_RADIUS = world.CONFIG.PASSENGER.TAXI_DETECT_RADIUS;
         this.PRIORITY_OFFSET = 30;
         this.EXPECTED_FEE_OFFSET = 100;
+        this.PRIORITY_FONT = world.CONFIG.FONT;
+        this.PRIORITY_FONT_SIZE = world.CONFIG.PASSENGER.FONT_SIZE;
 
-        this.SPEED_Y = Integer.parseInt(props.getProperty("gameObjects.taxi.speedY"));
         this.HAS_UMBRELLA = hasUmbrella;
         this.isEjected = false;
         this.driver = driver;
     }
 
+    /**
+     * Write the state of the passenger to a save state, followed by its travel plan. Its trip is left to the game
+     * play, which gives it back with setTrip.
+     * @param out the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        travelPlan.saveState(out);
+        out.put((byte) walkDirectionX).put((byte) walkDirectionY).put((byte) (isGetInTaxi ? 1 : 0))
+                .put((byte) (reachedFlag ? 1 : 0)).put((byte) (passengerCleared ? 1 : 0))
+                .put((byte) (isEjected ? 1 : 0));
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        super.restoreState(in);
+        travelPlan.restoreState(in);
+        walkDirectionX = in.get();
+        walkDirectionY = in.get();
+        isGetInTaxi = in.get() != 0;
+        reachedFlag = in.get() != 0;
+        passengerCleared = in.get() != 0;
+        isEjected = in.get() != 0;
+    }
+
     public TravelPlan getTravelPlan() {
         return travelPlan;
     }
@@ -79,10 +99,12 @@ public class Passenger extends Person implements Scrollable {
     }
 
     /**
-     * Handle following the driver after being ejected
+     * Handle following the driver after being ejected. The passenger walks on the screen like the driver does, so it
+     * also moves up the road by the distance the camera scrolled.
      */
     public void followDriver() {
         if (isEjected && driver != null) {
+            this.setY(this.getY() - WORLD.CAMERA.getScrollStep());
             walkXDirectionObj(driver.getX());
             walkYDirectionObj(driver.getY());
             walk();
@@ -95,27 +117,16 @@ public class Passenger extends Person implements Scrollable {
      * See move method below to understand the movement of the passenger better.
      * @param input The current mouse/keyboard input.
      */
-    public void update(Input input) {
+    public void update(InputState input) {
         if (isEjected) {
             followDriver(); // Follow driver’s movements after ejection
             this.setInvincible(false);
-            draw();
             return;
         }
 
-        // Scroll according to the input if nothing is happening
+        // The passenger can be hit if it is not in the taxi
         if(!isGetInTaxi || (trip != null && trip.isComplete())) {
-            if(input != null) {
-                adjustToInputMovement(input);
-            }
             this.setInvincible(false);
-            move();
-            draw();
-        }
-
-        // if the passenger is not in the taxi, draw the priority number on the passenger.
-        if(!isGetInTaxi && trip == null) {
-            drawPriority();
         }
 
         // Driver should take this new passenger
@@ -128,7 +139,8 @@ public class Passenger extends Person implements Scrollable {
             if(trip == null) {
                 //Start the passenger's trip
                 getTravelPlan().setStartY(this.getY());
-                trip = new Trip(this, driver, PROPS);
+                trip = new Trip(this, driver, WORLD);
+                GameEvents.tripStart(this);
                 driver.setTrip(trip);
                 trip.setTaxi(driver.getTaxi());
             }
@@ -143,36 +155,50 @@ public class Passenger extends Person implements Scrollable {
                 passengerCleared = true;
             }
             move(driver.getTaxi());
-            draw();
         }
 
-        // Render the blood at death
+        // Update the blood at death
         if (this.getBlood() != null && this.getBlood().isActive()) {
             this.getBlood().update(input);
         }
     }
 
     /**
-     * Draw the priority number on the passenger.
+     * Render the passenger unless it is riding in the taxi. A waiting passenger shows its priority number,
+     * and the blood is rendered at death.
+     * @param renderer the Renderer to draw with
      */
-    private void drawPriority() {
-        Font font = new Font(PROPS.getProperty("font"),
-                Integer.parseInt(PROPS.getProperty("gameObjects.passenger.fontSize")));
-        font.drawString(String.valueOf(travelPlan.getPriority()), this.getX() - PRIORITY_OFFSET, this.getY());
-        font.drawString(String.valueOf(travelPlan.getExpectedFee()), this.getX() - EXPECTED_FEE_OFFSET, this.getY());
+    @Override
+    public void render(Renderer renderer) {
+        if (isEjected || !isGetInTaxi || (trip != null && trip.isComplete())) {
+            super.render(renderer);
+        }
+
+        // if the passenger is not in the taxi, draw the priority number on the passenger.
+        if (!isEjected && !isGetInTaxi && trip == null && isVisible()) {
+            drawPriority(renderer);
+        }
+
+        if (this.getBlood() != null) {
+            this.getBlood().render(renderer);
+        }
     }
 
     /**
-     * Adjust the movement direction in y-axis of the GameObject based on the keyboard input.
-     * @param input The current mouse/keyboard input.
+     * Draw the priority number on the passenger. The text is only rebuilt when the priority changes,
+     * since the expected fee depends on nothing else that changes.
+     * @param renderer the Renderer to draw with
      */
-    @Override
-    public void adjustToInputMovement(Input input) {
-        if (input.wasPressed(Keys.UP)) {
-            moveY = 1;
-        }  else if(input.wasReleased(Keys.UP)) {
-            moveY = 0;
+    private void drawPriority(Renderer renderer) {
+        if (priorityText == null || shownPriority != travelPlan.getPriority()) {
+            shownPriority = travelPlan.getPriority();
+            priorityText = String.valueOf(shownPriority);
+            expectedFeeText = String.valueOf(travelPlan.getExpectedFee());
         }
+        renderer.drawString(PRIORITY_FONT, PRIORITY_FONT_SIZE, priorityText,
+                this.getRenderX() - PRIORITY_OFFSET, this.getRenderY());
+        renderer.drawString(PRIORITY_FONT, PRIORITY_FONT_SIZE, expectedFeeText,
+                this.getRenderX() - EXPECTED_FEE_OFFSET, this.getRenderY());
     }
 
     /**
@@ -201,29 +227,6 @@ public class Passenger extends Person implements Scrollable {
         }
     }
 
-    /**
-     * Move the GameObject object in the y-direction based on the speedY attribute.
-     */
-    @Override
-    public void move() {
-        this.setY(this.getY() + SPEED_Y * moveY);
-    }
-
-    /**
-     * Draw the current health of the passenger on the screen.
-     * @param gameProps properties related to the game's graphical settings
-     * @param msgProps properties that contain messages and labels for the game
-     */
-    public void drawHealth(Properties gameProps, Properties msgProps){
-        String message = msgProps.getProperty("gamePlay.passengerHealth");
-
-        Font font = new Font(gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize")));
-        font.drawString(message +String.format("%.1f", Math.abs(this.getHealth() * HEALTH_DISPLAY_FACTOR)),
-                Integer.parseInt(gameProps.getProperty("gamePlay.passengerHealth.x")),
-                Integer.parseInt(gameProps.getProperty("gamePlay.passengerHealth.y")));
-    }
-
     /**
      * Walk the people object based on the walk direction and speed.
      */
@@ -282,8 +285,7 @@ public class Passenger extends Person implements Scrollable {
         boolean taxiStopped = !taxi.isMovingX() && !taxi.isMovingY();
 
         // Check if Taxi is in the passenger's detect radius
-        float currDistance = (float) Math.sqrt(Math.pow(taxi.getX() - this.getX(), 2) +
-                Math.pow(taxi.getY() - this.getY(), 2));
+        float currDistance = (float) distanceTo(taxi);
         return currDistance <= TAXI_DETECT_RADIUS && taxiStopped;
     }
 
@@ -296,8 +298,7 @@ public class Passenger extends Person implements Scrollable {
     public void setIsGetInTaxi(Taxi taxi, Driver driver) {
         if(taxi == null) {
             isGetInTaxi = false;
-        } else if((float) Math.sqrt(Math.pow(taxi.getX() - this.getX(), 2) +
-                Math.pow(taxi.getY() - this.getY(), 2)) <= 1) {
+        } else if((float) distanceTo(taxi) <= 1) {
             isGetInTaxi = true;
             driver.setPassenger(this);
         } else {
@@ -305,6 +306,40 @@ public class Passenger extends Person implements Scrollable {
         }
     }
 
+    /**
+     * Check if the passenger is waiting to be picked up. No taxi, driver or trip refers to a waiting passenger.
+     * @return true if the passenger has not been picked up or ejected.
+     */
+    public boolean isWaiting() {
+        return !isEjected && !isGetInTaxi && trip == null;
+    }
+
+    /**
+     * Check if the passenger has finished its trip and reached the end flag, so it only stays on the road.
+     * @return true if the passenger has been delivered.
+     */
+    public boolean isDelivered() {
+        return trip != null && trip.isComplete() && reachedFlag;
+    }
+
+    /**
+     * A passenger that is waiting or has been delivered only reacts to a taxi stopping next to it, so it can sleep.
+     * A dead passenger is kept awake to update its blood.
+     * @return true if the passenger can skip its update while it is far from the screen
+     */
+    @Override
+    public boolean canSleep() {
+        return (isWaiting() || isDelivered()) && getBlood() == null;
+    }
+
+    public Trip getTrip() {
+        return trip;
+    }
+
+    public void setTrip(Trip trip) {
+        this.trip = trip;
+    }
+
     public boolean hasUmbrella() {
         return HAS_UMBRELLA;
     }
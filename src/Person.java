@@ -1,5 +1,5 @@
-import bagel.Image;
-import java.util.Properties;
+import java.nio.ByteBuffer;
+
 /**
  * Abstract class representing the Persons in the game. Persons have a health value and can be killed.
  */
@@ -7,22 +7,28 @@ public abstract class Person extends GameObject implements Damageable {
     private final double EPSILON = 1e-6;
     protected final static int COLLISION_TIMEOUT_FRAMES = 200;
     private final static int COLLISION_IMPACT_FRAMES = 10;
-    private double health;
-    private boolean dead;
-    private boolean isInCollisionTimeOut;
-    private boolean isHitByFireball;
-    private int collisionTimeoutCounter;
-    private boolean isInvincible;
     private Blood blood;
 
-    public Person(int x, int y, Image image, double radius, double health, Properties props) {
-        super(props, x, y, image, radius);
-        this.health = health;
-        this.dead = false;
-        this.isInCollisionTimeOut = false;
-        this.collisionTimeoutCounter = -1;
-        this.isInvincible = false;
-        this.isHitByFireball = false;
+    public Person(int x, int y, String image, double radius, double health, GameWorld world) {
+        super(world, x, y, image, radius);
+        // the store starts every entity with no flags set and a collision timeout counter of -1
+        ENTITIES.setHealth(ID, health);
+    }
+
+    /**
+     * Write the state of the Person to a save state, followed by its blood.
+     * @param out the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        Effect.saveEffect(blood, out);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        super.restoreState(in);
+        blood = Effect.restoreEffect(blood, WORLD.BLOOD_POOL, in);
     }
 
     /**
@@ -31,13 +37,16 @@ public abstract class Person extends GameObject implements Damageable {
      */
     @Override
     public void takeDamage(double damagePoints) {
-        if (!this.isInvincible){
-            this.health -= damagePoints + EPSILON;
+        if (!this.getIsInvincible()){
+            ENTITIES.setHealth(ID, getHealth() - (damagePoints + EPSILON));
         }
         // Trigger blood effect
-        if (this.health <= 0 && !dead) {
-            this.dead = true;
-            blood = new Blood(GAME_PROPS, this.getX(), this.getY());
+        if (getHealth() <= 0 && !isDead()) {
+            ENTITIES.setFlag(ID, EntityStore.DEAD, true);
+            if (blood == null) {
+                blood = WORLD.BLOOD_POOL.acquire();
+            }
+            blood.reset(this.getX(), this.getY());
         }
     }
 
@@ -45,31 +54,55 @@ public abstract class Person extends GameObject implements Damageable {
      * Handle collision time out after a collision.
      */
     protected void handleCollisionTimeOut() {
+        handleCollisionTimeOut(1);
+    }
+
+    /**
+     * Handle the collision time out for several frames at once. This has the same result as calling
+     * handleCollisionTimeOut() that many times.
+     * @param frames the number of frames to count down
+     */
+    protected void handleCollisionTimeOut(int frames) {
+        if (frames <= 0) {
+            return;
+        }
         // Countdown for collision timeout
-        if (collisionTimeoutCounter > 0) {
-            collisionTimeoutCounter--;
+        int counter = getCollisionTimeoutCounter();
+        if (counter >= frames) {
+            setCollisionTimeoutCounter(counter - frames);
         } else {
-            isInCollisionTimeOut = false;
+            setCollisionTimeoutCounter(Math.min(counter, 0));
+            setInCollisionTimeOut(false);
         }
     }
 
+    /**
+     * Check if this Person can still be moved by an earlier collision or fireball hit, even when nothing touches it.
+     * @return true if this Person is within the impact frames of a collision or has been hit by a fireball
+     */
+    public boolean isInCollisionImpact() {
+        return getCollisionTimeoutCounter() > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)
+                || ENTITIES.hasFlag(ID, EntityStore.HIT_BY_FIREBALL);
+    }
+
     /**
      Handle collision Impact frames with Fireballs.
      */
     protected void handleFireballImpact(){
         // Separate collided entities for the first 10 frames
-        if (collisionTimeoutCounter > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES) && isHitByFireball) {
+        if (getCollisionTimeoutCounter() > (COLLISION_TIMEOUT_FRAMES - COLLISION_IMPACT_FRAMES)
+                && ENTITIES.hasFlag(ID, EntityStore.HIT_BY_FIREBALL)) {
             this.setY(this.getY() - 1);
         }else {
-            this.isHitByFireball = false;
+            setHitByFireball(false);
         }
     }
 
     public double getHealth() {
-        return health;
+        return ENTITIES.getHealth(ID);
     }
     public void setInCollisionTimeOut(boolean inCollisionTimeOut) {
-        isInCollisionTimeOut = inCollisionTimeOut;
+        ENTITIES.setFlag(ID, EntityStore.IN_COLLISION_TIMEOUT, inCollisionTimeOut);
     }
 
     public Blood getBlood() {
@@ -77,27 +110,27 @@ public abstract class Person extends GameObject implements Damageable {
     }
 
     public boolean getIsInCollisionTimeOut() {
-        return isInCollisionTimeOut;
+        return ENTITIES.hasFlag(ID, EntityStore.IN_COLLISION_TIMEOUT);
     }
 
     public int getCollisionTimeoutCounter() {
-        return collisionTimeoutCounter;
+        return ENTITIES.getCollisionTimeoutCounter(ID);
     }
     public void setCollisionTimeoutCounter(int collisionTimeoutCounter) {
-        this.collisionTimeoutCounter = collisionTimeoutCounter;
+        ENTITIES.setCollisionTimeoutCounter(ID, collisionTimeoutCounter);
     }
     public void setInvincible(boolean invincible) {
-        isInvincible = invincible;
+        ENTITIES.setFlag(ID, EntityStore.INVINCIBLE, invincible);
     }
 
     public boolean getIsInvincible() {
-        return isInvincible;
+        return ENTITIES.hasFlag(ID, EntityStore.INVINCIBLE);
     }
 
     public boolean isDead() {
-        return dead;
+        return ENTITIES.hasFlag(ID, EntityStore.DEAD);
     }
     public void setHitByFireball(boolean hitByFireball) {
-        isHitByFireball = hitByFireball;
+        ENTITIES.setFlag(ID, EntityStore.HIT_BY_FIREBALL, hitByFireball);
     }
 }
@@ -23,17 +23,16 @@ public class PlayerInfoScreen{
     private String playerName;
     private final DrawOptions FONT_STYLE;
 
-    public PlayerInfoScreen(Properties gameProps, Properties msgProps) {
+    public PlayerInfoScreen(GameConfig config, Properties msgProps, AssetCache assets) {
 
-        BACKGROUND_IMAGE = new Image(gameProps.getProperty("backgroundImage.playerInfo"));
+        BACKGROUND_IMAGE = assets.getImage(config.PLAYER_INFO_BACKGROUND);
 
         PI_PLAYER_NAME = msgProps.getProperty("playerInfo.playerName");
         PI_START_GAME = msgProps.getProperty("playerInfo.start");
-        PI_FONT = new Font(gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("playerInfo.fontSize")));
-        PLAYER_NAME_Y = Integer.parseInt(gameProps.getProperty("playerInfo.playerName.y"));
-        PLAYER_NAME_INPUT_Y = Integer.parseInt(gameProps.getProperty("playerInfo.playerNameInput.y"));
-        START_GAME_Y = Integer.parseInt(gameProps.getProperty("playerInfo.start.y"));
+        PI_FONT = assets.getFont(config.FONT, config.PLAYER_INFO.FONT_SIZE);
+        PLAYER_NAME_Y = config.PLAYER_INFO.PLAYER_NAME_Y;
+        PLAYER_NAME_INPUT_Y = config.PLAYER_INFO.PLAYER_NAME_INPUT_Y;
+        START_GAME_Y = config.PLAYER_INFO.START_Y;
 
         FONT_STYLE = new DrawOptions();
         FONT_STYLE.setBlendColour(0.0, 0.0, 0.0);
@@ -0,0 +1,115 @@
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A fixed-capacity pool of reusable objects. The pool is filled when it is created, so acquiring an object does not
+ * allocate while the pool has free objects. When every object is in use the pool is exhausted: a new object is
+ * allocated instead and the exhaustion is counted, so the capacity can be tuned from the metrics.
+ * Objects are handed back with release; the caller resets an object after acquiring it. Objects that do not fit
+ * back into a full pool are passed to the discard action.
+ * @param <T> the type of the pooled objects
+ */
+public class Pool<T> {
+    private final String NAME;
+    private final Supplier<T> FACTORY;
+    private final Consumer<T> DISCARD;
+    private final Object[] free;
+    private int freeCount;
+    private int inUse;
+    private int peakInUse;
+    private long acquired;
+    private long exhausted;
+    private long discarded;
+
+    /**
+     * Create a pool and fill it with objects.
+     * @param name the name the pool is reported under
+     * @param capacity the number of objects kept in the pool
+     * @param factory creates the pooled objects
+     * @param discard cleans up an object that is dropped because the pool is full
+     */
+    public Pool(String name, int capacity, Supplier<T> factory, Consumer<T> discard) {
+        this.NAME = name;
+        this.FACTORY = factory;
+        this.DISCARD = discard;
+        this.free = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            free[i] = factory.get();
+        }
+        this.freeCount = capacity;
+    }
+
+    /**
+     * Take an object from the pool, or allocate one if the pool is exhausted.
+     * @return an object that is not used by anyone else
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        acquired++;
+        inUse++;
+        peakInUse = Math.max(peakInUse, inUse);
+        if (freeCount == 0) {
+            exhausted++;
+            return FACTORY.get();
+        }
+        T object = (T) free[--freeCount];
+        free[freeCount] = null;
+        return object;
+    }
+
+    /**
+     * Give an object back to the pool. If the pool is already full the object is discarded.
+     * @param object an object acquired from this pool that is no longer used
+     */
+    public void release(T object) {
+        inUse--;
+        if (freeCount == free.length) {
+            discarded++;
+            DISCARD.accept(object);
+            return;
+        }
+        free[freeCount++] = object;
+    }
+
+    public int getCapacity() {
+        return free.length;
+    }
+
+    /**
+     * Get the number of objects waiting in the pool to be acquired.
+     * @return the number of free objects
+     */
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    public int getInUse() {
+        return inUse;
+    }
+
+    public int getPeakInUse() {
+        return peakInUse;
+    }
+
+    public long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * Get the number of times an object was asked for while every pooled object was in use.
+     * @return the number of allocations made because the pool was exhausted
+     */
+    public long getExhausted() {
+        return exhausted;
+    }
+
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: capacity=%d inUse=%d peak=%d acquired=%d exhausted=%d discarded=%d",
+                NAME, getCapacity(), inUse, peakInUse, acquired, exhausted, discarded);
+    }
+}
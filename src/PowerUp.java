@@ -1,59 +1,61 @@
-import bagel.Image;
-import bagel.Input;
-import bagel.Keys;
+import java.nio.ByteBuffer;
 
-import java.util.Properties;
 /**
  * Abstract Class representing the Power-ups in the game.
- * A Power-up can be collected by the player in a taxi or as a driver.
+ * A Power-up can be collected by the player in a taxi or as a driver. It stays in its place on the road until then.
  */
-public abstract class PowerUp extends GameObject implements Collidable, Scrollable{
+public abstract class PowerUp extends GameObject implements Collidable {
     protected final int MAX_FRAMES;
-    protected final int SPEED_Y;
-    private int moveY;
     private boolean isCollided;
     private int framesActive = 0;
 
-    public PowerUp(int x, int y, Properties props, String imageProp, String radiusProp, String maxFramesProp) {
-        super(props,x,y, new Image(props.getProperty(imageProp)), Double.parseDouble(props.getProperty(radiusProp)));
-        this.moveY = 0;
-        this.SPEED_Y = Integer.parseInt(props.getProperty("gameObjects.taxi.speedY"));
-        this.MAX_FRAMES = Integer.parseInt(props.getProperty(maxFramesProp));
+    public PowerUp(int x, int y, GameWorld world, GameConfig.PowerUpConfig powerUp) {
+        super(world,x,y, powerUp.IMAGE, powerUp.RADIUS);
+        this.MAX_FRAMES = powerUp.MAX_FRAMES;
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.put((byte) (isCollided ? 1 : 0)).putInt(framesActive);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        super.restoreState(in);
+        isCollided = in.get() != 0;
+        framesActive = in.getInt();
     }
 
     /**
-     * Adjust rendering and movement according to the input.
+     * Count the frames the power-up has been active for since it was collected.
      * @param input The keyboard input
      */
     @Override
-    public void update(Input input) {
+    public void update(InputState input) {
         if (isCollided) {
             framesActive++;
-        } else {
-            if (input != null) {
-                adjustToInputMovement(input);
-            }
-            move();
-            draw();
         }
     }
 
+    /**
+     * Render the power-up until it is collected.
+     * @param renderer the Renderer to draw with
+     */
     @Override
-    public void move() {
-        this.setY(this.getY() + SPEED_Y * moveY);
+    public void render(Renderer renderer) {
+        if (!isCollided) {
+            super.render(renderer);
+        }
     }
 
     /**
-     * Adjust position relative to the input.
-     * @param input The keyboard input
+     * A power-up only counts frames once it has been collected, so it can sleep until then.
+     * @return true if the power-up has not been collected
      */
     @Override
-    public void adjustToInputMovement(Input input) {
-        if (input.wasPressed(Keys.UP)) {
-            moveY = 1;
-        } else if (input.wasReleased(Keys.UP)) {
-            moveY = 0;
-        }
+    public boolean canSleep() {
+        return !isCollided;
     }
 
     public abstract void collide(Taxi taxi);
@@ -66,9 +68,8 @@ public abstract class PowerUp extends GameObject implements Collidable, Scrollab
      */
     @Override
     public boolean checkCollision(GameObject other){
-        double collisionDistance = RADIUS + other.getRADIUS();
-        double currDistance = Math.sqrt(Math.pow(this.getX() - other.getX(), 2) +
-                Math.pow(this.getY() - other.getY(), 2));
+        double collisionDistance = getRADIUS() + other.getRADIUS();
+        double currDistance = distanceTo(other);
         return currDistance <= collisionDistance;
     }
 
@@ -76,6 +77,10 @@ public abstract class PowerUp extends GameObject implements Collidable, Scrollab
         this.isCollided = true;
     }
 
+    public boolean isCollided() {
+        return isCollided;
+    }
+
     public boolean getIsActive() {
         return isCollided && framesActive <= MAX_FRAMES && framesActive > 0;
     }
@@ -0,0 +1,108 @@
+/**
+ * A stream of random numbers whose state can be saved and restored. It is the SplitMix64 generator of
+ * java.util.SplittableRandom and draws the same numbers from the same seed, but its state is two plain longs, so a
+ * save state can hold the stream and a restored game play draws on where it left off.
+ * The stream is not synchronized, it is only used by the thread that runs the game play.
+ */
+public class RandomStream {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+    // an odd number added to the seed for every draw
+    private long gamma;
+
+    /**
+     * @param seed the seed of the stream
+     */
+    public RandomStream(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private RandomStream(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Split off a new stream that draws numbers independent of this one. This draws from this stream.
+     * @return the new stream
+     */
+    public RandomStream split() {
+        return new RandomStream(nextLong(), mixGamma(nextSeed()));
+    }
+
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    public int nextInt() {
+        return mix32(nextSeed());
+    }
+
+    /**
+     * Draw a number from 0 to bound, without a bias towards any of them.
+     * @param bound the upper bound, exclusive. Must be positive.
+     * @return the number
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        int r = nextInt();
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            // a power of two, the low bits are already uniform
+            return r & m;
+        }
+        // draw again when r falls in the last partial range of bound numbers
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1) {
+        }
+        return r;
+    }
+
+    public boolean nextBoolean() {
+        return nextInt() < 0;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getGamma() {
+        return gamma;
+    }
+
+    /**
+     * Continue the stream from a saved state.
+     * @param seed the seed returned by getSeed
+     * @param gamma the gamma returned by getGamma
+     */
+    public void restore(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    private long nextSeed() {
+        return seed += gamma;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        // a gamma with too few bit transitions gives poorly mixed numbers
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
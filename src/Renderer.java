@@ -0,0 +1,62 @@
+/**
+ * Represents the drawing surface used by the render pass. Game objects describe what to draw through this interface
+ * and never talk to the graphics library themselves.
+ * A renderer may queue the draws of a frame and submit them in flush, so everything drawn in a frame is only on the
+ * screen once the frame is flushed. Draws are layered in the order of their layers; within a layer they are layered in
+ * the order they are made, except that a renderer may group the draws of a texture together.
+ */
+public interface Renderer {
+
+    /**
+     * The layers of a frame, from the bottom to the top.
+     */
+    enum Layer {
+        // the full screen backgrounds
+        BACKGROUND,
+        // the game objects on the road
+        ROAD,
+        // the game information and overlays drawn over the road
+        HUD
+    }
+
+    /**
+     * Set the layer the following draws are made on, until the layer is set again or the frame is flushed. Each frame
+     * starts on the BACKGROUND layer.
+     * @param layer the layer to draw on
+     */
+    void setLayer(Layer layer);
+
+    /**
+     * Draw an image centred at the given position.
+     * @param imageFile the path to the image file
+     * @param x the x coordinate of the centre of the image
+     * @param y the y coordinate of the centre of the image
+     */
+    void drawImage(String imageFile, double x, double y);
+
+    /**
+     * Draw a line of text with its bottom-left corner at the given position.
+     * @param fontFile the path to the font file
+     * @param fontSize the size of the font
+     * @param text the text to draw
+     * @param x the x coordinate of the text
+     * @param y the y coordinate of the text
+     */
+    void drawString(String fontFile, int fontSize, String text, double x, double y);
+
+    /**
+     * Finish the frame, submitting any draws that are still queued.
+     */
+    void flush();
+
+    /**
+     * @return the number of images and lines of text drawn in the last flushed frame
+     */
+    int getDrawCount();
+
+    /**
+     * @return the number of times the last flushed frame switched from drawing one texture to another, an image file
+     *         or a font being one texture
+     */
+    int getTextureSwitchCount();
+}
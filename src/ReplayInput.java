@@ -0,0 +1,97 @@
+import bagel.Keys;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An InputState that plays back the ticks of a replay file written by a ReplayWriter. Keys that are not recorded are
+ * never down. A game play started with the SEED of the replay and the same configuration and level plays out the
+ * same way as the recorded one.
+ */
+public class ReplayInput implements InputState {
+    public final long SEED;
+
+    private final ByteBuffer RECORDS;
+    private final int TICK_COUNT;
+    private int tick = -1;
+    private int record;
+
+    /**
+     * Read a replay file.
+     * @param file the replay file
+     * @throws IOException if the file cannot be read or is not a replay file of this version
+     */
+    public ReplayInput(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.limit() < ReplayWriter.HEADER_BYTES || buffer.getInt(0) != ReplayWriter.MAGIC
+                || buffer.getInt(Integer.BYTES) != ReplayWriter.VERSION) {
+            throw new IOException(file + " is not a replay file of version " + ReplayWriter.VERSION);
+        }
+        SEED = buffer.getLong(2 * Integer.BYTES);
+        RECORDS = buffer.position(ReplayWriter.HEADER_BYTES).slice();
+        // a record that was only partly written is ignored
+        TICK_COUNT = RECORDS.limit() / ReplayWriter.RECORD_BYTES;
+    }
+
+    /**
+     * Check if the replay has a tick after the current one.
+     * @return true if there is another tick to play; false otherwise
+     */
+    public boolean hasNextTick() {
+        return tick + 1 < TICK_COUNT;
+    }
+
+    /**
+     * Move on to the input of the next tick.
+     * @throws IllegalStateException if every tick has been played
+     */
+    public void nextTick() {
+        if (!hasNextTick()) {
+            throw new IllegalStateException("The replay has no more ticks");
+        }
+        tick++;
+        record = RECORDS.getShort(tick * ReplayWriter.RECORD_BYTES);
+    }
+
+    /**
+     * Go back to before the first tick, so the replay can be played again.
+     */
+    public void rewind() {
+        tick = -1;
+        record = 0;
+    }
+
+    /**
+     * Get the number of ticks in the replay.
+     * @return the number of recorded ticks
+     */
+    public int getTickCount() {
+        return TICK_COUNT;
+    }
+
+    @Override
+    public boolean isDown(Keys key) {
+        return hasBit(key, 0);
+    }
+
+    @Override
+    public boolean wasPressed(Keys key) {
+        return hasBit(key, ReplayWriter.PRESSED_SHIFT);
+    }
+
+    @Override
+    public boolean wasReleased(Keys key) {
+        return hasBit(key, ReplayWriter.RELEASED_SHIFT);
+    }
+
+    private boolean hasBit(Keys key, int shift) {
+        for (int i = 0; i < ReplayWriter.KEYS.length; i++) {
+            if (ReplayWriter.KEYS[i] == key) {
+                return (record & (1 << (shift + i))) != 0;
+            }
+        }
+        return false;
+    }
+}
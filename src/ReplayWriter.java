@@ -0,0 +1,126 @@
+import bagel.Keys;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Records the input of a game play to a replay file, so the game play can be played again by a ReplayInput.
+ * The file starts with a header holding the seed of the game play, followed by one record per tick. A record is a
+ * short whose bits hold, for each of the KEYS, whether the key was down, pressed and released in that tick.
+ * Records are collected in chunks on the game play thread and written by a background thread, so a tick never waits
+ * for the disk. A file cut short, for example by a crash, still replays up to its last complete record.
+ */
+public class ReplayWriter implements AutoCloseable {
+    static final int MAGIC = 0x53545250; // "STRP"
+    static final int VERSION = 1;
+    // magic, version and seed
+    static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+    static final int RECORD_BYTES = Short.BYTES;
+    // the keys the game play polls, each one takes a down, a pressed and a released bit
+    static final Keys[] KEYS = {Keys.UP, Keys.DOWN, Keys.LEFT, Keys.RIGHT};
+    static final int PRESSED_SHIFT = KEYS.length;
+    static final int RELEASED_SHIFT = 2 * KEYS.length;
+
+    private static final int CHUNK_TICKS = 1024;
+    // handed to the writer thread to make it stop
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel CHANNEL;
+    private final BlockingQueue<ByteBuffer> PENDING = new LinkedBlockingQueue<>();
+    private final Thread WRITER;
+    private ByteBuffer chunk = ByteBuffer.allocate(CHUNK_TICKS * RECORD_BYTES);
+    private int tickCount;
+
+    /**
+     * Start a replay file. An existing file is replaced.
+     * @param file the replay file
+     * @param seed the seed of the game play
+     * @throws IOException if the file cannot be created
+     */
+    public ReplayWriter(Path file, long seed) throws IOException {
+        CHANNEL = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(seed);
+        header.flip();
+        PENDING.add(header);
+
+        WRITER = new Thread(this::writeChunks, "replay-writer");
+        WRITER.setDaemon(true);
+        WRITER.start();
+    }
+
+    /**
+     * Record the input of one tick.
+     * @param input the input the tick is played with
+     */
+    public void record(InputState input) {
+        int record = 0;
+        for (int i = 0; i < KEYS.length; i++) {
+            if (input.isDown(KEYS[i])) {
+                record |= 1 << i;
+            }
+            if (input.wasPressed(KEYS[i])) {
+                record |= 1 << (PRESSED_SHIFT + i);
+            }
+            if (input.wasReleased(KEYS[i])) {
+                record |= 1 << (RELEASED_SHIFT + i);
+            }
+        }
+        chunk.putShort((short) record);
+        tickCount++;
+        if (!chunk.hasRemaining()) {
+            flush();
+        }
+    }
+
+    /**
+     * Get the number of ticks recorded so far.
+     * @return the number of ticks
+     */
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Write the remaining records and wait for the writer thread to finish.
+     */
+    @Override
+    public void close() {
+        flush();
+        PENDING.add(END);
+        try {
+            WRITER.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush() {
+        if (chunk.position() > 0) {
+            chunk.flip();
+            PENDING.add(chunk);
+            chunk = ByteBuffer.allocate(CHUNK_TICKS * RECORD_BYTES);
+        }
+    }
+
+    private void writeChunks() {
+        try (FileChannel channel = CHANNEL) {
+            ByteBuffer buffer;
+            while ((buffer = PENDING.take()) != END) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
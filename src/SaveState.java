@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * A save state of a game play: everything needed to resume it from the tick it was taken after. The state is taken
+ * in two steps so the game play thread does as little as possible. capture copies the state into a buffer of plain
+ * binary fields between two ticks, and write compresses it and writes it to a file, which can be done on another
+ * thread. The file starts with a header, followed by the state compressed with deflate:
+ * <pre>
+ *     magic, version, frame, seed, state length, CRC32 of the state, player name
+ * </pre>
+ * A save state can only be restored with the same version of the game, the same app.properties and the same level.
+ * Bump VERSION whenever what a game object writes in saveState changes.
+ */
+public class SaveState {
+    static final int MAGIC = 0x53545353; // "STSS"
+    static final int VERSION = 1;
+    // magic, version, frame, seed, state length, checksum and the length of the player name
+    static final int HEADER_BYTES = 5 * Integer.BYTES + Long.BYTES + Short.BYTES;
+    private static final int WRITE_BUFFER_BYTES = 1 << 13;
+    // a state is about a kilobyte, a damaged header must not make read allocate more than this
+    private static final int MAX_BODY_BYTES = 1 << 24;
+    // deflate cannot compress data to less than about a thousandth of its size
+    private static final int MAX_COMPRESSION_RATIO = 1032;
+
+    public final String PLAYER_NAME;
+    public final long SEED;
+    public final int FRAME;
+    private final ByteBuffer BODY;
+
+    private SaveState(String playerName, long seed, int frame, ByteBuffer body) {
+        this.PLAYER_NAME = playerName;
+        this.SEED = seed;
+        this.FRAME = frame;
+        this.BODY = body;
+    }
+
+    /**
+     * Take a save state of a game play. The state is only copied into a buffer, it is not compressed or written,
+     * so this is quick enough to run between two ticks.
+     * @param gamePlay the game play, which must not be updated while its state is taken
+     * @param capacity the size of the buffer to try first, such as the size of the last save state. The buffer is
+     *                 made larger until the state fits.
+     * @return the save state
+     */
+    public static SaveState capture(GamePlayScreen gamePlay, int capacity) {
+        while (true) {
+            ByteBuffer body = ByteBuffer.allocate(capacity);
+            try {
+                gamePlay.saveState(body);
+                body.flip();
+                return new SaveState(gamePlay.getPlayerName(), gamePlay.getWorld().RANDOM.SEED, gamePlay.getFrame(),
+                        body);
+            } catch (BufferOverflowException e) {
+                capacity *= 2;
+            }
+        }
+    }
+
+    /**
+     * Get the state to restore a game play from.
+     * @return a buffer over the state, from its start
+     */
+    public ByteBuffer getBody() {
+        return BODY.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the size of the state before it is compressed.
+     * @return the size in bytes
+     */
+    public int getSize() {
+        return BODY.limit();
+    }
+
+    /**
+     * Compress the save state and write it to a file. The file is written next to its destination, forced to the
+     * storage device and then moved over the destination, so after a crash or a power cut the file holds either the
+     * previous save state or this one.
+     * @param file the file to write. An existing file is replaced.
+     * @return the size of the file in bytes
+     * @throws IOException if the file cannot be written
+     */
+    public long write(Path file) throws IOException {
+        byte[] playerName = PLAYER_NAME.getBytes(StandardCharsets.UTF_8);
+        CRC32 checksum = new CRC32();
+        checksum.update(BODY.array(), 0, BODY.limit());
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        long size;
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + playerName.length);
+            header.putInt(MAGIC).putInt(VERSION).putInt(FRAME).putLong(SEED).putInt(BODY.limit())
+                    .putInt((int) checksum.getValue()).putShort((short) playerName.length).put(playerName);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            // the stream is finished rather than closed, the channel is closed once it is forced
+            OutputStream channelOut = Channels.newOutputStream(channel);
+            DeflaterOutputStream out = new DeflaterOutputStream(channelOut, deflater, WRITE_BUFFER_BYTES);
+            out.write(BODY.array(), 0, BODY.limit());
+            out.finish();
+            channel.force(true);
+            size = channel.size();
+        } finally {
+            deflater.end();
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * Read a save state written by write.
+     * @param file the file to read
+     * @return the save state, or null if there is no file
+     * @throws IOException if the file cannot be read, is not a save state of this version or is damaged
+     */
+    public static SaveState read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (data.remaining() < HEADER_BYTES || data.getInt() != MAGIC || data.getInt() != VERSION) {
+            throw new IOException(file + " is not a save state of version " + VERSION);
+        }
+        int frame = data.getInt();
+        long seed = data.getLong();
+        int bodyLength = data.getInt();
+        int expectedChecksum = data.getInt();
+        int playerNameLength = data.getShort();
+        if (bodyLength < 0 || playerNameLength < 0 || data.remaining() < playerNameLength) {
+            throw new IOException(file + " is damaged");
+        }
+        byte[] playerName = new byte[playerNameLength];
+        data.get(playerName);
+        if (bodyLength > MAX_BODY_BYTES || bodyLength > (long) data.remaining() * MAX_COMPRESSION_RATIO) {
+            throw new IOException(file + " is damaged, its state cannot be " + bodyLength + " bytes");
+        }
+
+        byte[] body = new byte[bodyLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            int inflated = 0;
+            while (inflated < bodyLength && !inflater.finished() && !inflater.needsInput()) {
+                inflated += inflater.inflate(body, inflated, bodyLength - inflated);
+            }
+            if (inflated != bodyLength) {
+                throw new IOException(file + " is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(file + " is damaged", e);
+        } finally {
+            inflater.end();
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(body);
+        if ((int) checksum.getValue() != expectedChecksum) {
+            throw new IOException(file + " is damaged");
+        }
+        return new SaveState(new String(playerName, StandardCharsets.UTF_8), seed, frame, ByteBuffer.wrap(body));
+    }
+
+    /**
+     * Write a string to a save state, as its length in UTF-8 bytes followed by the bytes.
+     * @param out the buffer to write to
+     * @param value the string, or null
+     */
+    static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Read a string written by putString.
+     * @param in the buffer to read from
+     * @return the string, or null
+     */
+    static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "save state: player=" + PLAYER_NAME + " seed=" + SEED + " frame=" + FRAME + " bytes=" + getSize();
+    }
+}
@@ -0,0 +1,315 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An append-only file of the scores of previous game plays. The file starts with a header, followed by one
+ * fixed-width record per score, so scores are appended without rewriting the file and read through a memory-mapped
+ * file without parsing text.
+ * A record holds the length of the player's name in UTF-8 bytes, the name padded to NAME_BYTES and the score.
+ * Names longer than NAME_BYTES are cut at a character boundary. A record that was only partly written is ignored
+ * and overwritten by the next score.
+ */
+public class ScoreLog {
+    private static final int MAGIC = 0x5354534C; // "STSL"
+    private static final int VERSION = 1;
+    // magic, version, record size and a reserved int
+    static final int HEADER_BYTES = 4 * Integer.BYTES;
+    static final int RECORD_BYTES = 64;
+    static final int NAME_BYTES = RECORD_BYTES - Short.BYTES - Double.BYTES;
+
+    private final Path FILE;
+
+    public ScoreLog(String filename) {
+        this.FILE = Paths.get(filename);
+    }
+
+    /**
+     * Add a score to the end of the log. The log is created if it does not exist.
+     * @param playerName The name of the player.
+     * @param score The score of the game play.
+     * @throws UncheckedIOException if the score cannot be written.
+     */
+    public void append(String playerName, double score) {
+        appendAll(Collections.singletonList(new Score(playerName, score)), false);
+    }
+
+    /**
+     * Add scores to the end of the log in one write. The log is created if it does not exist.
+     * @param scores The scores, in the order they were saved.
+     * @param sync Whether to wait until the scores are on the storage device, so they survive a power cut.
+     * @throws UncheckedIOException if the scores cannot be written, so none of them may have been saved.
+     */
+    public void appendAll(List<Score> scores, boolean sync) {
+        if (scores.isEmpty()) {
+            return;
+        }
+        GameEvents.ScoreWrite event = new GameEvents.ScoreWrite();
+        event.begin();
+        ByteBuffer buffer = ByteBuffer.allocate(scores.size() * RECORD_BYTES);
+        for (Score score : scores) {
+            putRecord(buffer, score.getPlayerName(), score.getScore());
+        }
+        buffer.flip();
+        try {
+            write(buffer, sync);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (event.shouldCommit()) {
+            Score last = scores.get(scores.size() - 1);
+            event.file = FILE.toString();
+            event.player = last.getPlayerName();
+            event.score = last.getScore();
+            event.scores = scores.size();
+            event.bytes = buffer.position();
+            event.synced = sync;
+            event.commit();
+        }
+    }
+
+    /**
+     * Get the number of scores in the log.
+     * @return the number of complete records, 0 if the log does not exist.
+     */
+    public int size() {
+        try {
+            return Files.exists(FILE) ? getRecordCount(Files.size(FILE)) : 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Read every score in the log.
+     * @return the scores in the order they were added.
+     * @throws UncheckedIOException if the log cannot be read or is damaged.
+     */
+    public Score[] readAll() {
+        ArrayList<Score> scores = new ArrayList<>(size());
+        forEach(scores::add);
+        return scores.toArray(new Score[0]);
+    }
+
+    /**
+     * Pass every score in the log to an action, in the order they were added. Only one record is decoded at a time,
+     * so the log does not have to fit in memory.
+     * @param action The action to perform on each score.
+     * @throws UncheckedIOException if the log cannot be read or is damaged.
+     */
+    public void forEach(Consumer<Score> action) {
+        if (!Files.exists(FILE)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(FILE, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                // the log is empty, or its header was torn before any score was written
+                return;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            checkHeader(buffer);
+
+            byte[] name = new byte[NAME_BYTES];
+            int recordCount = getRecordCount(fileSize);
+            for (int i = 0; i < recordCount; i++) {
+                int offset = HEADER_BYTES + i * RECORD_BYTES;
+                int nameLength = buffer.getShort(offset);
+                if (nameLength < 0 || nameLength > NAME_BYTES) {
+                    throw new IOException(FILE + " is damaged at score " + i);
+                }
+                buffer.get(offset + Short.BYTES, name, 0, nameLength);
+                double score = buffer.getDouble(offset + Short.BYTES + NAME_BYTES);
+                action.accept(new Score(new String(name, 0, nameLength, StandardCharsets.UTF_8), score));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Create the log from a scores file in the CSV format used by earlier versions of the game, where each line holds
+     * a player name and a score separated by a comma. Nothing is done if the log already holds scores, so this can be
+     * called every time the game starts.
+     * The log is built in a file next to it, forced to the storage device and then moved into place, so a crash during
+     * the import leaves no log and the import is done again on the next start.
+     * Lines without a player name and a score are skipped.
+     * @param csvFile The CSV file to import.
+     * @return the number of scores imported.
+     */
+    public int importCsvIfNew(String csvFile) {
+        // a log without scores may only hold the header of a log created by an import that crashed
+        if (size() > 0 || !Files.exists(Paths.get(csvFile))) {
+            return 0;
+        }
+        ByteBuffer records = encodeCsv(csvFile);
+        Path tempFile = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+        try {
+            // drop what an import that crashed left behind
+            Files.deleteIfExists(tempFile);
+            new ScoreLog(tempFile.toString()).write(records, true);
+            Files.move(tempFile, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+        return records.limit() / RECORD_BYTES;
+    }
+
+    /**
+     * Add every score of a CSV scores file to the end of the log.
+     * Lines without a player name and a score are skipped.
+     * @param csvFile The CSV file to import, each line holding a player name and a score separated by a comma.
+     * @return the number of scores imported.
+     */
+    public int importCsv(String csvFile) {
+        ByteBuffer records = encodeCsv(csvFile);
+        try {
+            write(records, false);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+        return records.limit() / RECORD_BYTES;
+    }
+
+    /**
+     * Write every score in the log to a CSV file, in the format used by earlier versions of the game.
+     * @param csvFile The CSV file to write. An existing file is replaced.
+     */
+    public void exportCsv(String csvFile) {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(csvFile), StandardCharsets.UTF_8)) {
+            forEach(score -> {
+                try {
+                    writer.write(score.getPlayerName() + "," + score.getScore());
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Write records after the last complete record of the log, creating the log with its header if it is empty.
+     * A log shorter than its header holds no scores, its header was torn by a crash while the log was created, so it
+     * is created again.
+     * @param records The encoded records.
+     * @param sync Whether to force the records to the storage device before returning.
+     */
+    private void write(ByteBuffer records, boolean sync) throws IOException {
+        try (FileChannel channel = FileChannel.open(FILE, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                header.flip();
+                checkHeader(header);
+            }
+
+            // drop a record that was only partly written
+            long end = HEADER_BYTES + (long) getRecordCount(channel.size()) * RECORD_BYTES;
+            channel.truncate(end);
+            while (records.hasRemaining()) {
+                end += channel.write(records, end);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        }
+    }
+
+    private void checkHeader(ByteBuffer header) throws IOException {
+        if (header.limit() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException(FILE + " is not a score log");
+        }
+        if (header.getInt(Integer.BYTES) != VERSION || header.getInt(2 * Integer.BYTES) != RECORD_BYTES) {
+            throw new IOException(FILE + " has an unsupported score log version");
+        }
+    }
+
+    /**
+     * Encode the lines of a CSV scores file as records. A line that does not hold a player name and a score, such as
+     * a blank line, is reported and skipped, so one bad line does not stop the other scores being imported.
+     * @param csvFile The CSV file.
+     * @return the records, one for each line that was not skipped.
+     */
+    private static ByteBuffer encodeCsv(String csvFile) {
+        ArrayList<String[]> lines = IOUtils.readCommaSeperatedFile(csvFile);
+        ByteBuffer buffer = ByteBuffer.allocate(lines.size() * RECORD_BYTES);
+        for (int i = 0; i < lines.size(); i++) {
+            String[] line = lines.get(i);
+            try {
+                if (line.length < 2) {
+                    throw new NumberFormatException("no score");
+                }
+                putRecord(buffer, line[0], Double.parseDouble(line[1]));
+            } catch (NumberFormatException e) {
+                System.err.println("Skipped line " + (i + 1) + " of " + csvFile + ": " + e.getMessage());
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int getRecordCount(long fileSize) {
+        return (int) (Math.max(0, fileSize - HEADER_BYTES) / RECORD_BYTES);
+    }
+
+    private static void putRecord(ByteBuffer buffer, String playerName, double score) {
+        byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(name.length, NAME_BYTES);
+        // do not cut a multi-byte character in half
+        while (nameLength < name.length && (name[nameLength] & 0xC0) == 0x80) {
+            nameLength--;
+        }
+        int start = buffer.position();
+        buffer.putShort((short) nameLength);
+        buffer.put(name, 0, nameLength);
+        buffer.position(start + Short.BYTES + NAME_BYTES);
+        buffer.putDouble(score);
+    }
+
+    /**
+     * Convert between a score log and a CSV scores file.
+     * @param args import or export, the score log and the CSV file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 || !(args[0].equals("import") || args[0].equals("export"))) {
+            System.err.println("Usage: ScoreLog import|export <score log> <csv file>");
+            System.exit(-1);
+        }
+        ScoreLog scoreLog = new ScoreLog(args[1]);
+        if (args[0].equals("import")) {
+            System.out.println("Imported " + scoreLog.importCsv(args[2]) + " scores");
+        } else {
+            scoreLog.exportCsv(args[2]);
+            System.out.println("Exported " + scoreLog.size() + " scores");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Saves scores to a Leaderboard on a background thread, so the end of a game play never waits for the disk.
+ * Every score file access goes through the one writer thread, in the order it was asked for. The scores that are
+ * waiting when the thread wakes up are saved with one write, and a read of the top scores waits for the scores that
+ * were saved before it, so the end screen always shows the score of the game just played.
+ * Each save returns a future that completes once the score is written, or once it is on the storage device if the
+ * writer syncs. Close the writer when the game exits to save the scores still waiting.
+ */
+public class ScoreWriter implements AutoCloseable {
+    // handed to the writer thread to make it stop
+    private static final Request END = new Request(null, null, null);
+
+    private final Leaderboard LEADERBOARD;
+    private final boolean SYNC;
+    private final BlockingQueue<Request> PENDING = new LinkedBlockingQueue<>();
+    private final Thread WRITER;
+    private volatile int savedCount;
+    private volatile int batchCount;
+    private boolean closed;
+
+    /**
+     * Start the writer thread.
+     * @param leaderboard the leaderboard the scores are saved to
+     * @param sync whether to force every batch of scores to the storage device before acknowledging it
+     */
+    public ScoreWriter(Leaderboard leaderboard, boolean sync) {
+        this.LEADERBOARD = leaderboard;
+        this.SYNC = sync;
+        WRITER = new Thread(this::writeScores, "score-writer");
+        WRITER.setDaemon(true);
+        WRITER.start();
+    }
+
+    /**
+     * Queue a score to be saved.
+     * @param playerName The name of the player.
+     * @param score The score of the game play.
+     * @return a future that completes once the score has been written, or completes exceptionally if it could not
+     *         be written or the writer is closed
+     */
+    public CompletableFuture<Void> save(String playerName, double score) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("The score writer is closed"));
+        }
+        CompletableFuture<Void> saved = new CompletableFuture<>();
+        PENDING.add(new Request(new Score(playerName, score), saved, null));
+        return saved;
+    }
+
+    /**
+     * Read the top scores after every score queued so far has been saved.
+     * @return a future of the top scores, best first, which completes exceptionally if the writer is closed
+     */
+    public CompletableFuture<Score[]> getTopScores() {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("The score writer is closed"));
+        }
+        CompletableFuture<Score[]> topScores = new CompletableFuture<>();
+        PENDING.add(new Request(null, null, topScores));
+        return topScores;
+    }
+
+    /**
+     * Save the scores still waiting and stop the writer thread. Closing the writer again does nothing.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        PENDING.add(END);
+        try {
+            WRITER.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeScores() {
+        List<Request> requests = new ArrayList<>();
+        List<Request> saves = new ArrayList<>();
+        List<Score> scores = new ArrayList<>();
+        try {
+            while (true) {
+                requests.add(PENDING.take());
+                PENDING.drainTo(requests);
+                for (Request request : requests) {
+                    if (request.SCORE != null) {
+                        saves.add(request);
+                        scores.add(request.SCORE);
+                        continue;
+                    }
+                    // reads and the end of the queue see every score queued before them
+                    saveBatch(saves, scores);
+                    if (request == END) {
+                        return;
+                    }
+                    readTopScores(request.TOP_SCORES);
+                }
+                saveBatch(saves, scores);
+                requests.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void saveBatch(List<Request> saves, List<Score> scores) {
+        if (saves.isEmpty()) {
+            return;
+        }
+        try {
+            LEADERBOARD.saveAll(scores, SYNC);
+            for (Request save : saves) {
+                save.SAVED.complete(null);
+            }
+            savedCount += scores.size();
+            batchCount++;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            for (Request save : saves) {
+                save.SAVED.completeExceptionally(e);
+            }
+        }
+        saves.clear();
+        scores.clear();
+    }
+
+    private void readTopScores(CompletableFuture<Score[]> topScores) {
+        try {
+            topScores.complete(LEADERBOARD.getTopScores());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            topScores.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("scores: saved=%d batches=%d pending=%d sync=%b",
+                savedCount, batchCount, PENDING.size(), SYNC);
+    }
+
+    /**
+     * A score to save, or a read of the top scores.
+     */
+    private static class Request {
+        private final Score SCORE;
+        private final CompletableFuture<Void> SAVED;
+        private final CompletableFuture<Score[]> TOP_SCORES;
+
+        private Request(Score score, CompletableFuture<Void> saved, CompletableFuture<Score[]> topScores) {
+            this.SCORE = score;
+            this.SAVED = saved;
+            this.TOP_SCORES = topScores;
+        }
+    }
+}
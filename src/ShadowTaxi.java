@@ -5,27 +5,69 @@
 
 import bagel.*;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Properties;
 
 public class ShadowTaxi extends AbstractGame {
+    // shows or hides the frame profiler overlay
+    private static final Keys PROFILER_KEY = Keys.F3;
 
-    private final Properties GAME_PROPS;
+    private final GameConfig CONFIG;
     private final Properties MESSAGE_PROPS;
+    private final BagelInput INPUT;
+    private final TickInput TICK_INPUT;
+    private final GameClock CLOCK;
+    private final FrameProfiler PROFILER;
+    private final AssetCache ASSETS;
+    private final AssetLoader LOADER;
+    private final ScoreWriter SCORES;
+    private final CheckpointWriter CHECKPOINTS;
+    // draws one image at a time until the sprite atlas is loaded, then in batches from the atlas
+    private Renderer renderer;
+    private boolean isRendererChosen;
 
     private HomeScreen homeScreen;
     private GamePlayScreen gamePlayScreen;
     private PlayerInfoScreen playerInfoScreen;
     private GameEndScreen gameEndScreen;
+    private ReplayWriter replay;
+    // the checkpoint of a game play that did not finish, resumed on the first frame
+    private SaveState resumeState;
 
-    public ShadowTaxi(Properties gameProps, Properties messageProps) {
-        super(Integer.parseInt(gameProps.getProperty("window.width")),
-                Integer.parseInt(gameProps.getProperty("window.height")),
-                messageProps.getProperty("home.title"));
+    public ShadowTaxi(GameConfig config, Properties messageProps) {
+        super(config.WINDOW_WIDTH, config.WINDOW_HEIGHT, messageProps.getProperty("home.title"));
 
-        this.GAME_PROPS = gameProps;
+        this.CONFIG = config;
         this.MESSAGE_PROPS = messageProps;
+        this.INPUT = new BagelInput();
+        this.TICK_INPUT = new TickInput();
+        this.CLOCK = new GameClock(config.TICKS_PER_SECOND, config.MAX_TICKS_PER_FRAME);
+        this.PROFILER = new FrameProfiler(config.FONT);
+        this.ASSETS = new AssetCache();
+        // load the atlas, the level and the game play images while the player is on the home and player info screens
+        this.LOADER = new AssetLoader(CONFIG, ASSETS);
+        this.renderer = new BagelRenderer(ASSETS);
 
-        homeScreen = new HomeScreen(GAME_PROPS, MESSAGE_PROPS);
+        // scores used to be saved to a CSV file, carry them over the first time the game starts
+        try {
+            new ScoreLog(CONFIG.SCORES_FILE).importCsvIfNew(CONFIG.CSV_SCORES_FILE);
+        } catch (RuntimeException e) {
+            // the game still starts, with only the scores saved from now on
+            e.printStackTrace();
+        }
+        this.SCORES = new ScoreWriter(
+                new Leaderboard(CONFIG.SCORES_FILE, CONFIG.TOP_SCORES_FILE, CONFIG.TOP_SCORES_COUNT),
+                CONFIG.SYNC_SCORES);
+        this.CHECKPOINTS = new CheckpointWriter(Paths.get(CONFIG.CHECKPOINT_FILE), CONFIG.CHECKPOINT_INTERVAL);
+        try {
+            resumeState = SaveState.read(Paths.get(CONFIG.CHECKPOINT_FILE));
+        } catch (IOException e) {
+            e.printStackTrace();
+            resumeState = null;
+        }
+
+        homeScreen = new HomeScreen(CONFIG, MESSAGE_PROPS, ASSETS);
     }
 
     /**
@@ -35,44 +77,181 @@ public class ShadowTaxi extends AbstractGame {
     @Override
     protected void update(Input input) {
         if (input.wasPressed(Keys.ESCAPE)){
+            shutdown();
             Window.close();
+            // the writers are closed, so the game play must not run another tick
+            return;
+        }
+        if (input.wasPressed(PROFILER_KEY)) {
+            PROFILER.toggle();
+        }
+
+        // carry on with the game play that was interrupted by a crash or a power cut
+        if (resumeState != null) {
+            resumeGamePlay();
         }
 
         // render the home screen
+        long start = PROFILER.start();
+        if (gamePlayScreen == null) {
+            LOADER.update();
+            chooseRenderer();
+            start = PROFILER.lap(FrameProfiler.Phase.ASSET_LOADING, start);
+        }
         if (gamePlayScreen == null && playerInfoScreen == null && gameEndScreen == null) {
             // if the user click ENTER button when in the Home Screen, generate the player info screen
-            if(homeScreen.update(input)) {
-                playerInfoScreen = new PlayerInfoScreen(GAME_PROPS, MESSAGE_PROPS);
+            boolean isEnterPressed = homeScreen.update(input);
+            PROFILER.lap(FrameProfiler.Phase.HOME_SCREEN, start);
+            if(isEnterPressed) {
+                playerInfoScreen = new PlayerInfoScreen(CONFIG, MESSAGE_PROPS, ASSETS);
+                GameEvents.screenTransition("HOME", "PLAYER_INFO");
             }
         } else if(playerInfoScreen != null && gamePlayScreen == null && gameEndScreen == null) {
             // if the user selects to start the game, generate a new game play screen
-            if(playerInfoScreen.update(input)) {
-                gamePlayScreen = new GamePlayScreen(GAME_PROPS, MESSAGE_PROPS, playerInfoScreen.getPlayerName());
+            boolean isStarted = playerInfoScreen.update(input);
+            PROFILER.lap(FrameProfiler.Phase.PLAYER_INFO_SCREEN, start);
+            if(isStarted) {
+                // wait for what is still loading, usually nothing, rather than load on the first frames on screen
+                LOADER.finish();
+                chooseRenderer();
+                long seed = GameRandom.newSeed();
+                gamePlayScreen = new GamePlayScreen(CONFIG, MESSAGE_PROPS, playerInfoScreen.getPlayerName(), seed,
+                        LOADER.getLevel(), SCORES);
+                gamePlayScreen.setProfiler(PROFILER);
                 playerInfoScreen = null;
+                startReplay(seed);
+                CHECKPOINTS.start(gamePlayScreen);
+                CLOCK.reset();
+                GameEvents.screenTransition("PLAYER_INFO", "GAME_PLAY");
             }
         } else if (playerInfoScreen == null && gamePlayScreen != null && gameEndScreen == null){
+            // run the game play at the tick rate, however many frames are rendered per second
+            TICK_INPUT.latch(INPUT.wrap(input));
+            boolean isFinished = false;
+            int ticks = CLOCK.advance(System.nanoTime());
+            for (int tick = 0; tick < ticks && !isFinished; tick++) {
+                if (replay != null) {
+                    replay.record(TICK_INPUT);
+                }
+                isFinished = gamePlayScreen.update(TICK_INPUT);
+                TICK_INPUT.nextTick();
+            }
+            if (!isFinished) {
+                CHECKPOINTS.update(gamePlayScreen);
+            }
+            start = PROFILER.start();
+            gamePlayScreen.render(renderer, CLOCK.getAlpha());
+            PROFILER.lap(FrameProfiler.Phase.RENDER, start);
+
             // if the game is over or the level is completed, generate new game end screen
-            if(gamePlayScreen.update(input)) {
+            if(isFinished) {
                 boolean isWon = gamePlayScreen.isLevelCompleted();
 
-                gameEndScreen = new GameEndScreen(GAME_PROPS, MESSAGE_PROPS);
+                gameEndScreen = new GameEndScreen(CONFIG, MESSAGE_PROPS, ASSETS, SCORES);
                 gameEndScreen.setIsWon(isWon);
 
                 gamePlayScreen = null;
+                stopReplay();
+                CHECKPOINTS.discard();
+                GameEvents.screenTransition("GAME_PLAY", "GAME_END");
             }
         } else if(playerInfoScreen == null && gamePlayScreen == null && gameEndScreen != null) {
-            if(gameEndScreen.update(input)) {
+            boolean isRestarted = gameEndScreen.update(input);
+            PROFILER.lap(FrameProfiler.Phase.GAME_END_SCREEN, start);
+            if(isRestarted) {
                 gamePlayScreen = null;
                 playerInfoScreen = null;
                 gameEndScreen = null;
+                GameEvents.screenTransition("GAME_END", "HOME");
             }
         }
+
+        PROFILER.render(renderer);
+        start = PROFILER.start();
+        renderer.flush();
+        PROFILER.lap(FrameProfiler.Phase.FLUSH, start);
+        PROFILER.setDrawCounts(renderer.getDrawCount(), renderer.getTextureSwitchCount());
+        PROFILER.endFrame();
+    }
+
+    /**
+     * Start recording the input of a game play to the replay file, so it can be played again by the HeadlessRunner.
+     * The game is played without a recording if the file cannot be created.
+     * @param seed the seed of the game play
+     */
+    private void startReplay(long seed) {
+        try {
+            replay = new ReplayWriter(Paths.get(CONFIG.REPLAY_FILE), seed);
+        } catch (IOException e) {
+            e.printStackTrace();
+            replay = null;
+        }
+    }
+
+    /**
+     * Resume the game play of the checkpoint read when the game started, in place of the home screen. The resumed game
+     * play is not recorded to the replay file, which keeps the replay of the game play up to the crash. If the
+     * checkpoint does not match the level, the game starts on the home screen.
+     */
+    private void resumeGamePlay() {
+        SaveState state = resumeState;
+        resumeState = null;
+        LOADER.finish();
+        chooseRenderer();
+        try {
+            gamePlayScreen = new GamePlayScreen(CONFIG, MESSAGE_PROPS, state, LOADER.getLevel(), SCORES);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            CHECKPOINTS.discard();
+            return;
+        }
+        gamePlayScreen.setProfiler(PROFILER);
+        CHECKPOINTS.start(gamePlayScreen);
+        CLOCK.reset();
+        GameEvents.screenTransition("HOME", "GAME_PLAY");
+    }
+
+    /**
+     * Draw the game play sprites from the atlas in batches once it is loaded, or keep drawing one image at a time if
+     * there is no atlas. The renderer is only changed between frames, after the last one was flushed.
+     */
+    private void chooseRenderer() {
+        if (isRendererChosen || !LOADER.isAtlasLoaded()) {
+            return;
+        }
+        SpriteAtlas atlas = LOADER.getAtlas();
+        if (atlas != null) {
+            renderer = new BatchRenderer(ASSETS, atlas);
+        }
+        isRendererChosen = true;
+    }
+
+    /**
+     * Finish the files the game is writing: the replay of the game play and the scores still waiting to be saved.
+     * The player chose to quit, so the checkpoint is deleted and the next start shows the home screen; only a crash
+     * or a power cut leaves a checkpoint to resume.
+     */
+    private void shutdown() {
+        stopReplay();
+        CHECKPOINTS.discard();
+        CHECKPOINTS.close();
+        SCORES.close();
+        LOADER.close();
+    }
+
+    private void stopReplay() {
+        if (replay != null) {
+            replay.close();
+            replay = null;
+        }
     }
 
     public static void main(String[] args) {
-        Properties game_props = IOUtils.readPropertiesFile("res/app.properties");
+        GameConfig config = new GameConfig(IOUtils.readPropertiesFile("res/app.properties"));
         Properties message_props = IOUtils.readPropertiesFile("res/message_en.properties");
-        ShadowTaxi game = new ShadowTaxi(game_props, message_props);
+        ShadowTaxi game = new ShadowTaxi(config, message_props);
         game.run();
+        // the window can also be closed without ESCAPE
+        game.shutdown();
     }
 }
@@ -0,0 +1,155 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A uniform grid that buckets GameObjects by position, so the objects near a point can be found without checking
+ * every object. Objects are stored by their index in the list the grid was built from, which lets callers visit
+ * the nearby objects in the same order as the list.
+ * The cells are kept in an open-addressing table keyed by the cell coordinates as a primitive long. Clearing the grid
+ * only starts a new generation, a slot of an older generation is free, so the slots and their buckets are reused by
+ * every rebuild and a rebuild allocates nothing once the table has grown to its working size.
+ */
+public class SpatialHash {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final double CELL_SIZE;
+    // the key, bucket and generation of each slot; the capacity is a power of two
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private IntList[] cells = new IntList[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int generation = 1;
+    private int cellCount;
+    private double maxRadius;
+
+    public SpatialHash(double cellSize) {
+        this.CELL_SIZE = cellSize;
+    }
+
+    /**
+     * Remove all objects from the grid. The slots and their buckets are kept for the next build.
+     */
+    public void clear() {
+        generation++;
+        if (generation == 0) {
+            // the generation wrapped around, forget every slot rather than mistake an old one for a used one
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        cellCount = 0;
+        maxRadius = 0;
+    }
+
+    /**
+     * Rebuild the grid from the current positions of a list of objects.
+     * @param objects the objects to bucket, identified by their index in this list
+     */
+    public void build(List<? extends GameObject> objects) {
+        clear();
+        for (int i = 0; i < objects.size(); i++) {
+            insert(i, objects.get(i));
+        }
+    }
+
+    /**
+     * Add an object to the cell that contains its position.
+     * @param index the index used to identify the object
+     * @param object the object to add
+     */
+    public void insert(int index, GameObject object) {
+        long key = cellKey(cellOf(object.getX()), cellOf(object.getY()));
+        int slot = findSlot(key);
+        if (generations[slot] != generation) {
+            if (2 * (cellCount + 1) > keys.length) {
+                grow();
+                slot = findSlot(key);
+            }
+            if (cells[slot] == null) {
+                cells[slot] = new IntList();
+            }
+            cells[slot].clear();
+            keys[slot] = key;
+            generations[slot] = generation;
+            cellCount++;
+        }
+        cells[slot].add(index);
+        maxRadius = Math.max(maxRadius, object.getRADIUS());
+    }
+
+    /**
+     * Find every object in the grid that could be colliding with the given object. All objects whose centres are
+     * within the sum of both radii along each axis are added, along with some further away objects.
+     * @param object the object to find neighbours for
+     * @param out the list the indices of the neighbours are added to
+     */
+    public void query(GameObject object, IntList out) {
+        double range = object.getRADIUS() + maxRadius;
+        int minCellX = cellOf(object.getX() - range);
+        int maxCellX = cellOf(object.getX() + range);
+        int minCellY = cellOf(object.getY() - range);
+        int maxCellY = cellOf(object.getY() + range);
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                int slot = findSlot(cellKey(cellX, cellY));
+                if (generations[slot] == generation) {
+                    out.addAll(cells[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the slot of a cell, or the free slot it would go in.
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (generations[slot] == generation && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Double the table and move the cells of this generation over. The buckets of the free slots are kept as well.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        IntList[] oldCells = cells;
+        int[] oldGenerations = generations;
+        keys = new long[oldKeys.length * 2];
+        cells = new IntList[oldKeys.length * 2];
+        generations = new int[oldKeys.length * 2];
+
+        int spare = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldGenerations[i] == generation) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                cells[slot] = oldCells[i];
+                generations[slot] = generation;
+            }
+        }
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldGenerations[i] != generation && oldCells[i] != null) {
+                while (cells[spare] != null) {
+                    spare++;
+                }
+                cells[spare] = oldCells[i];
+            }
+        }
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    private static int hash(long key) {
+        key *= 0x9e3779b97f4a7c15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
@@ -0,0 +1,94 @@
+import bagel.DrawOptions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The sprites of the game play packed into one atlas image by the AtlasPacker. Each sprite is drawn by drawing its
+ * section of the atlas image, so every sprite shares the texture of the atlas.
+ */
+public class SpriteAtlas {
+    private final String IMAGE;
+    // the section of the atlas image each sprite image is drawn from
+    private final Map<String, DrawOptions> SECTIONS;
+
+    private SpriteAtlas(String image, Map<String, DrawOptions> sections) {
+        this.IMAGE = image;
+        this.SECTIONS = sections;
+    }
+
+    /**
+     * Load the atlas of the game play sprites. The atlas is packed again if it is not up to date with the sprite
+     * images.
+     * @param config the game configuration the atlas files are read from
+     * @return the atlas, or null if it cannot be written or read, in which case the sprites are drawn from their own
+     *         images
+     */
+    public static SpriteAtlas load(GameConfig config) {
+        Path indexFile = Paths.get(config.ATLAS_INDEX);
+        List<String> spriteFiles = GamePlayScreen.getSpriteFiles(config);
+        if (!AtlasPacker.isUpToDate(indexFile, spriteFiles)
+                && !AtlasPacker.pack(spriteFiles, Paths.get(config.ATLAS_IMAGE), indexFile)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+            Map<String, DrawOptions> sections = new HashMap<>();
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split(",");
+                sections.put(fields[0], new DrawOptions().setSection(Integer.parseInt(fields[1]),
+                        Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+            }
+            return new SpriteAtlas(lines.get(0), sections);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @return the path to the atlas image
+     */
+    public String getImage() {
+        return IMAGE;
+    }
+
+    /**
+     * Get the section of the atlas image a sprite is drawn from.
+     * @param imageFile the path to the sprite image
+     * @return the draw options selecting the section, or null if the image is not in the atlas
+     */
+    public DrawOptions getSection(String imageFile) {
+        return SECTIONS.get(imageFile);
+    }
+
+    /**
+     * Map a group of images to the image files that have to be loaded to draw them: the atlas image in place of the
+     * sprites it holds, and the other images as they are.
+     * @param imageFiles the paths to the image files
+     * @return the paths to the image files to load, without duplicates
+     */
+    public List<String> getTextureFiles(Collection<String> imageFiles) {
+        List<String> textureFiles = new ArrayList<>();
+        for (String imageFile : imageFiles) {
+            String textureFile = SECTIONS.containsKey(imageFile) ? IMAGE : imageFile;
+            if (!textureFiles.contains(textureFile)) {
+                textureFiles.add(textureFile);
+            }
+        }
+        return textureFiles;
+    }
+
+    @Override
+    public String toString() {
+        return "atlas: " + IMAGE + " sprites=" + SECTIONS.size();
+    }
+}
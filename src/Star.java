@@ -1,13 +1,10 @@
-import java.util.*;
-
 /**
  * Class representing the Star Power-up in the game.
  * The Star can make the player invincible to collision damage for a period of time.
  */
 public class Star extends PowerUp {
-    public Star(int x, int y, Properties props) {
-        super(x, y, props, "gameObjects.invinciblePower.image",
-                "gameObjects.invinciblePower.radius", "gameObjects.invinciblePower.maxFrames");
+    public Star(int x, int y, GameWorld world) {
+        super(x, y, world, world.CONFIG.INVINCIBLE_POWER);
     }
 
     /**
@@ -4,38 +4,55 @@
  * Modifications have been made to implement collision and damage functionality.
  */
 
-import bagel.*;
-import java.util.*;
+import bagel.Keys;
+
+import java.nio.ByteBuffer;
 
 /**
- * The class representing the taxis in the game play
+ * The class representing the taxis in the game play.
+ * The taxi the driver is in stays in its place on the screen, so it moves up the road as the camera scrolls. Any
+ * other taxi stays in its place on the road.
  */
 public class Taxi extends Car {
-    private static final int HEALTH_DISPLAY_FACTOR = 100;
-    private Image actualImage;
-    private final Image DAMAGED_IMAGE;
+    private String actualImage;
+    private final String DAMAGED_IMAGE;
     private final int SPEED_X;
     private boolean isMovingY;
     private boolean isMovingX;
 
     private Driver driver;
     private boolean driverOnBoard;
-    private final int SPEED_Y;
 
-    public Taxi(int x, int y, Properties props) {
-        super(x,y,new Image(props.getProperty("gameObjects.taxi.image")),
-                Double.parseDouble(props.getProperty("gameObjects.taxi.radius")),
-                Double.parseDouble(props.getProperty("gameObjects.taxi.damage")),
-                Double.parseDouble(props.getProperty("gameObjects.taxi.health")), props);
+    public Taxi(int x, int y, GameWorld world) {
+        super(x,y,world.CONFIG.TAXI.IMAGE, world.CONFIG.TAXI.RADIUS, world.CONFIG.TAXI.DAMAGE, world.CONFIG.TAXI.HEALTH, world);
 
         this.actualImage = this.IMAGE;
-        this.SPEED_X = Integer.parseInt(props.getProperty("gameObjects.taxi.speedX"));
+        this.SPEED_X = world.CONFIG.TAXI.SPEED_X;
 //        this.SPEED_X = 5;
-        this.SPEED_Y = Integer.parseInt(props.getProperty("gameObjects.taxi.speedY"));
-        this.DAMAGED_IMAGE = new Image(props.getProperty("gameObjects.taxi.damagedImage"));
+        this.DAMAGED_IMAGE = world.CONFIG.TAXI.DAMAGED_IMAGE;
         this.driverOnBoard = false;
     }
 
+    /**
+     * Write the state of the Taxi to a save state. The driver it belongs to is left to the game play.
+     * @param out the buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.put((byte) (actualImage.equals(DAMAGED_IMAGE) ? 1 : 0)).put((byte) (isMovingY ? 1 : 0))
+                .put((byte) (isMovingX ? 1 : 0)).put((byte) (driverOnBoard ? 1 : 0));
+    }
+
+    @Override
+    public void restoreState(ByteBuffer in) {
+        super.restoreState(in);
+        actualImage = in.get() != 0 ? DAMAGED_IMAGE : IMAGE;
+        isMovingY = in.get() != 0;
+        isMovingX = in.get() != 0;
+        driverOnBoard = in.get() != 0;
+    }
+
     public boolean isMovingY() {
         return isMovingY;
     }
@@ -45,37 +62,29 @@ public class Taxi extends Car {
     }
 
     /**
-     *  update the passenger status based on input if the passenger is not in the taxi or the trip is completed.
-     *  This means the passenger is go down when taxi moves up.
-     *  @param input The Keyboard input
+     * Update the fire of a taxi the driver is not in.
+     * @param input The current mouse/keyboard input.
      */
-    public void updateWithDriver(Input input) {
-        if (input != null) {
-            adjustToDriver(input);
-        }
-
-        move();
-        draw();
-
+    private void updateFire(InputState input) {
         if (this.getFire() != null && this.getFire().isActive()) {
-            this.getFire().update(input);  // Render the fire
+            this.getFire().update(input);
         }
     }
 
     /**
-     * Move the GameObject object in the y-direction based on the speedY attribute.
+     * Update a taxi that has been replaced after it was damaged. It stays on the road and its effects burn out.
+     * @param input The current mouse/keyboard input.
      */
-    @Override
-    public void move() {
-        this.setY(this.getY() + SPEED_Y * this.getMoveY());
+    public void updateAsWreck(InputState input) {
+        updateFire(input);
+        updateSmoke(input);
     }
 
     /**
      * Update the Taxi's movement states based on the input.
-     * Render the taxi into the screen.
      * @param input The current mouse/keyboard input.
      */
-    public void update(Input input) {
+    public void update(InputState input) {
         // if the driver has coin power, apply the effect of the coin on the priority of the passenger
         if (driver.getTrip() != null && driver.getCoinPower() != null) {
             TravelPlan tp = driver.getTrip().getPassenger().getTravelPlan();
@@ -98,61 +107,41 @@ public class Taxi extends Car {
                 adjustToInputMovement(input);
             }
         } else {
-            // No driver control, update according to input
-            updateWithDriver(input);
+            // No driver control
+            updateFire(input);
         }
 
         // Check if the taxi is damaged or health is 0
         if (this.isDamaged()) {
             actualImage = DAMAGED_IMAGE;
-            this.setFire(new Fire(GAME_PROPS, this.getX(), this.getY()));
+            restartFire();
             ejectDriver(driver);  // Eject the driver immediately when taxi is damaged
-
-            // Reset moveY to stop the taxi from moving downwards
-            this.setMoveY(0);
             isMovingY = false;
         }
-        draw();
 
-        // Render smoke if taxi takes damage
-        if (this.getSmoke() != null && this.getSmoke().getFrames()>0) {
-            this.getSmoke().update(input);
-        }
+        updateSmoke(input);
     }
 
     /**
-     * Adjust the movement direction in y-axis of the GameObject based on the keyboard input.
+     * Update the smoke effect if the taxi has taken damage.
      * @param input The current mouse/keyboard input.
      */
-    private void adjustToDriver(Input input) {
-        if (input.isDown(Keys.UP)) {
-            this.setMoveY(1);
-        } else if(input.wasReleased(Keys.UP)) {
-            this.setMoveY(0);
+    private void updateSmoke(InputState input) {
+        if (this.getSmoke() != null && this.getSmoke().getFrames()>0) {
+            this.getSmoke().update(input);
         }
     }
 
     /**
-     * Draw the current image into the screen.
+     * Draw the current image into the screen, with the fire and smoke effects on top.
+     * @param renderer the Renderer to draw with
      */
     @Override
-    public void draw() {
-        actualImage.draw(this.getX(), this.getY());
-    }
-
-    /**
-     * Draw the current health of the taxi on the screen.
-     * @param gameProps properties related to the game's graphical settings
-     * @param msgProps properties that contain messages and labels for the game
-     */
-    public void drawHealth(Properties gameProps, Properties msgProps){
-        String message = msgProps.getProperty("gamePlay.taxiHealth");
-
-        Font font = new Font(gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize")));
-        font.drawString(message + String.format("%.1f", Math.abs(this.getHealth() * HEALTH_DISPLAY_FACTOR)),
-                Integer.parseInt(gameProps.getProperty("gamePlay.taxiHealth.x")),
-                Integer.parseInt(gameProps.getProperty("gamePlay.taxiHealth.y")));
+    public void render(Renderer renderer) {
+        if (isVisible()) {
+            renderer.drawImage(actualImage, this.getRenderX(), this.getRenderY());
+        }
+        renderEffects(renderer);
     }
 
     /**
@@ -161,8 +150,7 @@ public class Taxi extends Car {
      * If the taxi does not have a driver, the taxi can move in all directions.
      * @param input The current mouse/keyboard input.
      */
-    @Override
-    public void adjustToInputMovement(Input input) {
+    public void adjustToInputMovement(InputState input) {
         if (input.wasPressed(Keys.UP)) {
             isMovingY = true;
         }  else if(input.wasReleased(Keys.UP)) {
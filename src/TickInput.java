@@ -0,0 +1,53 @@
+import bagel.Keys;
+
+import java.util.Arrays;
+
+/**
+ * An InputState for the ticks of the fixed-rate game play. A rendered frame can run no tick or several ticks, so the
+ * key presses and releases of every frame are kept until the next tick reads them, and each one is seen by exactly
+ * one tick. Held keys are read from the input of the latest frame.
+ */
+public class TickInput implements InputState {
+    private static final Keys[] KEYS = Keys.values();
+
+    private final boolean[] pressed = new boolean[KEYS.length];
+    private final boolean[] released = new boolean[KEYS.length];
+    private InputState frameInput;
+
+    /**
+     * Take in the input of a rendered frame. Its presses and releases are added to the ones no tick has read yet.
+     * @param input the input of the current frame
+     * @return this TickInput
+     */
+    public TickInput latch(InputState input) {
+        this.frameInput = input;
+        for (Keys key : KEYS) {
+            pressed[key.ordinal()] |= input.wasPressed(key);
+            released[key.ordinal()] |= input.wasReleased(key);
+        }
+        return this;
+    }
+
+    /**
+     * Finish the current tick, so the presses and releases it has seen are not seen again by the next tick.
+     */
+    public void nextTick() {
+        Arrays.fill(pressed, false);
+        Arrays.fill(released, false);
+    }
+
+    @Override
+    public boolean isDown(Keys key) {
+        return frameInput != null && frameInput.isDown(key);
+    }
+
+    @Override
+    public boolean wasPressed(Keys key) {
+        return pressed[key.ordinal()];
+    }
+
+    @Override
+    public boolean wasReleased(Keys key) {
+        return released[key.ordinal()];
+    }
+}
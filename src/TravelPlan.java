@@ -4,7 +4,7 @@
  */
 
 
-import java.util.Properties;
+import java.nio.ByteBuffer;
 
 /**
  * A class representing a travel plan, which has all the details of priority, coin power,
@@ -14,23 +14,27 @@ public class TravelPlan {
 
     private final int END_X;
     private final int DISTANCE_Y;
-    private final Properties PROPS;
+    private final GameConfig.TripConfig RATES;
 
     private int endY;
     private int currentPriority;
     private boolean coinPowerApplied;
 
-    public TravelPlan(int endX, int distanceY, int priority, Properties props) {
+    public TravelPlan(int endX, int distanceY, int priority, GameConfig.TripConfig rates) {
         this.END_X = endX;
         this.DISTANCE_Y = distanceY;
         this.currentPriority = priority;
-        this.PROPS = props;
+        this.RATES = rates;
     }
 
     public int getEndX() {
         return END_X;
     }
 
+    public int getDistanceY() {
+        return DISTANCE_Y;
+    }
+
     public int getPriority() {
         return currentPriority;
     }
@@ -55,15 +59,27 @@ public class TravelPlan {
         return this.coinPowerApplied;
     }
 
+    /**
+     * Write the parts of the travel plan that change during the game play to a save state.
+     * @param out the buffer to write to
+     */
+    public void saveState(ByteBuffer out) {
+        out.putInt(endY).putInt(currentPriority).put((byte) (coinPowerApplied ? 1 : 0));
+    }
+
+    public void restoreState(ByteBuffer in) {
+        endY = in.getInt();
+        currentPriority = in.getInt();
+        coinPowerApplied = in.get() != 0;
+    }
+
     /**
      * Get the expected fee of the trip based on the travel distance and priority.
      * @return The expected fee of the trip.
      */
     public float getExpectedFee() {
-        float ratePerY = Float.parseFloat(PROPS.getProperty("trip.rate.perY"));
-        float travelPlanDistanceFee = ratePerY * DISTANCE_Y;
-        float travelPlanPriorityFee = currentPriority * Float.parseFloat(
-                PROPS.getProperty(String.format("trip.rate.priority%d", currentPriority)));
+        float travelPlanDistanceFee = RATES.RATE_PER_Y * DISTANCE_Y;
+        float travelPlanPriorityFee = currentPriority * RATES.getPriorityRate(currentPriority);
 
         return travelPlanDistanceFee + travelPlanPriorityFee;
     }
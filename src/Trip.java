@@ -5,7 +5,7 @@
  */
 
 
-import java.util.Properties;
+import java.nio.ByteBuffer;
 
 /**
  * A class representing the trip in the game play.
@@ -14,7 +14,7 @@ import java.util.Properties;
  */
 public class Trip {
     private final Passenger PASSENGER;
-    private final Properties PROPS;
+    private final float PENALTY_PER_Y;
     private final TripEndFlag TRIP_END_FLAG;
     private Taxi taxi;
     private final Driver DRIVER;
@@ -23,13 +23,27 @@ public class Trip {
     private float fee;
     private float penalty;
 
-    public Trip(Passenger passenger, Driver driver, Properties props) {
+    public Trip(Passenger passenger, Driver driver, GameWorld world) {
         this.PASSENGER = passenger;
         this.DRIVER = driver;
         this.TRIP_END_FLAG = new TripEndFlag(passenger.getTravelPlan().getEndX(),
                                               passenger.getTravelPlan().getEndY(),
-                                              props);
-        this.PROPS = props;
+                                              world);
+        this.PENALTY_PER_Y = world.CONFIG.TRIP.PENALTY_PER_Y;
+    }
+
+    /**
+     * Write the state of the trip to a save state. The taxi it is in is left to the game play.
+     * @param out the buffer to write to
+     */
+    public void saveState(ByteBuffer out) {
+        out.put((byte) (isComplete ? 1 : 0)).putFloat(fee).putFloat(penalty);
+    }
+
+    public void restoreState(ByteBuffer in) {
+        isComplete = in.get() != 0;
+        fee = in.getFloat();
+        penalty = in.getFloat();
     }
 
     public Passenger getPassenger() {
@@ -52,6 +66,10 @@ public class Trip {
         return penalty;
     }
 
+    public Taxi getTaxi() {
+        return taxi;
+    }
+
     public void setTaxi(Taxi taxi) {
         this.taxi = taxi;
     }
@@ -90,8 +108,7 @@ public class Trip {
      * @return The current distance between the passenger and the drop-off point.
      */
     private float getCurrentDistance() {
-        return (float) Math.sqrt(Math.pow(TRIP_END_FLAG.getX() - PASSENGER.getX(), 2) +
-                Math.pow(TRIP_END_FLAG.getY() - PASSENGER.getY(), 2));
+        return (float) TRIP_END_FLAG.distanceTo(PASSENGER);
     }
 
     /**
@@ -102,6 +119,14 @@ public class Trip {
         PASSENGER.setIsGetInTaxi(null, null);
         DRIVER.setTrip(null);
         calculateFee();
+
+        GameEvents.TripEnd event = new GameEvents.TripEnd();
+        if (event.shouldCommit()) {
+            event.priority = PASSENGER.getTravelPlan().getPriority();
+            event.fee = fee;
+            event.penalty = penalty;
+            event.commit();
+        }
     }
 
     /**
@@ -112,7 +137,7 @@ public class Trip {
 
         // If the passenger has passed the drop-off point, a penalty will be applied to the fee.
         if (hasPassedDropOff()) {
-            float penalty = Float.parseFloat(PROPS.getProperty("trip.penalty.perY")) *
+            float penalty = PENALTY_PER_Y *
                     (TRIP_END_FLAG.getY() - PASSENGER.getY());
             initialFee -= penalty;
             this.penalty = penalty;
@@ -0,0 +1,100 @@
+/**
+ * Decides which game objects are close enough to the screen to be drawn or updated, and counts how many were not.
+ * A draw is culled when the centre of the object is more than the cull margin above or below the screen, which is
+ * further than half the height of any sprite, so nothing that could show on the screen is culled.
+ * An object that can sleep, such as a waiting passenger or a coin on the road, is not updated while it is more than the
+ * wake margin above or below the screen. Sleeping objects do nothing in their update until the taxi or the driver is
+ * near them, so the wake margin has to be larger than the distance they react from.
+ * The game objects never leave the road sideways, so only the y coordinate is checked.
+ */
+public class ViewCuller {
+    private final double MIN_DRAW_Y;
+    private final double MAX_DRAW_Y;
+    private final int MIN_AWAKE_Y;
+    private final int MAX_AWAKE_Y;
+
+    // the counts of the current or last render pass and tick
+    private int drawCount;
+    private int culledCount;
+    private int awakeCount;
+    private int asleepCount;
+    private long totalCulled;
+    private long totalAsleep;
+
+    /**
+     * @param config the game configuration the window height and the margins are read from
+     */
+    public ViewCuller(GameConfig config) {
+        this.MIN_DRAW_Y = -config.CULL_MARGIN;
+        this.MAX_DRAW_Y = config.WINDOW_HEIGHT + config.CULL_MARGIN;
+        this.MIN_AWAKE_Y = -config.WAKE_MARGIN;
+        this.MAX_AWAKE_Y = config.WINDOW_HEIGHT + config.WAKE_MARGIN;
+    }
+
+    /**
+     * Reset the draw counts, at the start of a render pass.
+     */
+    public void startRender() {
+        drawCount = 0;
+        culledCount = 0;
+    }
+
+    /**
+     * Reset the update counts, at the start of a tick.
+     */
+    public void startTick() {
+        awakeCount = 0;
+        asleepCount = 0;
+    }
+
+    /**
+     * Check if a draw at a position on the screen can show on the screen, and count it as drawn or culled.
+     * @param screenY the y coordinate on the screen the draw is centred at
+     * @return true if the draw has to be made
+     */
+    public boolean isVisible(double screenY) {
+        if (screenY >= MIN_DRAW_Y && screenY <= MAX_DRAW_Y) {
+            drawCount++;
+            return true;
+        }
+        culledCount++;
+        totalCulled++;
+        return false;
+    }
+
+    /**
+     * Check if an object that can sleep is close enough to the screen to be updated, and count it as awake or asleep.
+     * @param screenY the y coordinate of the object on the screen
+     * @return true if the object has to be updated
+     */
+    public boolean isAwake(int screenY) {
+        if (screenY >= MIN_AWAKE_Y && screenY <= MAX_AWAKE_Y) {
+            awakeCount++;
+            return true;
+        }
+        asleepCount++;
+        totalAsleep++;
+        return false;
+    }
+
+    public int getDrawCount() {
+        return drawCount;
+    }
+
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    public int getAwakeCount() {
+        return awakeCount;
+    }
+
+    public int getAsleepCount() {
+        return asleepCount;
+    }
+
+    @Override
+    public String toString() {
+        return "culling: culledDraws=" + totalCulled + " sleepingUpdates=" + totalAsleep;
+    }
+}
@@ -25,4 +25,12 @@ public class WeatherCondition {
     public String getCONDITION() {
         return CONDITION;
     }
+
+    public int getStartFrame() {
+        return startFrame;
+    }
+
+    public int getEndFrame() {
+        return endFrame;
+    }
 }